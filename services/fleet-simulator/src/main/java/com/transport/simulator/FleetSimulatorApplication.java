@@ -0,0 +1,23 @@
+package com.transport.simulator;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Simulateur de flotte - Générateur de charge pour l'ingestion de tracking-service
+ *
+ * N bus roulent le long de lignes (arrêts de scheduling-service ou synthétiques)
+ * et envoient leurs positions à un rythme configurable :
+ * - http : POST /api/tracking/location (une position par requête)
+ * - batch : POST /api/tracking/locations/batch
+ * - kafka : topic bus-locations
+ *
+ * Un rapport périodique donne le débit, les percentiles de latence et les erreurs.
+ */
+@SpringBootApplication
+public class FleetSimulatorApplication {
+
+    public static void main(String[] args) {
+        System.exit(SpringApplication.exit(SpringApplication.run(FleetSimulatorApplication.class, args)));
+    }
+}
@@ -0,0 +1,192 @@
+package com.transport.simulator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transport.simulator.fleet.FleetProvisioner;
+import com.transport.simulator.fleet.LocationPing;
+import com.transport.simulator.fleet.SimulatedBus;
+import com.transport.simulator.ingest.HttpPingSender;
+import com.transport.simulator.ingest.KafkaPingSender;
+import com.transport.simulator.ingest.PingSender;
+import com.transport.simulator.report.LoadReport;
+import com.transport.simulator.route.RouteCatalog;
+import com.transport.simulator.route.SimulatedRoute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Boucle de simulation
+ *
+ * Chaque bus envoie une position toutes les simulator.ping-interval-ms,
+ * les bus étant décalés uniformément sur l'intervalle. La boucle avance
+ * par pas de simulator.tick-ms ; au plus simulator.max-in-flight requêtes
+ * sont en cours : au-delà, la boucle attend, et le débit atteint devient
+ * inférieur au débit visé (visible dans le rapport).
+ *
+ * Code de sortie 1 si le taux d'erreur dépasse simulator.max-error-rate.
+ */
+@Component
+public class SimulationRunner implements CommandLineRunner, ExitCodeGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationRunner.class);
+
+    private final RouteCatalog routeCatalog;
+    private final FleetProvisioner provisioner;
+    private final ObjectMapper objectMapper;
+
+    @Value("${simulator.buses:100}")
+    private int busCount;
+
+    @Value("${simulator.ping-interval-ms:1000}")
+    private long pingIntervalMs;
+
+    @Value("${simulator.duration-seconds:60}")
+    private long durationSeconds;
+
+    @Value("${simulator.tick-ms:50}")
+    private long tickMs;
+
+    @Value("${simulator.mode:http}")
+    private String mode;
+
+    @Value("${simulator.batch-size:100}")
+    private int batchSize;
+
+    @Value("${simulator.max-in-flight:256}")
+    private int maxInFlight;
+
+    @Value("${simulator.request-timeout-ms:5000}")
+    private long requestTimeoutMs;
+
+    @Value("${simulator.target-url:http://localhost:8092}")
+    private String targetUrl;
+
+    @Value("${simulator.kafka.bootstrap-servers:localhost:9092}")
+    private String kafkaBootstrapServers;
+
+    @Value("${simulator.report-interval-seconds:10}")
+    private long reportIntervalSeconds;
+
+    @Value("${simulator.max-error-rate:0.01}")
+    private double maxErrorRate;
+
+    private int exitCode;
+
+    public SimulationRunner(RouteCatalog routeCatalog, FleetProvisioner provisioner, ObjectMapper objectMapper) {
+        this.routeCatalog = routeCatalog;
+        this.provisioner = provisioner;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        List<SimulatedRoute> routes = routeCatalog.load();
+        List<SimulatedBus> buses = provisioner.provision(busCount, routes);
+
+        double targetRate = busCount * 1000.0 / pingIntervalMs;
+        LoadReport report = new LoadReport(targetRate);
+        logger.info("Simulating {} buses, one ping every {} ms ({} pings/s) for {} s, mode={}",
+                busCount, pingIntervalMs, Math.round(targetRate), durationSeconds, mode);
+
+        try (PingSender sender = createSender()) {
+            simulate(buses, sender, report);
+        }
+
+        report.logSummary();
+        double errorRate = (double) report.errorCount() / Math.max(1, report.sentCount());
+        if (errorRate > maxErrorRate) {
+            logger.error("Error rate {} above threshold {}", String.format("%.4f", errorRate), maxErrorRate);
+            exitCode = 1;
+        }
+    }
+
+    private PingSender createSender() {
+        return switch (mode) {
+            case "http" -> new HttpPingSender(objectMapper, targetUrl, 1, Duration.ofMillis(requestTimeoutMs));
+            case "batch" -> new HttpPingSender(objectMapper, targetUrl, batchSize, Duration.ofMillis(requestTimeoutMs));
+            case "kafka" -> new KafkaPingSender(kafkaBootstrapServers);
+            default -> throw new IllegalArgumentException("Unknown simulator.mode: " + mode + " (http, batch, kafka)");
+        };
+    }
+
+    private void simulate(List<SimulatedBus> buses, PingSender sender, LoadReport report) throws InterruptedException {
+        int n = buses.size();
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(pingIntervalMs);
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        long reportNanos = TimeUnit.SECONDS.toNanos(reportIntervalSeconds);
+        double intervalSeconds = pingIntervalMs / 1000.0;
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long[] due = new long[n];
+        for (int i = 0; i < n; i++) {
+            due[i] = start + intervalNanos * i / n;
+        }
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<LocationPing> pending = new ArrayList<>();
+        long nextReport = start + reportNanos;
+        long nextTick = start;
+
+        while (System.nanoTime() < end) {
+            long now = System.nanoTime();
+            LocalDateTime timestamp = LocalDateTime.now();
+            for (int i = 0; i < n; i++) {
+                if (due[i] > now) {
+                    continue;
+                }
+                SimulatedBus bus = buses.get(i);
+                bus.advance(intervalSeconds);
+                pending.add(bus.ping(timestamp));
+                due[i] += intervalNanos;
+                if (pending.size() >= sender.maxBatchSize()) {
+                    dispatch(pending, sender, report, inFlight);
+                }
+            }
+            if (!pending.isEmpty()) {
+                dispatch(pending, sender, report, inFlight);
+            }
+
+            if (now >= nextReport) {
+                report.logInterval();
+                nextReport += reportNanos;
+            }
+            nextTick += tickNanos;
+            LockSupport.parkNanos(Math.max(0, nextTick - System.nanoTime()));
+        }
+
+        // Attendre les réponses en cours
+        if (!inFlight.tryAcquire(maxInFlight, requestTimeoutMs * 2, TimeUnit.MILLISECONDS)) {
+            logger.warn("{} requests still in flight at the end of the run", maxInFlight - inFlight.availablePermits());
+        }
+    }
+
+    private void dispatch(List<LocationPing> pending, PingSender sender, LoadReport report, Semaphore inFlight)
+            throws InterruptedException {
+        List<LocationPing> pings = List.copyOf(pending);
+        pending.clear();
+        inFlight.acquire();
+        try {
+            sender.send(pings, report).whenComplete((r, ex) -> inFlight.release());
+        } catch (RuntimeException e) {
+            inFlight.release();
+            report.failed(e.getClass().getSimpleName(), pings.size());
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
@@ -0,0 +1,134 @@
+package com.transport.simulator.fleet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transport.simulator.route.SimulatedRoute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Création des bus simulés dans tracking-service
+ *
+ * tracking-service rejette les positions des bus inconnus : chaque bus
+ * SIM-BUS-xxxx est créé (POST /api/buses) s'il n'existe pas encore,
+ * puis affecté à sa ligne (POST /api/buses/assign-route).
+ * Relancer la simulation réutilise les mêmes bus.
+ */
+@Component
+public class FleetProvisioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetProvisioner.class);
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final String targetUrl;
+    private final int capacity;
+    private final double cruiseKmh;
+    private final long seed;
+    private final int parallelism;
+
+    public FleetProvisioner(ObjectMapper objectMapper,
+                            @Value("${simulator.target-url:http://localhost:8092}") String targetUrl,
+                            @Value("${simulator.bus-capacity:80}") int capacity,
+                            @Value("${simulator.cruise-speed-kmh:25}") double cruiseKmh,
+                            @Value("${simulator.seed:42}") long seed,
+                            @Value("${simulator.provision-parallelism:16}") int parallelism) {
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        this.targetUrl = targetUrl;
+        this.capacity = capacity;
+        this.cruiseKmh = cruiseKmh;
+        this.seed = seed;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Créer (ou retrouver) busCount bus, répartis sur les lignes
+     */
+    public List<SimulatedBus> provision(int busCount, List<SimulatedRoute> routes) throws Exception {
+        logger.info("Provisioning {} buses on {} routes against {}", busCount, routes.size(), targetUrl);
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<SimulatedBus>> futures = new ArrayList<>(busCount);
+            for (int i = 0; i < busCount; i++) {
+                int index = i;
+                SimulatedRoute route = routes.get(i % routes.size());
+                futures.add(executor.submit(() -> provisionBus(index, route)));
+            }
+            List<SimulatedBus> buses = new ArrayList<>(busCount);
+            for (Future<SimulatedBus> future : futures) {
+                buses.add(future.get());
+            }
+            logger.info("{} buses ready", buses.size());
+            return buses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SimulatedBus provisionBus(int index, SimulatedRoute route) throws Exception {
+        String busNumber = String.format("SIM-BUS-%05d", index + 1);
+
+        String busId = findBusId(busNumber);
+        if (busId == null) {
+            HttpResponse<String> created = post("/api/buses", Map.of(
+                    "busNumber", busNumber,
+                    "licensePlate", String.format("SIM-%05d", index + 1),
+                    "type", "STANDARD",
+                    "capacity", capacity));
+            if (created.statusCode() != 201) {
+                throw new IllegalStateException("Could not create bus " + busNumber + ": HTTP " + created.statusCode());
+            }
+            busId = objectMapper.readTree(created.body()).get("id").asText();
+        }
+
+        HttpResponse<String> assigned = post("/api/buses/assign-route", Map.of(
+                "busId", busId,
+                "routeId", route.getId().toString(),
+                "routeNumber", route.getRouteNumber()));
+        if (assigned.statusCode() != 200) {
+            throw new IllegalStateException("Could not assign route to bus " + busNumber + ": HTTP " + assigned.statusCode());
+        }
+
+        return new SimulatedBus(busId, route, capacity, cruiseKmh, seed + index);
+    }
+
+    // tracking-service répond en erreur (pas de 404 dédié) pour un numéro inconnu
+    private String findBusId(String busNumber) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(targetUrl + "/api/buses/number/" + busNumber))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (response.statusCode() != 200) {
+            return null;
+        }
+        JsonNode bus = objectMapper.readTree(response.body());
+        return bus.hasNonNull("id") ? bus.get("id").asText() : null;
+    }
+
+    private HttpResponse<String> post(String path, Object body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(targetUrl + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,46 @@
+package com.transport.simulator.fleet;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position envoyée à tracking-service (même format que UpdateLocationRequest)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LocationPing {
+
+    private String busId;
+    private Double latitude;
+    private Double longitude;
+    private Double speed;
+    private Double heading;
+    private Double accuracy;
+    private Integer currentPassengers;
+    private LocalDateTime timestamp;
+
+    // Getters and Setters
+    public String getBusId() { return busId; }
+    public void setBusId(String busId) { this.busId = busId; }
+
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+    public Double getSpeed() { return speed; }
+    public void setSpeed(Double speed) { this.speed = speed; }
+
+    public Double getHeading() { return heading; }
+    public void setHeading(Double heading) { this.heading = heading; }
+
+    public Double getAccuracy() { return accuracy; }
+    public void setAccuracy(Double accuracy) { this.accuracy = accuracy; }
+
+    public Integer getCurrentPassengers() { return currentPassengers; }
+    public void setCurrentPassengers(Integer currentPassengers) { this.currentPassengers = currentPassengers; }
+
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+}
@@ -0,0 +1,140 @@
+package com.transport.simulator.fleet;
+
+import com.transport.simulator.route.SimulatedRoute;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Bus simulé : roule d'arrêt en arrêt le long de sa ligne (aller-retour)
+ *
+ * - vitesse de croisière avec variations, arrêts de 15 à 40 s à chaque station
+ * - embouteillages aléatoires (bus immobile de 30 à 120 s)
+ * - montées / descentes de passagers aux stations
+ *
+ * Non thread-safe : un bus n'est avancé que par un seul thread à la fois.
+ */
+public class SimulatedBus {
+
+    private static final double KM_PER_DEG_LAT = 111.32;
+
+    private final String busId;
+    private final SimulatedRoute route;
+    private final int capacity;
+    private final double cruiseKmh;
+    private final Random random;
+
+    private int fromStop;
+    private int direction = 1;
+    private double fraction;       // avancement sur le segment [0, 1]
+    private double dwellSeconds;   // immobile (station ou trafic)
+    private double speedKmh;
+    private int passengers;
+
+    private double latitude;
+    private double longitude;
+    private double heading;
+
+    public SimulatedBus(String busId, SimulatedRoute route, int capacity, double cruiseKmh, long seed) {
+        this.busId = busId;
+        this.route = route;
+        this.capacity = capacity;
+        this.cruiseKmh = cruiseKmh;
+        this.random = new Random(seed);
+        // Départ réparti sur la ligne
+        this.fromStop = random.nextInt(route.size() - 1);
+        this.fraction = random.nextDouble();
+        this.passengers = random.nextInt(capacity / 2 + 1);
+        updatePosition();
+    }
+
+    /**
+     * Avancer le bus de dtSeconds
+     */
+    public void advance(double dtSeconds) {
+        if (dwellSeconds > 0) {
+            dwellSeconds -= dtSeconds;
+            speedKmh = 0;
+            return;
+        }
+        // Embouteillage : en moyenne un toutes les 10 minutes de roulage
+        if (random.nextDouble() < dtSeconds / 600.0) {
+            dwellSeconds = 30 + random.nextInt(91);
+            speedKmh = 0;
+            return;
+        }
+
+        speedKmh = Math.max(5, cruiseKmh * (0.7 + 0.6 * random.nextDouble()));
+        double remainingKm = speedKmh * dtSeconds / 3600.0;
+
+        while (remainingKm > 0) {
+            int toStop = fromStop + direction;
+            double segmentKm = Math.max(segmentKm(fromStop, toStop), 0.001);
+            double leftKm = (1 - fraction) * segmentKm;
+            if (remainingKm < leftKm) {
+                fraction += remainingKm / segmentKm;
+                break;
+            }
+            remainingKm -= leftKm;
+            arriveAt(toStop);
+            if (dwellSeconds > 0) {
+                break;
+            }
+        }
+        updatePosition();
+    }
+
+    private void arriveAt(int stop) {
+        fromStop = stop;
+        fraction = 0;
+        if (stop == 0 || stop == route.size() - 1) {
+            direction = -direction;
+        }
+        dwellSeconds = 15 + random.nextInt(26);
+        int alighting = random.nextInt(passengers / 3 + 1);
+        int boarding = random.nextInt(Math.max(1, capacity / 8));
+        passengers = Math.min(capacity, Math.max(0, passengers - alighting + boarding));
+    }
+
+    private void updatePosition() {
+        int toStop = fromStop + direction;
+        double lat1 = route.latitude(fromStop);
+        double lon1 = route.longitude(fromStop);
+        double lat2 = route.latitude(toStop);
+        double lon2 = route.longitude(toStop);
+        latitude = lat1 + (lat2 - lat1) * fraction;
+        longitude = lon1 + (lon2 - lon1) * fraction;
+
+        double dy = lat2 - lat1;
+        double dx = (lon2 - lon1) * Math.cos(Math.toRadians(lat1));
+        heading = (Math.toDegrees(Math.atan2(dx, dy)) + 360) % 360;
+    }
+
+    private double segmentKm(int a, int b) {
+        double dLat = (route.latitude(b) - route.latitude(a)) * KM_PER_DEG_LAT;
+        double dLon = (route.longitude(b) - route.longitude(a)) * KM_PER_DEG_LAT
+                * Math.cos(Math.toRadians(route.latitude(a)));
+        return Math.sqrt(dLat * dLat + dLon * dLon);
+    }
+
+    /**
+     * Position courante au format de UpdateLocationRequest (tracking-service)
+     */
+    public LocationPing ping(LocalDateTime timestamp) {
+        // Bruit GPS d'environ 5 m
+        double noise = 5.0 / 1000 / KM_PER_DEG_LAT;
+        LocationPing ping = new LocationPing();
+        ping.setBusId(busId);
+        ping.setLatitude(latitude + random.nextGaussian() * noise);
+        ping.setLongitude(longitude + random.nextGaussian() * noise);
+        ping.setSpeed(Math.round(speedKmh * 10) / 10.0);
+        ping.setHeading(Math.round(heading * 10) / 10.0);
+        ping.setAccuracy(5.0);
+        ping.setCurrentPassengers(passengers);
+        ping.setTimestamp(timestamp);
+        return ping;
+    }
+
+    public String getBusId() { return busId; }
+    public SimulatedRoute getRoute() { return route; }
+}
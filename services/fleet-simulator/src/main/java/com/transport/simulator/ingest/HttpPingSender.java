@@ -0,0 +1,103 @@
+package com.transport.simulator.ingest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transport.simulator.fleet.LocationPing;
+import com.transport.simulator.report.LoadReport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Envoi HTTP vers tracking-service
+ *
+ * - batchSize = 1 : POST /api/tracking/location (une position par requête)
+ * - batchSize > 1 : POST /api/tracking/locations/batch
+ */
+public class HttpPingSender implements PingSender {
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final int batchSize;
+    private final Duration timeout;
+
+    public HttpPingSender(ObjectMapper objectMapper, String targetUrl, int batchSize, Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        this.batchSize = batchSize;
+        this.uri = URI.create(targetUrl + (batchSize > 1 ? "/api/tracking/locations/batch" : "/api/tracking/location"));
+        this.timeout = timeout;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public CompletableFuture<Void> send(List<LocationPing> pings, LoadReport report) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(batchSize > 1 ? pings : pings.get(0));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+
+        long start = System.nanoTime();
+        report.sent(pings.size());
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, ex) -> {
+                    long latency = System.nanoTime() - start;
+                    if (ex != null) {
+                        report.failed(reason(ex), pings.size());
+                    } else if (response.statusCode() != 200) {
+                        report.failed("http-" + response.statusCode(), pings.size());
+                    } else {
+                        int accepted = batchSize > 1 ? accepted(response.body(), report) : 1;
+                        report.completed(latency, accepted);
+                    }
+                    return null;
+                });
+    }
+
+    // Réponse du batch : {"accepted": n, "rejected": m, "results": [...]}
+    private int accepted(byte[] body, LoadReport report) {
+        try {
+            JsonNode result = objectMapper.readTree(body);
+            int rejected = result.path("rejected").asInt();
+            if (rejected > 0) {
+                report.failed("rejected", rejected);
+            }
+            return result.path("accepted").asInt();
+        } catch (IOException e) {
+            report.failed("bad-response", 1);
+            return 0;
+        }
+    }
+
+    private static String reason(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof HttpTimeoutException) {
+            return "timeout";
+        }
+        return cause instanceof IOException ? "io" : cause.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,62 @@
+package com.transport.simulator.ingest;
+
+import com.transport.simulator.fleet.LocationPing;
+import com.transport.simulator.report.LoadReport;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Envoi sur le topic bus-locations (clé = busId), comme un boîtier passant par Kafka
+ * La latence mesurée est celle de l'accusé du broker, pas du traitement par tracking-service.
+ */
+public class KafkaPingSender implements PingSender {
+
+    public static final String TOPIC_LOCATIONS = "bus-locations";
+
+    private final KafkaProducer<String, LocationPing> producer;
+
+    public KafkaPingSender(String bootstrapServers) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.ACKS_CONFIG, "1");
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        this.producer = new KafkaProducer<>(config, new StringSerializer(), new JsonSerializer<>());
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return 1;
+    }
+
+    @Override
+    public CompletableFuture<Void> send(List<LocationPing> pings, LoadReport report) {
+        LocationPing ping = pings.get(0);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        long start = System.nanoTime();
+        report.sent(1);
+        producer.send(new ProducerRecord<>(TOPIC_LOCATIONS, ping.getBusId(), ping), (metadata, ex) -> {
+            if (ex != null) {
+                report.failed("kafka-" + ex.getClass().getSimpleName(), 1);
+            } else {
+                report.completed(System.nanoTime() - start, 1);
+            }
+            done.complete(null);
+        });
+        return done;
+    }
+
+    @Override
+    public void close() {
+        producer.close();
+    }
+}
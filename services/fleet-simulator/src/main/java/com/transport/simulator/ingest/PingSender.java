@@ -0,0 +1,27 @@
+package com.transport.simulator.ingest;
+
+import com.transport.simulator.fleet.LocationPing;
+import com.transport.simulator.report.LoadReport;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Chemin d'ingestion visé par la simulation
+ *
+ * send() est asynchrone : le résultat (latence, acceptées, erreurs) est
+ * enregistré dans le LoadReport à la fin de l'envoi.
+ */
+public interface PingSender extends AutoCloseable {
+
+    /**
+     * Nombre maximal de positions par appel à send()
+     */
+    int maxBatchSize();
+
+    CompletableFuture<Void> send(List<LocationPing> pings, LoadReport report);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,87 @@
+package com.transport.simulator.report;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Histogramme de latences sans verrou
+ *
+ * Classes logarithmiques (pas de 5 %) de 10 µs à environ 2 min :
+ * les percentiles sont exacts à 5 % près, quel que soit le nombre de mesures.
+ */
+public class LatencyRecorder {
+
+    private static final double MIN_MICROS = 10;
+    private static final double STEP = Math.log(1.05);
+    private static final int BINS = 340;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BINS);
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long micros = Math.max(1, nanos / 1000);
+        counts.incrementAndGet(bin(micros));
+        maxMicros.accumulate(micros);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BINS];
+        long total = 0;
+        for (int i = 0; i < BINS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, maxMicros.get());
+    }
+
+    private static int bin(long micros) {
+        if (micros <= MIN_MICROS) {
+            return 0;
+        }
+        int bin = (int) (Math.log(micros / MIN_MICROS) / STEP) + 1;
+        return Math.min(bin, BINS - 1);
+    }
+
+    private static double upperBoundMicros(int bin) {
+        return MIN_MICROS * Math.exp(bin * STEP);
+    }
+
+    /**
+     * Copie figée de l'histogramme
+     */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long total;
+        private final long maxMicros;
+
+        private Snapshot(long[] counts, long total, long maxMicros) {
+            this.counts = counts;
+            this.total = total;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getTotal() { return total; }
+
+        /**
+         * Percentile q (0..1) en millisecondes, 0 si aucune mesure
+         */
+        public double percentileMillis(double q) {
+            if (total == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(q * total));
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                if (cumulative >= target) {
+                    return Math.min(upperBoundMicros(i), maxMicros) / 1000.0;
+                }
+            }
+            return maxMicros / 1000.0;
+        }
+
+        public double maxMillis() {
+            return maxMicros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.transport.simulator.report;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs de la simulation : positions envoyées, acceptées, en erreur,
+ * latence des requêtes (ou des accusés Kafka)
+ */
+public class LoadReport {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadReport.class);
+
+    private final long startNanos = System.nanoTime();
+    private final double targetRate;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LatencyRecorder latency = new LatencyRecorder();
+
+    private long lastSent;
+    private long lastNanos = startNanos;
+
+    public LoadReport(double targetRate) {
+        this.targetRate = targetRate;
+    }
+
+    public void sent(int pings) {
+        sent.add(pings);
+    }
+
+    /**
+     * Fin d'une requête : latence et nombre de positions acceptées
+     */
+    public void completed(long latencyNanos, int acceptedPings) {
+        requests.increment();
+        latency.record(latencyNanos);
+        accepted.add(acceptedPings);
+    }
+
+    public void failed(String reason, int pings) {
+        errors.computeIfAbsent(reason, k -> new LongAdder()).add(pings);
+    }
+
+    /**
+     * Débit depuis le dernier appel (appelé par un seul thread)
+     */
+    public void logInterval() {
+        long now = System.nanoTime();
+        long total = sent.sum();
+        double seconds = (now - lastNanos) / 1e9;
+        double rate = seconds > 0 ? (total - lastSent) / seconds : 0;
+        lastSent = total;
+        lastNanos = now;
+
+        LatencyRecorder.Snapshot snapshot = latency.snapshot();
+        logger.info("sent={} ({}/s, target {}/s) accepted={} errors={} latency p50={}ms p99={}ms",
+                total, Math.round(rate), Math.round(targetRate), accepted.sum(), errorCount(),
+                format(snapshot.percentileMillis(0.50)), format(snapshot.percentileMillis(0.99)));
+    }
+
+    public void logSummary() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long total = sent.sum();
+        LatencyRecorder.Snapshot snapshot = latency.snapshot();
+
+        StringBuilder summary = new StringBuilder();
+        summary.append("\n========================================\n");
+        summary.append(" Fleet simulation summary\n");
+        summary.append("========================================\n");
+        summary.append(String.format(" Duration        : %.1f s%n", seconds));
+        summary.append(String.format(" Pings sent      : %d (%.0f/s, target %.0f/s)%n", total, total / seconds, targetRate));
+        summary.append(String.format(" Pings accepted  : %d%n", accepted.sum()));
+        summary.append(String.format(" Requests        : %d%n", requests.sum()));
+        summary.append(String.format(" Errors          : %d (%.2f %%)%n", errorCount(),
+                total > 0 ? 100.0 * errorCount() / total : 0));
+        for (Map.Entry<String, Long> error : errorsByReason().entrySet()) {
+            summary.append(String.format("   %-14s: %d%n", error.getKey(), error.getValue()));
+        }
+        summary.append(String.format(" Latency (ms)    : p50=%s p90=%s p95=%s p99=%s p99.9=%s max=%s%n",
+                format(snapshot.percentileMillis(0.50)), format(snapshot.percentileMillis(0.90)),
+                format(snapshot.percentileMillis(0.95)), format(snapshot.percentileMillis(0.99)),
+                format(snapshot.percentileMillis(0.999)), format(snapshot.maxMillis())));
+        summary.append("========================================");
+        logger.info(summary.toString());
+    }
+
+    public long sentCount() {
+        return sent.sum();
+    }
+
+    public long errorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private Map<String, Long> errorsByReason() {
+        Map<String, Long> byReason = new TreeMap<>();
+        errors.forEach((reason, count) -> byReason.put(reason, count.sum()));
+        return byReason;
+    }
+
+    private static String format(double millis) {
+        return String.format("%.1f", millis);
+    }
+}
@@ -0,0 +1,134 @@
+package com.transport.simulator.route;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Lignes utilisées par la simulation
+ *
+ * - simulator.scheduling-url renseigné : lignes et arrêts de scheduling-service (GET /api/routes)
+ * - sinon (ou si la récupération échoue) : lignes synthétiques en étoile
+ *   autour de simulator.center-latitude / center-longitude
+ */
+@Component
+public class RouteCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteCatalog.class);
+
+    private static final double KM_PER_DEG_LAT = 111.32;
+
+    private final ObjectMapper objectMapper;
+    private final String schedulingUrl;
+    private final int syntheticRoutes;
+    private final int stopsPerRoute;
+    private final double stopSpacingKm;
+    private final double centerLatitude;
+    private final double centerLongitude;
+    private final long seed;
+
+    public RouteCatalog(ObjectMapper objectMapper,
+                        @Value("${simulator.scheduling-url:}") String schedulingUrl,
+                        @Value("${simulator.routes:10}") int syntheticRoutes,
+                        @Value("${simulator.stops-per-route:20}") int stopsPerRoute,
+                        @Value("${simulator.stop-spacing-km:0.5}") double stopSpacingKm,
+                        @Value("${simulator.center-latitude:33.5731}") double centerLatitude,
+                        @Value("${simulator.center-longitude:-7.5898}") double centerLongitude,
+                        @Value("${simulator.seed:42}") long seed) {
+        this.objectMapper = objectMapper;
+        this.schedulingUrl = schedulingUrl;
+        this.syntheticRoutes = syntheticRoutes;
+        this.stopsPerRoute = stopsPerRoute;
+        this.stopSpacingKm = stopSpacingKm;
+        this.centerLatitude = centerLatitude;
+        this.centerLongitude = centerLongitude;
+        this.seed = seed;
+    }
+
+    public List<SimulatedRoute> load() {
+        if (!schedulingUrl.isBlank()) {
+            try {
+                List<SimulatedRoute> routes = fetch();
+                if (!routes.isEmpty()) {
+                    logger.info("Loaded {} routes from {}", routes.size(), schedulingUrl);
+                    return routes;
+                }
+                logger.warn("No usable route from {}, using synthetic routes", schedulingUrl);
+            } catch (Exception e) {
+                logger.warn("Could not load routes from {} ({}), using synthetic routes", schedulingUrl, e.getMessage());
+            }
+        }
+        List<SimulatedRoute> routes = synthetic();
+        logger.info("Generated {} synthetic routes of {} stops", routes.size(), stopsPerRoute);
+        return routes;
+    }
+
+    private List<SimulatedRoute> fetch() throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(schedulingUrl + "/api/routes"))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode());
+        }
+
+        List<SimulatedRoute> routes = new ArrayList<>();
+        for (JsonNode route : objectMapper.readTree(response.body())) {
+            List<JsonNode> stops = new ArrayList<>();
+            route.path("stops").forEach(stops::add);
+            stops.removeIf(stop -> !stop.hasNonNull("latitude") || !stop.hasNonNull("longitude"));
+            stops.sort(Comparator.comparingInt(stop -> stop.path("sequenceOrder").asInt()));
+            if (stops.size() < 2 || !route.hasNonNull("id") || !route.hasNonNull("routeNumber")) {
+                continue;
+            }
+            List<double[]> points = new ArrayList<>();
+            for (JsonNode stop : stops) {
+                points.add(new double[]{stop.get("latitude").asDouble(), stop.get("longitude").asDouble()});
+            }
+            routes.add(new SimulatedRoute(UUID.fromString(route.get("id").asText()),
+                    route.get("routeNumber").asText(), points));
+        }
+        return routes;
+    }
+
+    // Lignes rayonnantes depuis le centre, légèrement sinueuses
+    private List<SimulatedRoute> synthetic() {
+        Random random = new Random(seed);
+        double kmPerDegLon = KM_PER_DEG_LAT * Math.cos(Math.toRadians(centerLatitude));
+
+        List<SimulatedRoute> routes = new ArrayList<>();
+        for (int r = 0; r < syntheticRoutes; r++) {
+            double bearing = 2 * Math.PI * r / syntheticRoutes;
+            double lat = centerLatitude;
+            double lon = centerLongitude;
+            List<double[]> stops = new ArrayList<>();
+            for (int s = 0; s < stopsPerRoute; s++) {
+                stops.add(new double[]{lat, lon});
+                double heading = bearing + (random.nextDouble() - 0.5) * 0.6;
+                lat += stopSpacingKm * Math.cos(heading) / KM_PER_DEG_LAT;
+                lon += stopSpacingKm * Math.sin(heading) / kmPerDegLon;
+            }
+            String routeNumber = "SIM-" + (r + 1);
+            UUID id = UUID.nameUUIDFromBytes(routeNumber.getBytes(StandardCharsets.UTF_8));
+            routes.add(new SimulatedRoute(id, routeNumber, stops));
+        }
+        return routes;
+    }
+}
@@ -0,0 +1,36 @@
+package com.transport.simulator.route;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ligne parcourue par les bus simulés : arrêts dans l'ordre de passage
+ * Les bus font l'aller puis le retour en boucle.
+ */
+public class SimulatedRoute {
+
+    private final UUID id;
+    private final String routeNumber;
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    public SimulatedRoute(UUID id, String routeNumber, List<double[]> stops) {
+        if (stops.size() < 2) {
+            throw new IllegalArgumentException("A route needs at least 2 stops: " + routeNumber);
+        }
+        this.id = id;
+        this.routeNumber = routeNumber;
+        this.latitudes = new double[stops.size()];
+        this.longitudes = new double[stops.size()];
+        for (int i = 0; i < stops.size(); i++) {
+            latitudes[i] = stops.get(i)[0];
+            longitudes[i] = stops.get(i)[1];
+        }
+    }
+
+    public UUID getId() { return id; }
+    public String getRouteNumber() { return routeNumber; }
+    public int size() { return latitudes.length; }
+    public double latitude(int stop) { return latitudes[stop]; }
+    public double longitude(int stop) { return longitudes[stop]; }
+}
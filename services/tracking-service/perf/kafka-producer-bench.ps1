@@ -0,0 +1,45 @@
+# PowerShell Script - Benchmark du producteur Kafka (tracking-service)
+# Compare le réglage par défaut et le profil "kafka-throughput"
+# (voir application-kafka-throughput.yml) avec kafka-producer-perf-test.
+#
+# Les valeurs du profil (lz4, linger 20 ms, lots de 128 Kio) sont des valeurs
+# de départ non validées : ce script sert à les mesurer, reporter les
+# résultats et ajuster le profil en conséquence.
+#
+# Prérequis : docker-compose up -d zookeeper kafka
+# Usage : .\kafka-producer-bench.ps1 [-Records 200000]
+
+param(
+    [int]$Records = 200000,
+    [string]$Container = "transport-kafka",
+    [string]$Topic = "bus-events-bench"
+)
+
+Write-Host "========================================" -ForegroundColor Cyan
+Write-Host "Kafka Producer Benchmark - tracking-service" -ForegroundColor Cyan
+Write-Host "========================================" -ForegroundColor Cyan
+
+$payload = Join-Path $PSScriptRoot "event-sample.json"
+docker cp $payload "${Container}:/tmp/event-sample.json"
+if ($LASTEXITCODE -ne 0) {
+    Write-Host "ERROR: Kafka container '$Container' is not running." -ForegroundColor Red
+    exit 1
+}
+
+docker exec $Container kafka-topics --bootstrap-server kafka:9093 --create --if-not-exists `
+    --topic $Topic --partitions 3 --replication-factor 1 | Out-Null
+
+# Mêmes valeurs que KafkaProducerConfig (défaut) et application-kafka-throughput.yml
+$profiles = [ordered]@{
+    "default"          = "acks=all retries=3 enable.idempotence=true linger.ms=1 batch.size=16384 compression.type=none"
+    "kafka-throughput" = "acks=all enable.idempotence=true linger.ms=20 batch.size=131072 compression.type=lz4 buffer.memory=67108864"
+}
+
+foreach ($name in $profiles.Keys) {
+    Write-Host "`n[$name] $($profiles[$name])" -ForegroundColor Yellow
+    $props = "bootstrap.servers=kafka:9093 " + $profiles[$name]
+    $output = docker exec $Container sh -c "kafka-producer-perf-test --topic $Topic --num-records $Records --throughput -1 --payload-file /tmp/event-sample.json --producer-props $props"
+    # Dernière ligne : résumé (records/sec, latences moyennes et percentiles)
+    $summary = $output | Select-Object -Last 1
+    Write-Host "  $summary" -ForegroundColor Green
+}
@@ -3,18 +3,21 @@ package com.transport.tracking;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Tracking Service - Service de géolocalisation des bus
  *
  * Ce service :
- * - Suit la position GPS des bus en temps réel
+ * - Suit la position GPS des bus en temps réel (REST ou topic Kafka "bus-locations")
+ * - Diffuse les positions aux clients WebSocket (STOMP /ws/tracking)
  * - Détecte les retards et anomalies
  * - Envoie des événements vers Kafka (Producer)
  * - Communique avec le service de notifications
  */
 @SpringBootApplication
-@EnableKafka  // Active le support Kafka (Producer)
+@EnableKafka  // Active le support Kafka (Producer + Consumer des positions)
+@EnableScheduling  // Tâches périodiques (diffusion WebSocket, ...)
 public class TrackingApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,55 @@
+package com.transport.tracking.cache;
+
+import com.transport.tracking.model.Bus;
+import com.transport.tracking.model.BusStatus;
+
+/**
+ * Métadonnées d'un bus utiles à l'ingestion des positions (copie immuable)
+ */
+public class BusMetadata {
+
+    private final String id;
+    private final String busNumber;
+    private final String routeNumber;
+    private final Integer capacity;
+    private final BusStatus status;
+
+    public BusMetadata(String id, String busNumber, String routeNumber, Integer capacity, BusStatus status) {
+        this.id = id;
+        this.busNumber = busNumber;
+        this.routeNumber = routeNumber;
+        this.capacity = capacity;
+        this.status = status;
+    }
+
+    public static BusMetadata fromDomain(Bus bus) {
+        return new BusMetadata(bus.getId(), bus.getBusNumber(), bus.getRouteNumber(),
+                bus.getCapacity(), bus.getStatus());
+    }
+
+    /**
+     * Vérifier un nombre de passagers (mêmes règles que Bus.updatePassengerCount)
+     */
+    public void checkPassengerCount(int count) {
+        if (count < 0 || capacity == null || count > capacity) {
+            throw new IllegalArgumentException("Invalid passenger count");
+        }
+    }
+
+    /**
+     * Taux d'occupation en % pour un nombre de passagers (voir Bus.getOccupancyRate)
+     */
+    public double occupancyRate(int passengers) {
+        if (capacity == null || capacity == 0) {
+            return 0.0;
+        }
+        return (double) passengers / capacity * 100;
+    }
+
+    // Getters
+    public String getId() { return id; }
+    public String getBusNumber() { return busNumber; }
+    public String getRouteNumber() { return routeNumber; }
+    public Integer getCapacity() { return capacity; }
+    public BusStatus getStatus() { return status; }
+}
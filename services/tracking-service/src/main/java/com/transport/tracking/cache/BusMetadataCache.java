@@ -0,0 +1,103 @@
+package com.transport.tracking.cache;
+
+import com.transport.tracking.model.Bus;
+import com.transport.tracking.repository.BusRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache des métadonnées des bus (busNumber, routeNumber, capacity, status)
+ *
+ * Évite une lecture de la collection buses à chaque position reçue.
+ * - rempli au démarrage
+ * - tenu à jour par BusService à chaque modification d'un bus
+ * - expiration (tracking.cache.bus.ttl-seconds) : borne le décalage avec
+ *   les modifications faites par une autre instance
+ */
+@Component
+public class BusMetadataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(BusMetadataCache.class);
+
+    private final BusRepository busRepository;
+    private final LruCache<String, BusMetadata> cache;
+
+    public BusMetadataCache(BusRepository busRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${tracking.cache.bus.max-size:10000}") int maxSize,
+                            @Value("${tracking.cache.bus.ttl-seconds:300}") long ttlSeconds) {
+        this.busRepository = busRepository;
+        this.cache = new LruCache<>("bus-metadata", maxSize, Duration.ofSeconds(ttlSeconds), meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            int loaded = 0;
+            for (Bus bus : busRepository.findAll()) {
+                if (loaded++ >= cache.getMaxSize()) {
+                    break;
+                }
+                put(bus);
+            }
+            logger.info("Bus metadata cache ready: {} buses", cache.size());
+        } catch (Exception e) {
+            logger.warn("Could not warm up bus metadata cache: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Métadonnées d'un bus (lecture MongoDB si absent du cache)
+     */
+    public Optional<BusMetadata> find(String busId) {
+        BusMetadata metadata = cache.get(busId);
+        if (metadata != null) {
+            return Optional.of(metadata);
+        }
+        return busRepository.findById(busId).map(this::put);
+    }
+
+    /**
+     * Métadonnées de plusieurs bus (une seule lecture MongoDB pour les absents)
+     * Les bus inconnus sont absents du résultat.
+     */
+    public Map<String, BusMetadata> findAll(Collection<String> busIds) {
+        Map<String, BusMetadata> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String busId : busIds) {
+            BusMetadata metadata = cache.get(busId);
+            if (metadata != null) {
+                result.put(busId, metadata);
+            } else {
+                missing.add(busId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            busRepository.findAllById(missing).forEach(bus -> result.put(bus.getId(), put(bus)));
+        }
+        return result;
+    }
+
+    public BusMetadata put(Bus bus) {
+        BusMetadata metadata = BusMetadata.fromDomain(bus);
+        cache.put(bus.getId(), metadata);
+        return metadata;
+    }
+
+    public void evict(String busId) {
+        cache.invalidate(busId);
+    }
+}
@@ -0,0 +1,180 @@
+package com.transport.tracking.cache;
+
+import com.transport.tracking.model.GeocodingCacheEntry;
+import com.transport.tracking.repository.GeocodingCacheRepository;
+import com.transport.tracking.service.GeocodingService.GeoLocation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache des résultats de géocodage (adresse -> coordonnées)
+ *
+ * - niveau 1 : LRU en mémoire
+ * - niveau 2 : collection MongoDB geocoding_cache (survit aux redémarrages)
+ * Les adresses introuvables sont aussi mises en cache, pour une durée plus
+ * courte. Les erreurs des fournisseurs ne le sont jamais.
+ * Deux requêtes simultanées pour la même adresse ne font qu'un appel externe.
+ *
+ * Métriques : cache.gets{cache=geocoding} (mémoire),
+ * cache.gets{cache=geocoding-store} (MongoDB)
+ */
+@Component
+public class GeocodingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeocodingCache.class);
+
+    private final GeocodingCacheRepository repository;
+    private final LruCache<String, CachedResult> memory;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final ConcurrentHashMap<String, CompletableFuture<CachedResult>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter storeHits;
+    private final Counter storeMisses;
+
+    public GeocodingCache(GeocodingCacheRepository repository,
+                          MeterRegistry meterRegistry,
+                          @Value("${tracking.geocoding.cache.max-size:10000}") int maxSize,
+                          @Value("${tracking.geocoding.cache.ttl-hours:720}") long ttlHours,
+                          @Value("${tracking.geocoding.cache.negative-ttl-minutes:60}") long negativeTtlMinutes) {
+        this.repository = repository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.negativeTtl = Duration.ofMinutes(negativeTtlMinutes);
+        this.memory = new LruCache<>("geocoding", maxSize, ttl, meterRegistry);
+        this.storeHits = Counter.builder("cache.gets").tag("cache", "geocoding-store").tag("result", "hit")
+                .register(meterRegistry);
+        this.storeMisses = Counter.builder("cache.gets").tag("cache", "geocoding-store").tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Résultat de géocodage, depuis le cache ou via loader
+     *
+     * @param loader appel au fournisseur, renvoie null si l'adresse est introuvable
+     * @throws IllegalArgumentException si l'adresse est introuvable
+     */
+    public GeoLocation get(String provider, String address, Supplier<GeoLocation> loader) {
+        String key = provider + ":" + normalize(address);
+
+        CachedResult result = memory.get(key);
+        if (result == null || result.isExpired()) {
+            result = loadOnce(key, loader);
+        }
+        if (result.location == null) {
+            throw new IllegalArgumentException("Address not found: " + address);
+        }
+        return result.location;
+    }
+
+    /**
+     * Clé normalisée : minuscules, sans accents ni ponctuation, espaces réduits
+     */
+    public static String normalize(String address) {
+        String normalized = Normalizer.normalize(address, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ");
+        return normalized.trim();
+    }
+
+    private CachedResult loadOnce(String key, Supplier<GeoLocation> loader) {
+        CompletableFuture<CachedResult> future = new CompletableFuture<>();
+        CompletableFuture<CachedResult> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            CachedResult result = fromStore(key);
+            if (result == null) {
+                result = load(key, loader);
+            }
+            memory.put(key, result);
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private CachedResult load(String key, Supplier<GeoLocation> loader) {
+        GeoLocation location = loader.get();
+        LocalDateTime expiresAt = LocalDateTime.now().plus(location != null ? ttl : negativeTtl);
+        CachedResult result = new CachedResult(location, expiresAt);
+        toStore(key, result);
+        return result;
+    }
+
+    private CachedResult fromStore(String key) {
+        try {
+            GeocodingCacheEntry entry = repository.findById(key).orElse(null);
+            // L'index TTL n'est appliqué que toutes les minutes environ
+            if (entry == null || entry.getExpiresAt().isBefore(LocalDateTime.now())) {
+                storeMisses.increment();
+                return null;
+            }
+            storeHits.increment();
+            GeoLocation location = entry.isFound()
+                    ? new GeoLocation(entry.getLatitude(), entry.getLongitude(),
+                            entry.getFormattedAddress(), entry.getProvider())
+                    : null;
+            return new CachedResult(location, entry.getExpiresAt());
+        } catch (Exception e) {
+            logger.warn("Could not read geocoding cache store: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void toStore(String key, CachedResult result) {
+        try {
+            GeocodingCacheEntry entry = new GeocodingCacheEntry();
+            entry.setKey(key);
+            entry.setFound(result.location != null);
+            if (result.location != null) {
+                entry.setLatitude(result.location.getLatitude());
+                entry.setLongitude(result.location.getLongitude());
+                entry.setFormattedAddress(result.location.getFormattedAddress());
+                entry.setProvider(result.location.getProvider());
+            }
+            entry.setExpiresAt(result.expiresAt);
+            repository.save(entry);
+        } catch (Exception e) {
+            logger.warn("Could not write geocoding cache store: {}", e.getMessage());
+        }
+    }
+
+    // location == null : adresse introuvable (cache négatif)
+    private static class CachedResult {
+        private final GeoLocation location;
+        private final LocalDateTime expiresAt;
+
+        private CachedResult(GeoLocation location, LocalDateTime expiresAt) {
+            this.location = location;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return expiresAt.isBefore(LocalDateTime.now());
+        }
+    }
+}
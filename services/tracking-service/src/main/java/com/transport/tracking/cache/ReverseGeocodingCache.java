@@ -0,0 +1,135 @@
+package com.transport.tracking.cache;
+
+import com.transport.tracking.geo.GeoMath;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache du géocodage inversé par cellule de grille (coordonnées -> adresse)
+ *
+ * Les positions GPS ne se répètent jamais exactement : les adresses sont
+ * rangées dans des cellules d'environ cellSizeMeters de côté. Une recherche
+ * sonde la cellule du point et ses 8 voisines, et réutilise l'adresse
+ * connue la plus proche à moins de cellSizeMeters.
+ *
+ * La largeur des cellules en longitude est corrigée par cos(latitude)
+ * de leur rangée, pour garder des cellules à peu près carrées.
+ *
+ * Métriques : cache.gets{cache=reverse-geocoding-<fournisseur>}
+ */
+@Component
+public class ReverseGeocodingCache {
+
+    public static final String UNKNOWN_LOCATION = "Unknown location";
+
+    private static final double METERS_PER_DEGREE = GeoMath.EARTH_RADIUS_KM * 1000 * Math.PI / 180;
+
+    private final double cellSizeMeters;
+    private final double cellSizeDeg;
+    private final int maxSize;
+    private final Duration ttl;
+    private final MeterRegistry meterRegistry;
+
+    // Un cache par fournisseur (google, osm)
+    private final ConcurrentHashMap<String, LruCache<Long, CachedAddress>> caches = new ConcurrentHashMap<>();
+
+    public ReverseGeocodingCache(MeterRegistry meterRegistry,
+                                 @Value("${tracking.geocoding.reverse.cell-size-m:25}") double cellSizeMeters,
+                                 @Value("${tracking.geocoding.reverse.max-size:50000}") int maxSize,
+                                 @Value("${tracking.geocoding.reverse.ttl-hours:168}") long ttlHours) {
+        if (cellSizeMeters <= 0) {
+            throw new IllegalArgumentException("Cell size must be > 0");
+        }
+        this.meterRegistry = meterRegistry;
+        this.cellSizeMeters = cellSizeMeters;
+        this.cellSizeDeg = cellSizeMeters / METERS_PER_DEGREE;
+        this.maxSize = maxSize;
+        this.ttl = Duration.ofHours(ttlHours);
+    }
+
+    /**
+     * Adresse d'un point, depuis le cache ou via loader
+     * Les résultats "Unknown location" ne sont pas mis en cache.
+     */
+    public String get(String provider, double latitude, double longitude, Supplier<String> loader) {
+        LruCache<Long, CachedAddress> cache = cacheFor(provider);
+
+        String cached = lookup(cache, latitude, longitude);
+        if (cached != null) {
+            cache.recordHit();
+            return cached;
+        }
+        cache.recordMiss();
+
+        String address = loader.get();
+        if (address != null && !UNKNOWN_LOCATION.equals(address)) {
+            put(provider, latitude, longitude, address);
+        }
+        return address;
+    }
+
+    public void put(String provider, double latitude, double longitude, String address) {
+        int latIdx = latIndex(latitude);
+        cacheFor(provider).put(cellKey(latIdx, lonIndex(latIdx, longitude)),
+                new CachedAddress(latitude, longitude, address));
+    }
+
+    private String lookup(LruCache<Long, CachedAddress> cache, double latitude, double longitude) {
+        int centerLat = latIndex(latitude);
+        CachedAddress best = null;
+        double bestDistance = cellSizeMeters;
+
+        for (int latIdx = centerLat - 1; latIdx <= centerLat + 1; latIdx++) {
+            int centerLon = lonIndex(latIdx, longitude);
+            for (int lonIdx = centerLon - 1; lonIdx <= centerLon + 1; lonIdx++) {
+                CachedAddress candidate = cache.peek(cellKey(latIdx, lonIdx));
+                if (candidate == null) {
+                    continue;
+                }
+                double distance = GeoMath.haversineKm(latitude, longitude,
+                        candidate.latitude, candidate.longitude) * 1000;
+                if (distance <= bestDistance) {
+                    best = candidate;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best != null ? best.address : null;
+    }
+
+    private LruCache<Long, CachedAddress> cacheFor(String provider) {
+        return caches.computeIfAbsent(provider, p ->
+                new LruCache<>("reverse-geocoding-" + p, maxSize, ttl, meterRegistry));
+    }
+
+    private int latIndex(double latitude) {
+        return (int) Math.floor(latitude / cellSizeDeg);
+    }
+
+    private int lonIndex(int latIdx, double longitude) {
+        double rowLatitude = (latIdx + 0.5) * cellSizeDeg;
+        double cos = Math.max(Math.cos(Math.toRadians(rowLatitude)), 0.01);
+        return (int) Math.floor(longitude / (cellSizeDeg / cos));
+    }
+
+    private static long cellKey(int latIdx, int lonIdx) {
+        return ((long) latIdx << 32) | (lonIdx & 0xFFFFFFFFL);
+    }
+
+    private static class CachedAddress {
+        private final double latitude;
+        private final double longitude;
+        private final String address;
+
+        private CachedAddress(double latitude, double longitude, String address) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.address = address;
+        }
+    }
+}
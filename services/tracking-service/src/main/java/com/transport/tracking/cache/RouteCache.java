@@ -0,0 +1,67 @@
+package com.transport.tracking.cache;
+
+import com.transport.tracking.geo.GeoMath;
+import com.transport.tracking.service.RouteCalculationService.RouteInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Cache des itinéraires calculés (origine/destination -> RouteInfo)
+ *
+ * Origine et destination sont ramenées sur une grille d'environ snapMeters :
+ * deux demandes proches (ex: même arrêt) partagent le même itinéraire.
+ * La clé inclut le fournisseur demandé. Expiration courte (trafic).
+ *
+ * Métriques : cache.gets{cache=routes}
+ */
+@Component
+public class RouteCache {
+
+    private static final double METERS_PER_DEGREE = GeoMath.EARTH_RADIUS_KM * 1000 * Math.PI / 180;
+
+    private final double snapDeg;
+    private final LruCache<String, RouteInfo> cache;
+
+    public RouteCache(MeterRegistry meterRegistry,
+                      @Value("${tracking.routing.cache.snap-m:50}") double snapMeters,
+                      @Value("${tracking.routing.cache.max-size:20000}") int maxSize,
+                      @Value("${tracking.routing.cache.ttl-minutes:15}") long ttlMinutes) {
+        if (snapMeters <= 0) {
+            throw new IllegalArgumentException("Snap size must be > 0");
+        }
+        this.snapDeg = snapMeters / METERS_PER_DEGREE;
+        this.cache = new LruCache<>("routes", maxSize, Duration.ofMinutes(ttlMinutes), meterRegistry);
+    }
+
+    /**
+     * Clé : fournisseur + cellules de l'origine et de la destination
+     */
+    public String key(String provider, double originLat, double originLng, double destLat, double destLng) {
+        return provider.toLowerCase(Locale.ROOT)
+                + ':' + snapLat(originLat) + ',' + snapLng(originLat, originLng)
+                + ':' + snapLat(destLat) + ',' + snapLng(destLat, destLng);
+    }
+
+    public RouteInfo get(String key) {
+        return cache.get(key);
+    }
+
+    public void put(String key, RouteInfo route) {
+        cache.put(key, route);
+    }
+
+    private long snapLat(double latitude) {
+        return Math.round(latitude / snapDeg);
+    }
+
+    // Largeur en longitude corrigée par cos(latitude) de la rangée, pour des cellules à peu près carrées
+    private long snapLng(double latitude, double longitude) {
+        double rowLatitude = snapLat(latitude) * snapDeg;
+        double cos = Math.max(Math.cos(Math.toRadians(rowLatitude)), 0.01);
+        return Math.round(longitude / (snapDeg / cos));
+    }
+}
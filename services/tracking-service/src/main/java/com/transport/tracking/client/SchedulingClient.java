@@ -0,0 +1,164 @@
+package com.transport.tracking.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Client HTTP vers scheduling-service (lignes, arrêts et horaires)
+ * Résolution de SCHEDULING-SERVICE via Eureka (load balancer).
+ */
+@Component
+public class SchedulingClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulingClient.class);
+
+    private final WebClient webClient;
+    private final Duration timeout;
+
+    public SchedulingClient(ReactorLoadBalancerExchangeFilterFunction loadBalancer,
+                            @Value("${tracking.scheduling.base-url:http://SCHEDULING-SERVICE}") String baseUrl,
+                            @Value("${tracking.scheduling.timeout-ms:5000}") long timeoutMs) {
+        this.webClient = WebClient.builder()
+                .baseUrl(baseUrl)
+                .filter(loadBalancer)
+                .build();
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    /**
+     * Toutes les lignes avec leurs arrêts
+     * GET /api/routes
+     */
+    public List<Route> getRoutes() {
+        logger.info("Fetching routes from scheduling-service");
+        List<Route> routes = webClient.get()
+                .uri("/api/routes")
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<Route>>() {})
+                .block(timeout);
+        return routes != null ? routes : List.of();
+    }
+
+    /**
+     * Horaires d'une ligne
+     * GET /api/schedules/route/{routeId}
+     */
+    public List<Schedule> getSchedules(UUID routeId) {
+        List<Schedule> schedules = webClient.get()
+                .uri("/api/schedules/route/{routeId}", routeId)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<Schedule>>() {})
+                .block(timeout);
+        return schedules != null ? schedules : List.of();
+    }
+
+    /**
+     * Ligne de bus (voir RouteResponse de scheduling-service)
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Route {
+        private UUID id;
+        private String routeNumber;
+        private String name;
+        private String status;
+        private List<Stop> stops;
+
+        public UUID getId() { return id; }
+        public void setId(UUID id) { this.id = id; }
+
+        public String getRouteNumber() { return routeNumber; }
+        public void setRouteNumber(String routeNumber) { this.routeNumber = routeNumber; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public List<Stop> getStops() { return stops; }
+        public void setStops(List<Stop> stops) { this.stops = stops; }
+    }
+
+    /**
+     * Arrêt d'une ligne (voir StopResponse de scheduling-service)
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Stop {
+        private UUID id;
+        private String name;
+        private Double latitude;
+        private Double longitude;
+        private Integer sequenceOrder;
+        private Double distanceToNext;   // en km
+        private Integer durationToNext;  // en minutes
+
+        public UUID getId() { return id; }
+        public void setId(UUID id) { this.id = id; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public Double getLatitude() { return latitude; }
+        public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+        public Double getLongitude() { return longitude; }
+        public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+        public Integer getSequenceOrder() { return sequenceOrder; }
+        public void setSequenceOrder(Integer sequenceOrder) { this.sequenceOrder = sequenceOrder; }
+
+        public Double getDistanceToNext() { return distanceToNext; }
+        public void setDistanceToNext(Double distanceToNext) { this.distanceToNext = distanceToNext; }
+
+        public Integer getDurationToNext() { return durationToNext; }
+        public void setDurationToNext(Integer durationToNext) { this.durationToNext = durationToNext; }
+    }
+
+    /**
+     * Horaire d'une ligne (voir ScheduleResponse de scheduling-service)
+     * Départs explicites (departureTimes) ou réguliers (startTime..endTime toutes les frequency minutes)
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Schedule {
+        private UUID id;
+        private List<DayOfWeek> activeDays;
+        private LocalTime startTime;
+        private LocalTime endTime;
+        private Integer frequency;  // en minutes
+        private List<LocalTime> departureTimes;
+        private Boolean isActive;
+
+        public UUID getId() { return id; }
+        public void setId(UUID id) { this.id = id; }
+
+        public List<DayOfWeek> getActiveDays() { return activeDays; }
+        public void setActiveDays(List<DayOfWeek> activeDays) { this.activeDays = activeDays; }
+
+        public LocalTime getStartTime() { return startTime; }
+        public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+
+        public LocalTime getEndTime() { return endTime; }
+        public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+
+        public Integer getFrequency() { return frequency; }
+        public void setFrequency(Integer frequency) { this.frequency = frequency; }
+
+        public List<LocalTime> getDepartureTimes() { return departureTimes; }
+        public void setDepartureTimes(List<LocalTime> departureTimes) { this.departureTimes = departureTimes; }
+
+        public Boolean getIsActive() { return isActive; }
+        public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+    }
+}
@@ -4,7 +4,12 @@ import com.google.maps.GeoApiContext;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class GeoLocationConfig {
@@ -15,6 +20,12 @@ public class GeoLocationConfig {
     @Value("${openstreetmap.api.url:https://nominatim.openstreetmap.org}")
     private String openStreetMapApiUrl;
 
+    @Value("${osrm.api.url:https://router.project-osrm.org}")
+    private String osrmApiUrl;
+
+    @Value("${tracking.routing.osrm.max-connections:50}")
+    private int osrmMaxConnections;
+
     /**
      * Google Maps API Context
      * Utilisé pour les services de géocodage, directions, etc.
@@ -41,4 +52,23 @@ public class GeoLocationConfig {
                 .defaultHeader("User-Agent", "UrbanTransportSystem/1.0")
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * WebClient pour OSRM (calcul d'itinéraires OpenStreetMap)
+     * Partagé par tous les appels, avec un pool de connexions dédié
+     */
+    @Bean
+    public WebClient osrmClient() {
+        ConnectionProvider pool = ConnectionProvider.builder("osrm")
+                .maxConnections(osrmMaxConnections)
+                .pendingAcquireTimeout(Duration.ofSeconds(5))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+
+        return WebClient.builder()
+                .baseUrl(osrmApiUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(pool)))
+                .defaultHeader("User-Agent", "UrbanTransportSystem/1.0")
+                .build();
+    }
+}
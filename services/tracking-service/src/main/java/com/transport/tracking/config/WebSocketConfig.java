@@ -0,0 +1,92 @@
+package com.transport.tracking.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+/**
+ * Configuration WebSocket / STOMP - Positions des bus en temps réel
+ *
+ * Endpoint : ws://host:port/ws/tracking
+ *
+ * Abonnements :
+ * - /topic/tracking/route/{routeNumber} : positions modifiées des bus d'une ligne
+ * - /topic/tracking/bus/{busId}         : position d'un bus
+ * - /user/queue/tracking/area           : positions dans une zone, après un envoi
+ *                                         vers /app/tracking/area (voir LivePositionController)
+ *
+ * Remplace @EnableWebSocketMessageBroker pour fournir le handler STOMP
+ * (les autres WebSocketMessageBrokerConfigurer restent pris en compte).
+ */
+@Configuration
+public class WebSocketConfig extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    @Value("${tracking.live.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${tracking.live.send-buffer-size-limit:262144}")
+    private int sendBufferSizeLimit;
+
+    @Override
+    protected void registerStompEndpoints(StompEndpointRegistry registry) {
+        super.registerStompEndpoints(registry);
+        registry.addEndpoint("/ws/tracking").setAllowedOriginPatterns("*");
+    }
+
+    @Override
+    protected void configureMessageBroker(MessageBrokerRegistry registry) {
+        super.configureMessageBroker(registry);
+        registry.enableSimpleBroker("/topic", "/queue");
+        registry.setApplicationDestinationPrefixes("/app");
+        registry.setUserDestinationPrefix("/user");
+    }
+
+    @Override
+    protected void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        super.configureWebSocketTransport(registration);
+        registration.setSendTimeLimit(sendTimeLimitMs).setSendBufferSizeLimit(sendBufferSizeLimit);
+    }
+
+    @Bean
+    @Override
+    public WebSocketHandler subProtocolWebSocketHandler(
+            @Qualifier("clientInboundChannel") AbstractSubscribableChannel clientInboundChannel,
+            @Qualifier("clientOutboundChannel") AbstractSubscribableChannel clientOutboundChannel) {
+        LiveSubProtocolWebSocketHandler handler =
+                new LiveSubProtocolWebSocketHandler(clientInboundChannel, clientOutboundChannel);
+        handler.setPhase(getPhase());
+        return handler;
+    }
+
+    /**
+     * Clients lents : au lieu de fermer la connexion quand le tampon d'envoi
+     * est plein, les messages les plus anciens en attente sont abandonnés.
+     * Le client ne reçoit donc que les positions les plus récentes.
+     * Les limites viennent de configureWebSocketTransport.
+     */
+    static class LiveSubProtocolWebSocketHandler extends SubProtocolWebSocketHandler {
+
+        LiveSubProtocolWebSocketHandler(MessageChannel clientInboundChannel,
+                                        SubscribableChannel clientOutboundChannel) {
+            super(clientInboundChannel, clientOutboundChannel);
+        }
+
+        @Override
+        protected WebSocketSession decorateSession(WebSocketSession session) {
+            return new ConcurrentWebSocketSessionDecorator(session, getSendTimeLimit(),
+                    getSendBufferSizeLimit(), ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP);
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package com.transport.tracking.controller;
 
+import com.transport.tracking.cache.BusMetadata;
+import com.transport.tracking.cache.BusMetadataCache;
 import com.transport.tracking.kafka.BusEventProducer;
-import com.transport.tracking.model.Bus;
 import com.transport.tracking.model.BusLocation;
-import com.transport.tracking.repository.BusRepository;
 import com.transport.tracking.repository.BusLocationRepository;
+import com.transport.tracking.state.LiveFleetState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
@@ -28,16 +29,19 @@ public class BusEventController {
     private static final Logger logger = LoggerFactory.getLogger(BusEventController.class);
 
     private final BusEventProducer busEventProducer;
-    private final BusRepository busRepository;
+    private final BusMetadataCache busMetadataCache;
+    private final LiveFleetState fleetState;
     private final BusLocationRepository locationRepository;
 
     public BusEventController(
             BusEventProducer busEventProducer,
-            BusRepository busRepository,
+            BusMetadataCache busMetadataCache,
+            LiveFleetState fleetState,
             BusLocationRepository locationRepository
     ) {
         this.busEventProducer = busEventProducer;
-        this.busRepository = busRepository;
+        this.busMetadataCache = busMetadataCache;
+        this.fleetState = fleetState;
         this.locationRepository = locationRepository;
     }
 
@@ -60,7 +64,7 @@ public class BusEventController {
             String message = (String) request.get("message");
 
             // Récupérer les infos du bus
-            Optional<Bus> busOpt = busRepository.findById(busId);
+            Optional<BusMetadata> busOpt = busMetadataCache.find(busId);
             if (busOpt.isEmpty()) {
                 return ResponseEntity.badRequest().body(Map.of(
                     "status", "error",
@@ -68,11 +72,10 @@ public class BusEventController {
                 ));
             }
 
-            Bus bus = busOpt.get();
+            BusMetadata bus = busOpt.get();
 
             // Récupérer la dernière position
-            Optional<BusLocation> locationOpt = locationRepository
-                    .findFirstByBusIdOrderByTimestampDesc(busId);
+            Optional<BusLocation> locationOpt = findLatestLocation(busId);
 
             Double latitude = locationOpt.map(BusLocation::getLatitude).orElse(null);
             Double longitude = locationOpt.map(BusLocation::getLongitude).orElse(null);
@@ -117,7 +120,7 @@ public class BusEventController {
             String busId = (String) request.get("busId");
             String reason = (String) request.get("reason");
 
-            Optional<Bus> busOpt = busRepository.findById(busId);
+            Optional<BusMetadata> busOpt = busMetadataCache.find(busId);
             if (busOpt.isEmpty()) {
                 return ResponseEntity.badRequest().body(Map.of(
                     "status", "error",
@@ -125,10 +128,9 @@ public class BusEventController {
                 ));
             }
 
-            Bus bus = busOpt.get();
+            BusMetadata bus = busOpt.get();
 
-            Optional<BusLocation> locationOpt = locationRepository
-                    .findFirstByBusIdOrderByTimestampDesc(busId);
+            Optional<BusLocation> locationOpt = findLatestLocation(busId);
 
             Double latitude = locationOpt.map(BusLocation::getLatitude).orElse(null);
             Double longitude = locationOpt.map(BusLocation::getLongitude).orElse(null);
@@ -170,7 +172,7 @@ public class BusEventController {
             String busId = (String) request.get("busId");
             String description = (String) request.get("description");
 
-            Optional<Bus> busOpt = busRepository.findById(busId);
+            Optional<BusMetadata> busOpt = busMetadataCache.find(busId);
             if (busOpt.isEmpty()) {
                 return ResponseEntity.badRequest().body(Map.of(
                     "status", "error",
@@ -178,10 +180,9 @@ public class BusEventController {
                 ));
             }
 
-            Bus bus = busOpt.get();
+            BusMetadata bus = busOpt.get();
 
-            Optional<BusLocation> locationOpt = locationRepository
-                    .findFirstByBusIdOrderByTimestampDesc(busId);
+            Optional<BusLocation> locationOpt = findLatestLocation(busId);
 
             Double latitude = locationOpt.map(BusLocation::getLatitude).orElse(null);
             Double longitude = locationOpt.map(BusLocation::getLongitude).orElse(null);
@@ -252,4 +253,10 @@ public class BusEventController {
             ));
         }
     }
+
+    // Dernière position : état temps réel, MongoDB pour un bus absent depuis le démarrage
+    private Optional<BusLocation> findLatestLocation(String busId) {
+        return fleetState.find(busId)
+                .or(() -> locationRepository.findFirstByBusIdOrderByTimestampDesc(busId));
+    }
 }
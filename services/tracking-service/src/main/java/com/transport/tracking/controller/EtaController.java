@@ -0,0 +1,49 @@
+package com.transport.tracking.controller;
+
+import com.transport.tracking.dto.EtaResponse;
+import com.transport.tracking.eta.EtaEngine;
+import com.transport.tracking.shard.ShardClient;
+import com.transport.tracking.shard.ShardDispatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller pour les heures d'arrivée estimées
+ *
+ * Base URL: /api/tracking/eta
+ */
+@RestController
+@RequestMapping("/api/tracking/eta")
+@CrossOrigin(origins = "*")
+public class EtaController {
+
+    private static final Logger logger = LoggerFactory.getLogger(EtaController.class);
+
+    private final EtaEngine etaEngine;
+    private final ShardDispatcher shardDispatcher;
+
+    public EtaController(EtaEngine etaEngine, ShardDispatcher shardDispatcher) {
+        this.etaEngine = etaEngine;
+        this.shardDispatcher = shardDispatcher;
+    }
+
+    /**
+     * Arrivées estimées d'un bus aux arrêts suivants de sa ligne
+     * GET /api/tracking/eta/{busId}
+     * (calculées par l'instance propriétaire du bus si le sharding est activé)
+     */
+    @GetMapping("/{busId}")
+    public ResponseEntity<EtaResponse> getEta(
+            @PathVariable String busId,
+            @RequestHeader(value = ShardClient.FORWARDED_HEADER, required = false) String forwarded) {
+        logger.info("GET /api/tracking/eta/{} - Predicting arrivals", busId);
+        try {
+            return ResponseEntity.ok(forwarded != null ? etaEngine.predict(busId) : shardDispatcher.predictEta(busId));
+        } catch (IllegalArgumentException e) {
+            logger.warn("No ETA for bus {}: {}", busId, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
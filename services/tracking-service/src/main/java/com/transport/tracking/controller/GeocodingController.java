@@ -35,10 +35,15 @@ public class GeocodingController {
 
         GeocodingService.GeoLocation location;
 
-        if ("google".equalsIgnoreCase(provider)) {
-            location = geocodingService.geocodeWithGoogleMaps(q);
-        } else {
-            location = geocodingService.geocodeWithOpenStreetMap(q);
+        try {
+            if ("google".equalsIgnoreCase(provider)) {
+                location = geocodingService.geocodeWithGoogleMaps(q);
+            } else {
+                location = geocodingService.geocodeWithOpenStreetMap(q);
+            }
+        } catch (IllegalArgumentException e) {
+            // Adresse introuvable
+            return ResponseEntity.notFound().build();
         }
 
         return ResponseEntity.ok(location);
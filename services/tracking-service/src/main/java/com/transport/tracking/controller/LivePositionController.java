@@ -0,0 +1,48 @@
+package com.transport.tracking.controller;
+
+import com.transport.tracking.dto.AreaSubscriptionRequest;
+import com.transport.tracking.service.LivePositionBroadcaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Controller;
+
+/**
+ * Controller STOMP pour le suivi des positions en temps réel
+ *
+ * Suivi d'une zone :
+ * 1. SUBSCRIBE /user/queue/tracking/area
+ * 2. SEND /app/tracking/area
+ *    { "minLatitude": 33.55, "maxLatitude": 33.60,
+ *      "minLongitude": -7.65, "maxLongitude": -7.55, "minIntervalMs": 2000 }
+ * 3. SEND /app/tracking/area/clear pour arrêter
+ *
+ * Ligne ou bus : SUBSCRIBE directement /topic/tracking/route/{routeNumber}
+ * ou /topic/tracking/bus/{busId}
+ */
+@Controller
+public class LivePositionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(LivePositionController.class);
+
+    private final LivePositionBroadcaster broadcaster;
+
+    public LivePositionController(LivePositionBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    @MessageMapping("/tracking/area")
+    public void subscribeArea(@Payload AreaSubscriptionRequest request,
+                              @Header("simpSessionId") String sessionId) {
+        logger.info("STOMP /app/tracking/area - session {}", sessionId);
+        broadcaster.subscribeArea(sessionId, request);
+    }
+
+    @MessageMapping("/tracking/area/clear")
+    public void clearArea(@Header("simpSessionId") String sessionId) {
+        logger.info("STOMP /app/tracking/area/clear - session {}", sessionId);
+        broadcaster.unsubscribeArea(sessionId);
+    }
+}
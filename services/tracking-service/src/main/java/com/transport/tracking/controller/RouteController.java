@@ -5,10 +5,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 /**
  * Controller pour le calcul d'itinéraires
  * Utilise Google Maps et OpenStreetMap
+ * Les réponses sont asynchrones (Mono) : aucun thread servlet n'attend les fournisseurs
  */
 @RestController
 @RequestMapping("/api/routesBus")
@@ -28,7 +30,7 @@ public class RouteController {
      * GET /api/routes/calculate?originLat=33.5731&originLng=-7.5898&destLat=33.5937&destLng=-7.6187&provider=osm
      */
     @GetMapping("/calculate")
-    public ResponseEntity<RouteCalculationService.RouteInfo> calculateRoute(
+    public Mono<ResponseEntity<RouteCalculationService.RouteInfo>> calculateRoute(
             @RequestParam double originLat,
             @RequestParam double originLng,
             @RequestParam double destLat,
@@ -38,17 +40,8 @@ public class RouteController {
         logger.info("GET /api/routes/calculate - ({},{}) -> ({},{}) provider={}",
                 originLat, originLng, destLat, destLng, provider);
 
-        RouteCalculationService.RouteInfo routeInfo;
-
-        if ("google".equalsIgnoreCase(provider)) {
-            routeInfo = routeCalculationService.calculateRouteWithGoogleMaps(
-                    originLat, originLng, destLat, destLng);
-        } else {
-            routeInfo = routeCalculationService.calculateRouteWithOpenStreetMap(
-                    originLat, originLng, destLat, destLng);
-        }
-
-        return ResponseEntity.ok(routeInfo);
+        return routeCalculationService.calculateRoute(originLat, originLng, destLat, destLng, provider)
+                .map(ResponseEntity::ok);
     }
 
     /**
@@ -56,7 +49,7 @@ public class RouteController {
      * GET /api/routes/eta?currentLat=33.5731&currentLng=-7.5898&destLat=33.5937&destLng=-7.6187&speedKmh=45
      */
     @GetMapping("/eta")
-    public ResponseEntity<ETAResponse> calculateETA(
+    public Mono<ResponseEntity<ETAResponse>> calculateETA(
             @RequestParam double currentLat,
             @RequestParam double currentLng,
             @RequestParam double destLat,
@@ -66,10 +59,8 @@ public class RouteController {
         logger.info("GET /api/routes/eta - ({},{}) -> ({},{}) speed={}km/h",
                 currentLat, currentLng, destLat, destLng, speedKmh);
 
-        int etaMinutes = routeCalculationService.calculateETA(
-                currentLat, currentLng, destLat, destLng, speedKmh);
-
-        return ResponseEntity.ok(new ETAResponse(etaMinutes));
+        return routeCalculationService.calculateETA(currentLat, currentLng, destLat, destLng, speedKmh)
+                .map(etaMinutes -> ResponseEntity.ok(new ETAResponse(etaMinutes)));
     }
 
     // Inner class pour la réponse ETA
@@ -1,15 +1,27 @@
 package com.transport.tracking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.transport.tracking.dto.BatchLocationResponse;
 import com.transport.tracking.dto.LocationResponse;
 import com.transport.tracking.dto.UpdateLocationRequest;
 import com.transport.tracking.service.TrackingService;
+import com.transport.tracking.shard.ShardClient;
+import com.transport.tracking.shard.ShardDispatcher;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -17,6 +29,10 @@ import java.util.List;
  * REST Controller pour le tracking GPS des bus
  *
  * Base URL: /api/tracking
+ *
+ * Avec le sharding, les positions et la dernière position d'un bus sont
+ * traitées par l'instance propriétaire (ShardDispatcher) ; les requêtes
+ * déjà transmises (en-tête X-Tracking-Forwarded) sont traitées ici.
  */
 @RestController
 @RequestMapping("/api/tracking")
@@ -25,10 +41,21 @@ public class TrackingController {
 
     private static final Logger logger = LoggerFactory.getLogger(TrackingController.class);
 
-    private final TrackingService trackingService;
+    private static final String NDJSON = "application/x-ndjson";
 
-    public TrackingController(TrackingService trackingService) {
+    private final TrackingService trackingService;
+    private final ShardDispatcher shardDispatcher;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
+
+    public TrackingController(TrackingService trackingService,
+                              ShardDispatcher shardDispatcher,
+                              ObjectMapper objectMapper,
+                              @Value("${tracking.ingest.max-batch-size:1000}") int maxBatchSize) {
         this.trackingService = trackingService;
+        this.shardDispatcher = shardDispatcher;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
     }
 
     /**
@@ -55,9 +82,35 @@ public class TrackingController {
      */
     @PostMapping("/location")
     public ResponseEntity<LocationResponse> updateLocation(
-            @Valid @RequestBody UpdateLocationRequest request) {
+            @Valid @RequestBody UpdateLocationRequest request,
+            @RequestHeader(value = ShardClient.FORWARDED_HEADER, required = false) String forwarded) {
         logger.info("POST /api/tracking/location - Updating location for bus: {}", request.getBusId());
-        LocationResponse response = trackingService.updateLocation(request);
+        LocationResponse response = forwarded != null
+                ? trackingService.updateLocation(request)
+                : shardDispatcher.updateLocation(request);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Mettre à jour plusieurs positions en une fois (boîtiers bufferisés)
+     * POST /api/tracking/locations/batch
+     *
+     * Body: tableau de positions (même format que /location,
+     * avec un champ "timestamp" optionnel pour l'heure du fix GPS)
+     *
+     * Retourne un résultat par position (ACCEPTED / REJECTED)
+     */
+    @PostMapping("/locations/batch")
+    public ResponseEntity<BatchLocationResponse> updateLocations(
+            @RequestBody List<UpdateLocationRequest> requests,
+            @RequestHeader(value = ShardClient.FORWARDED_HEADER, required = false) String forwarded) {
+        logger.info("POST /api/tracking/locations/batch - {} locations", requests.size());
+        if (requests.size() > maxBatchSize) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        BatchLocationResponse response = forwarded != null
+                ? trackingService.updateLocations(requests)
+                : shardDispatcher.updateLocations(requests);
         return ResponseEntity.ok(response);
     }
 
@@ -66,15 +119,22 @@ public class TrackingController {
      * GET /api/tracking/location/{busId}
      */
     @GetMapping("/location/{busId}")
-    public ResponseEntity<LocationResponse> getLatestLocation(@PathVariable String busId) {
+    public ResponseEntity<LocationResponse> getLatestLocation(
+            @PathVariable String busId,
+            @RequestHeader(value = ShardClient.FORWARDED_HEADER, required = false) String forwarded) {
         logger.info("GET /api/tracking/location/{} - Fetching latest location", busId);
-        LocationResponse response = trackingService.getLatestLocation(busId);
+        LocationResponse response = forwarded != null
+                ? trackingService.getLatestLocation(busId)
+                : shardDispatcher.getLatestLocation(busId);
         return ResponseEntity.ok(response);
     }
 
     /**
      * Obtenir l'historique des positions d'un bus
      * GET /api/tracking/history/{busId}?start=2024-01-15T10:00:00&end=2024-01-15T18:00:00
+     *
+     * Réponse JSON complète en mémoire : pour de longues périodes,
+     * préférer le flux NDJSON ci-dessous.
      */
     @GetMapping("/history/{busId}")
     public ResponseEntity<List<LocationResponse>> getLocationHistory(
@@ -86,6 +146,43 @@ public class TrackingController {
         return ResponseEntity.ok(history);
     }
 
+    /**
+     * Historique en flux NDJSON (un point compact par ligne, ordre chronologique)
+     * GET /api/tracking/history/{busId}?start=...&end=...&resolution=10&tolerance=15
+     * Header: Accept: application/x-ndjson
+     *
+     * resolution : au plus un point toutes les N secondes (0 = tous)
+     * tolerance : distance minimale en mètres entre deux points (0 = aucune)
+     */
+    @GetMapping(value = "/history/{busId}", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamLocationHistory(
+            @PathVariable String busId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "0") long resolution,
+            @RequestParam(defaultValue = "0") double tolerance) {
+        logger.info("GET /api/tracking/history/{} (stream) - From {} to {}", busId, start, end);
+        // Paramètres vérifiés avant l'envoi des en-têtes
+        if (end.isBefore(start) || resolution < 0 || tolerance < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = (OutputStream out) -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(out)) {
+                trackingService.streamLocationHistory(busId, start, end, resolution, tolerance, point -> {
+                    try {
+                        writer.write(point);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     /**
      * Obtenir les positions de tous les bus d'une ligne
      * GET /api/tracking/route/{routeNumber}
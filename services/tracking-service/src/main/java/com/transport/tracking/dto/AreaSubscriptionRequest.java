@@ -0,0 +1,31 @@
+package com.transport.tracking.dto;
+
+/**
+ * Abonnement WebSocket aux positions des bus d'une zone rectangulaire
+ */
+public class AreaSubscriptionRequest {
+
+    private double minLatitude;
+    private double maxLatitude;
+    private double minLongitude;
+    private double maxLongitude;
+
+    // Intervalle minimum entre deux envois à ce client (optionnel)
+    private Long minIntervalMs;
+
+    // Getters and Setters
+    public double getMinLatitude() { return minLatitude; }
+    public void setMinLatitude(double minLatitude) { this.minLatitude = minLatitude; }
+
+    public double getMaxLatitude() { return maxLatitude; }
+    public void setMaxLatitude(double maxLatitude) { this.maxLatitude = maxLatitude; }
+
+    public double getMinLongitude() { return minLongitude; }
+    public void setMinLongitude(double minLongitude) { this.minLongitude = minLongitude; }
+
+    public double getMaxLongitude() { return maxLongitude; }
+    public void setMaxLongitude(double maxLongitude) { this.maxLongitude = maxLongitude; }
+
+    public Long getMinIntervalMs() { return minIntervalMs; }
+    public void setMinIntervalMs(Long minIntervalMs) { this.minIntervalMs = minIntervalMs; }
+}
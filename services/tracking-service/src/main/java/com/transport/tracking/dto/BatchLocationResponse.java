@@ -0,0 +1,66 @@
+package com.transport.tracking.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résultat d'une ingestion groupée de positions
+ * Un résultat par position, dans l'ordre de la requête.
+ */
+public class BatchLocationResponse {
+
+    private int accepted;
+    private int rejected;
+    private List<ItemResult> results = new ArrayList<>();
+
+    public void addAccepted(int index, String busId, String locationId) {
+        results.add(new ItemResult(index, busId, ItemStatus.ACCEPTED, locationId, null));
+        accepted++;
+    }
+
+    public void addRejected(int index, String busId, String error) {
+        results.add(new ItemResult(index, busId, ItemStatus.REJECTED, null, error));
+        rejected++;
+    }
+
+    // Getters and Setters
+    public int getAccepted() { return accepted; }
+    public void setAccepted(int accepted) { this.accepted = accepted; }
+
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+
+    public List<ItemResult> getResults() { return results; }
+    public void setResults(List<ItemResult> results) { this.results = results; }
+
+    public enum ItemStatus {
+        ACCEPTED,
+        REJECTED
+    }
+
+    public static class ItemResult {
+        private int index;
+        private String busId;
+        private ItemStatus status;
+        private String locationId;
+        private String error;
+
+        // Désérialisation (réponse d'une autre instance, voir ShardClient)
+        private ItemResult() {
+        }
+
+        public ItemResult(int index, String busId, ItemStatus status, String locationId, String error) {
+            this.index = index;
+            this.busId = busId;
+            this.status = status;
+            this.locationId = locationId;
+            this.error = error;
+        }
+
+        public int getIndex() { return index; }
+        public String getBusId() { return busId; }
+        public ItemStatus getStatus() { return status; }
+        public String getLocationId() { return locationId; }
+        public String getError() { return error; }
+    }
+}
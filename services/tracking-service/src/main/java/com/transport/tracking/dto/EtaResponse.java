@@ -0,0 +1,76 @@
+package com.transport.tracking.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Heures d'arrivée estimées d'un bus aux arrêts suivants de sa ligne
+ */
+public class EtaResponse {
+
+    /**
+     * Origine du temps de parcours d'un segment
+     */
+    public enum EtaSource {
+        HISTORY,    // Temps observés (histogramme du segment)
+        SCHEDULE,   // Durée prévue par scheduling-service
+        DEFAULT     // Distance / vitesse par défaut
+    }
+
+    private String busId;
+    private String routeNumber;
+    private LocalDateTime positionTimestamp;
+    private LocalDateTime modelTrainedAt;
+    private List<StopEta> stops = new ArrayList<>();
+
+    // Getters and Setters
+    public String getBusId() { return busId; }
+    public void setBusId(String busId) { this.busId = busId; }
+
+    public String getRouteNumber() { return routeNumber; }
+    public void setRouteNumber(String routeNumber) { this.routeNumber = routeNumber; }
+
+    public LocalDateTime getPositionTimestamp() { return positionTimestamp; }
+    public void setPositionTimestamp(LocalDateTime positionTimestamp) { this.positionTimestamp = positionTimestamp; }
+
+    public LocalDateTime getModelTrainedAt() { return modelTrainedAt; }
+    public void setModelTrainedAt(LocalDateTime modelTrainedAt) { this.modelTrainedAt = modelTrainedAt; }
+
+    public List<StopEta> getStops() { return stops; }
+    public void setStops(List<StopEta> stops) { this.stops = stops; }
+
+    /**
+     * Arrivée estimée à un arrêt
+     */
+    public static class StopEta {
+        private UUID stopId;
+        private String stopName;
+        private int stopIndex;
+        private LocalDateTime estimatedArrival;
+        private int minutes;
+        private EtaSource source;
+
+        // Désérialisation (réponse d'une autre instance, voir ShardClient)
+        private StopEta() {
+        }
+
+        public StopEta(UUID stopId, String stopName, int stopIndex,
+                       LocalDateTime estimatedArrival, int minutes, EtaSource source) {
+            this.stopId = stopId;
+            this.stopName = stopName;
+            this.stopIndex = stopIndex;
+            this.estimatedArrival = estimatedArrival;
+            this.minutes = minutes;
+            this.source = source;
+        }
+
+        public UUID getStopId() { return stopId; }
+        public String getStopName() { return stopName; }
+        public int getStopIndex() { return stopIndex; }
+        public LocalDateTime getEstimatedArrival() { return estimatedArrival; }
+        public int getMinutes() { return minutes; }
+        public EtaSource getSource() { return source; }
+    }
+}
@@ -0,0 +1,51 @@
+package com.transport.tracking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.transport.tracking.model.BusLocation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Point d'historique compact (replay, analytics)
+ * Seuls les champs utiles au tracé sont transmis.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LocationPoint {
+
+    private LocalDateTime timestamp;
+    private Double latitude;
+    private Double longitude;
+    private Double speed;
+    private Double heading;
+    private Integer currentPassengers;
+
+    public static LocationPoint fromDomain(BusLocation location) {
+        LocationPoint point = new LocationPoint();
+        point.setTimestamp(location.getTimestamp());
+        point.setLatitude(location.getLatitude());
+        point.setLongitude(location.getLongitude());
+        point.setSpeed(location.getSpeed());
+        point.setHeading(location.getHeading());
+        point.setCurrentPassengers(location.getCurrentPassengers());
+        return point;
+    }
+
+    // Getters and Setters
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+    public Double getSpeed() { return speed; }
+    public void setSpeed(Double speed) { this.speed = speed; }
+
+    public Double getHeading() { return heading; }
+    public void setHeading(Double heading) { this.heading = heading; }
+
+    public Integer getCurrentPassengers() { return currentPassengers; }
+    public void setCurrentPassengers(Integer currentPassengers) { this.currentPassengers = currentPassengers; }
+}
@@ -6,6 +6,8 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.Min;
 
+import java.time.LocalDateTime;
+
 public class UpdateLocationRequest {
 
     @NotBlank(message = "Bus ID is required")
@@ -34,6 +36,10 @@ public class UpdateLocationRequest {
 
     private Integer currentPassengers;
 
+    // Heure du fix GPS (optionnelle) - positions bufferisées par le boîtier
+    // Refusée si trop ancienne ou dans le futur (voir TrackingService.toLocation)
+    private LocalDateTime timestamp;
+
     // Getters and Setters
     public String getBusId() { return busId; }
     public void setBusId(String busId) { this.busId = busId; }
@@ -60,4 +66,7 @@ public class UpdateLocationRequest {
     public void setCurrentPassengers(Integer currentPassengers) {
         this.currentPassengers = currentPassengers;
     }
+
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package com.transport.tracking.eta;
+
+import com.transport.tracking.kafka.BusEventProducer;
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.network.RouteNetwork;
+import com.transport.tracking.network.RouteProgress;
+import com.transport.tracking.network.RouteProgressTracker;
+import com.transport.tracking.network.RouteStops;
+import com.transport.tracking.network.RouteTimetable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Détection automatique des retards à chaque position reçue
+ *
+ * Le bus est rattaché à un trajet (départ théorique du premier arrêt) lors
+ * de sa première position sur la ligne : le départ le plus récent compatible
+ * avec sa position. Le rattachement est conservé tant que le bus avance ;
+ * il est refait si le bus repart du début de la ligne, ou si le retard dépasse
+ * tracking.delay.max-delay-minutes. Sans trajet à moins de ce retard (avant
+ * le premier départ, après le dernier), le bus n'est pas suivi.
+ *
+ * retard = heure de la position - (départ + temps prévu jusqu'à la position)
+ *
+ * Les seuils (tracking.delay.thresholds-minutes) forment des niveaux :
+ * on monte d'un niveau dès que le retard atteint le seuil, on ne redescend
+ * qu'en passant sous le seuil moins tracking.delay.hysteresis-minutes.
+ * Un événement bus-delays est publié à chaque changement de niveau (hors retour à l'heure).
+ *
+ * Coût par position : lecture de l'avancement déjà calculé à l'ingestion
+ * et quelques comparaisons, sans parcourir la flotte.
+ */
+@Component
+public class DelayDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(DelayDetector.class);
+
+    // Recul toléré (en segments) avant de considérer un nouveau trajet
+    private static final double RESTART_SEGMENTS = 1.0;
+
+    private final RouteNetwork routeNetwork;
+    private final RouteProgressTracker progressTracker;
+    private final BusEventProducer eventProducer;
+    private final boolean enabled;
+    private final int[] thresholdsMinutes;
+    private final int hysteresisMinutes;
+    private final long earlySeconds;
+    private final long maxDelaySeconds;
+
+    private final ConcurrentHashMap<String, DelayState> states = new ConcurrentHashMap<>();
+
+    public DelayDetector(RouteNetwork routeNetwork,
+                         RouteProgressTracker progressTracker,
+                         BusEventProducer eventProducer,
+                         @Value("${tracking.delay.enabled:true}") boolean enabled,
+                         @Value("${tracking.delay.thresholds-minutes:5,10,15,30}") int[] thresholdsMinutes,
+                         @Value("${tracking.delay.hysteresis-minutes:2}") int hysteresisMinutes,
+                         @Value("${tracking.delay.early-tolerance-minutes:3}") long earlyToleranceMinutes,
+                         @Value("${tracking.delay.max-delay-minutes:120}") long maxDelayMinutes) {
+        this.routeNetwork = routeNetwork;
+        this.progressTracker = progressTracker;
+        this.eventProducer = eventProducer;
+        this.enabled = enabled;
+        this.thresholdsMinutes = thresholdsMinutes.clone();
+        Arrays.sort(this.thresholdsMinutes);
+        this.hysteresisMinutes = hysteresisMinutes;
+        this.earlySeconds = earlyToleranceMinutes * 60;
+        this.maxDelaySeconds = maxDelayMinutes * 60;
+    }
+
+    /**
+     * Évaluer le retard d'un bus après l'acceptation d'une position
+     * (l'avancement sur la ligne doit déjà avoir été calculé, voir RouteProgressTracker)
+     */
+    public void onLocation(BusLocation location) {
+        if (!enabled || location.getTimestamp() == null) {
+            return;
+        }
+        RouteStops route = routeNetwork.find(location.getRouteNumber()).orElse(null);
+        RouteTimetable timetable = routeNetwork.findTimetable(location.getRouteNumber()).orElse(null);
+        RouteProgress progress = route != null ? progressTracker.find(location.getBusId(), route).orElse(null) : null;
+        if (timetable == null || timetable.getRoute() != route || progress == null) {
+            states.remove(location.getBusId());
+            return;
+        }
+
+        double position = progress.getSegment() + progress.getFraction();
+        double offsetSeconds = timetable.offsetSeconds(progress);
+        LocalDateTime at = location.getTimestamp();
+
+        DelayState[] transition = new DelayState[2];
+        states.compute(location.getBusId(), (busId, previous) -> {
+            boolean sameTrip = previous != null && previous.timetable == timetable
+                    && position >= previous.position - RESTART_SEGMENTS;
+            LocalDateTime trip = sameTrip ? previous.tripDeparture : null;
+            long delaySeconds = trip != null ? delaySeconds(trip, offsetSeconds, at) : Long.MAX_VALUE;
+
+            if (delaySeconds > maxDelaySeconds) {
+                trip = timetable.tripDeparture(at, offsetSeconds, earlySeconds);
+                if (trip == null) {
+                    return null;
+                }
+                delaySeconds = delaySeconds(trip, offsetSeconds, at);
+                if (delaySeconds > maxDelaySeconds) {
+                    // Aucun trajet plausible (trou dans les horaires) : pas de retard à signaler
+                    return null;
+                }
+                previous = null;
+            }
+
+            int delayMinutes = (int) (delaySeconds / 60);
+            int previousLevel = previous != null ? previous.level : 0;
+            DelayState next = new DelayState(timetable, trip, Math.max(position, previous != null ? previous.position : 0),
+                    level(previousLevel, delayMinutes), delayMinutes);
+            transition[0] = previous;
+            transition[1] = next;
+            return next;
+        });
+
+        DelayState next = transition[1];
+        int previousLevel = transition[0] != null ? transition[0].level : 0;
+        if (next == null || next.level == previousLevel) {
+            return;
+        }
+        logger.info("Bus {} (route {}) delay level {} -> {} ({} min, trip {})",
+                location.getBusId(), location.getRouteNumber(), previousLevel, next.level,
+                next.delayMinutes, next.tripDeparture);
+        if (next.level > 0) {
+            eventProducer.publishDelayEvent(location.getBusId(), location.getBusNumber(), location.getRouteNumber(),
+                    next.delayMinutes, location.getLatitude(), location.getLongitude(), null);
+        }
+    }
+
+    public void remove(String busId) {
+        states.remove(busId);
+    }
+
+    // Niveau = nombre de seuils franchis, avec hystérésis à la descente
+    private int level(int current, int delayMinutes) {
+        int level = current;
+        while (level < thresholdsMinutes.length && delayMinutes >= thresholdsMinutes[level]) {
+            level++;
+        }
+        while (level > 0 && delayMinutes < thresholdsMinutes[level - 1] - hysteresisMinutes) {
+            level--;
+        }
+        return level;
+    }
+
+    private static long delaySeconds(LocalDateTime tripDeparture, double offsetSeconds, LocalDateTime at) {
+        return Duration.between(tripDeparture.plusSeconds((long) offsetSeconds), at).getSeconds();
+    }
+
+    private static class DelayState {
+        private final RouteTimetable timetable;
+        private final LocalDateTime tripDeparture;
+        private final double position;
+        private final int level;
+        private final int delayMinutes;
+
+        private DelayState(RouteTimetable timetable, LocalDateTime tripDeparture, double position,
+                           int level, int delayMinutes) {
+            this.timetable = timetable;
+            this.tripDeparture = tripDeparture;
+            this.position = position;
+            this.level = level;
+            this.delayMinutes = delayMinutes;
+        }
+    }
+}
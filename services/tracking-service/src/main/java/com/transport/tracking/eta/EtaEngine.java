@@ -0,0 +1,144 @@
+package com.transport.tracking.eta;
+
+import com.transport.tracking.dto.EtaResponse;
+import com.transport.tracking.dto.EtaResponse.EtaSource;
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.network.RouteNetwork;
+import com.transport.tracking.network.RouteProgress;
+import com.transport.tracking.network.RouteProgressTracker;
+import com.transport.tracking.network.RouteStops;
+import com.transport.tracking.state.LiveFleetState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Estimation des heures d'arrivée sans appel externe
+ *
+ * Depuis la position temps réel du bus, le temps restant jusqu'à chaque
+ * arrêt suivant est la somme des temps de parcours des segments :
+ * 1. médiane observée pour le segment à l'heure de passage prévue
+ *    (ou à une heure voisine) si assez d'observations
+ * 2. sinon durée prévue par scheduling-service
+ * 3. sinon distance / tracking.eta.default-speed-kmh
+ */
+@Service
+public class EtaEngine {
+
+    private static final int MIN_SAMPLES = 3;
+    private static final int[] HOUR_OFFSETS = {0, -1, 1, -2, 2};
+
+    private final LiveFleetState fleetState;
+    private final RouteNetwork routeNetwork;
+    private final RouteProgressTracker progressTracker;
+    private final double defaultSpeedKmh;
+
+    private volatile EtaModel model = EtaModel.EMPTY;
+
+    public EtaEngine(LiveFleetState fleetState,
+                     RouteNetwork routeNetwork,
+                     RouteProgressTracker progressTracker,
+                     @Value("${tracking.eta.default-speed-kmh:20}") double defaultSpeedKmh) {
+        this.fleetState = fleetState;
+        this.routeNetwork = routeNetwork;
+        this.progressTracker = progressTracker;
+        this.defaultSpeedKmh = defaultSpeedKmh;
+    }
+
+    /**
+     * Arrivées estimées d'un bus aux arrêts suivants
+     *
+     * Sans position exploitable (bus absent de l'état temps réel, coordonnées
+     * ou horodatage manquants), l'ETA est inconnue : réponse sans arrêts.
+     */
+    public EtaResponse predict(String busId) {
+        BusLocation location = fleetState.find(busId).orElse(null);
+        if (location == null || location.getLatitude() == null || location.getLongitude() == null
+                || location.getTimestamp() == null) {
+            return unknown(busId, location);
+        }
+        RouteStops route = routeNetwork.find(location.getRouteNumber())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown route for bus: " + busId));
+        if (route.segmentCount() == 0) {
+            throw new IllegalArgumentException("Route has no stops: " + route.getRouteNumber());
+        }
+
+        // Avancement calculé à l'ingestion, sinon projection sur toute la ligne
+        RouteProgress progress = progressTracker.find(busId, route)
+                .orElseGet(() -> route.locate(location.getLatitude(), location.getLongitude()));
+        LocalDateTime from = location.getTimestamp();
+        LocalDateTime now = LocalDateTime.now();
+        EtaModel current = model;
+
+        EtaResponse response = new EtaResponse();
+        response.setBusId(busId);
+        response.setRouteNumber(route.getRouteNumber());
+        response.setPositionTimestamp(from);
+        response.setModelTrainedAt(current.getTrainedAt());
+
+        double seconds = 0;
+        for (int segment = progress.getSegment(); segment < route.segmentCount(); segment++) {
+            LocalDateTime departure = from.plusSeconds((long) seconds);
+            SegmentTime time = segmentTime(current, route, segment, departure.getHour());
+            double remaining = segment == progress.getSegment() ? 1 - progress.getFraction() : 1;
+            seconds += time.seconds * remaining;
+
+            int stop = segment + 1;
+            LocalDateTime arrival = from.plusSeconds((long) seconds);
+            int minutes = (int) Math.max(0, Duration.between(now, arrival).toMinutes());
+            response.getStops().add(new EtaResponse.StopEta(route.stopId(stop), route.stopName(stop),
+                    stop, arrival, minutes, time.source));
+        }
+        return response;
+    }
+
+    private EtaResponse unknown(String busId, BusLocation location) {
+        EtaResponse response = new EtaResponse();
+        response.setBusId(busId);
+        if (location != null) {
+            response.setRouteNumber(location.getRouteNumber());
+            response.setPositionTimestamp(location.getTimestamp());
+        }
+        response.setModelTrainedAt(model.getTrainedAt());
+        return response;
+    }
+
+    /**
+     * Temps de parcours d'un segment entier, départ à une heure donnée
+     */
+    private SegmentTime segmentTime(EtaModel current, RouteStops route, int segment, int hour) {
+        TravelTimeHistogram histogram = current.segment(route.getRouteNumber(), segment);
+        if (histogram != null) {
+            for (int offset : HOUR_OFFSETS) {
+                int h = Math.floorMod(hour + offset, 24);
+                if (histogram.count(h) >= MIN_SAMPLES) {
+                    return new SegmentTime(histogram.quantile(h, 0.5), EtaSource.HISTORY);
+                }
+            }
+        }
+        if (route.scheduledSegmentSeconds(segment) > 0) {
+            return new SegmentTime(route.scheduledSegmentSeconds(segment), EtaSource.SCHEDULE);
+        }
+        return new SegmentTime(route.segmentKm(segment) / defaultSpeedKmh * 3600, EtaSource.DEFAULT);
+    }
+
+    public EtaModel getModel() {
+        return model;
+    }
+
+    void setModel(EtaModel model) {
+        this.model = model;
+    }
+
+    private static class SegmentTime {
+        private final double seconds;
+        private final EtaSource source;
+
+        private SegmentTime(double seconds, EtaSource source) {
+            this.seconds = seconds;
+            this.source = source;
+        }
+    }
+}
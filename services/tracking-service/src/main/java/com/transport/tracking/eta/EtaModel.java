@@ -0,0 +1,34 @@
+package com.transport.tracking.eta;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Temps de parcours appris : un histogramme par segment de chaque ligne
+ * Immuable une fois publié par EtaTrainer.
+ */
+public class EtaModel {
+
+    public static final EtaModel EMPTY = new EtaModel(Map.of(), null, 0);
+
+    private final Map<String, TravelTimeHistogram[]> segmentsByRoute;
+    private final LocalDateTime trainedAt;
+    private final long observations;
+
+    public EtaModel(Map<String, TravelTimeHistogram[]> segmentsByRoute, LocalDateTime trainedAt, long observations) {
+        this.segmentsByRoute = segmentsByRoute;
+        this.trainedAt = trainedAt;
+        this.observations = observations;
+    }
+
+    /**
+     * Histogramme du segment, ou null si la ligne ou le segment est inconnu
+     */
+    public TravelTimeHistogram segment(String routeNumber, int segment) {
+        TravelTimeHistogram[] segments = segmentsByRoute.get(routeNumber);
+        return segments != null && segment < segments.length ? segments[segment] : null;
+    }
+
+    public LocalDateTime getTrainedAt() { return trainedAt; }
+    public long getObservations() { return observations; }
+}
@@ -0,0 +1,171 @@
+package com.transport.tracking.eta;
+
+import com.transport.tracking.geo.GeoMath;
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.network.RouteNetwork;
+import com.transport.tracking.network.RouteStops;
+import com.transport.tracking.storage.LocationHistoryReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Apprentissage des temps de parcours entre arrêts depuis l'historique
+ *
+ * Pour chaque ligne et chaque bus vu sur la ligne (bus_locations ou archives
+ * GridFS), l'historique est lu dans l'ordre chronologique via
+ * LocationHistoryReader : la période dépasse la rétention de bus_locations.
+ * Un passage à un arrêt est daté au point le plus proche de l'arrêt
+ * (à moins de stop-radius-m) ; deux passages à des arrêts consécutifs
+ * donnent un temps de parcours, rangé à l'heure de départ.
+ * Un trou de plus de max-gap-minutes entre deux points coupe le trajet.
+ */
+@Component
+public class EtaTrainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(EtaTrainer.class);
+
+    private final LocationHistoryReader historyReader;
+    private final RouteNetwork routeNetwork;
+    private final EtaEngine etaEngine;
+    private final int trainingDays;
+    private final double stopRadiusKm;
+    private final Duration maxGap;
+
+    public EtaTrainer(LocationHistoryReader historyReader,
+                      RouteNetwork routeNetwork,
+                      EtaEngine etaEngine,
+                      @Value("${tracking.eta.training-days:7}") int trainingDays,
+                      @Value("${tracking.eta.stop-radius-m:60}") double stopRadiusMeters,
+                      @Value("${tracking.eta.max-gap-minutes:10}") long maxGapMinutes) {
+        this.historyReader = historyReader;
+        this.routeNetwork = routeNetwork;
+        this.etaEngine = etaEngine;
+        this.trainingDays = trainingDays;
+        this.stopRadiusKm = stopRadiusMeters / 1000.0;
+        this.maxGap = Duration.ofMinutes(maxGapMinutes);
+    }
+
+    @Scheduled(initialDelayString = "${tracking.eta.training-initial-delay-ms:60000}",
+            fixedDelayString = "${tracking.eta.training-interval-ms:21600000}")
+    public void train() {
+        if (routeNetwork.all().isEmpty()) {
+            logger.info("Route network not loaded yet, ETA training skipped");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        LocalDateTime end = LocalDateTime.now();
+        LocalDateTime since = end.minusDays(trainingDays);
+
+        Map<String, TravelTimeHistogram[]> segmentsByRoute = new HashMap<>();
+        long observations = 0;
+
+        try {
+            for (RouteStops route : routeNetwork.all()) {
+                if (route.segmentCount() == 0) {
+                    continue;
+                }
+                TravelTimeHistogram[] segments = new TravelTimeHistogram[route.segmentCount()];
+                for (int i = 0; i < segments.length; i++) {
+                    segments[i] = new TravelTimeHistogram();
+                }
+                for (String busId : historyReader.busIdsOnRoute(route.getRouteNumber(), since, end)) {
+                    observations += trainBus(route, segments, busId, since, end);
+                }
+                segmentsByRoute.put(route.getRouteNumber(), segments);
+            }
+        } catch (Exception e) {
+            logger.warn("ETA training failed, keeping previous model: {}", e.getMessage());
+            return;
+        }
+
+        etaEngine.setModel(new EtaModel(Map.copyOf(segmentsByRoute), end, observations));
+        logger.info("ETA model trained: {} routes, {} segment observations in {} ms",
+                segmentsByRoute.size(), observations, System.currentTimeMillis() - start);
+    }
+
+    private long trainBus(RouteStops route, TravelTimeHistogram[] segments,
+                          String busId, LocalDateTime since, LocalDateTime end) {
+        PassageDetector detector = new PassageDetector(route, segments);
+        historyReader.read(busId, since, end, location -> {
+            if (route.getRouteNumber().equals(location.getRouteNumber())
+                    && location.getLatitude() != null && location.getLongitude() != null
+                    && location.getTimestamp() != null) {
+                detector.accept(location);
+            }
+        });
+        detector.finish();
+        return detector.observations;
+    }
+
+    /**
+     * Détection des passages aux arrêts pour l'historique d'un bus
+     */
+    private class PassageDetector {
+        private final RouteStops route;
+        private final TravelTimeHistogram[] segments;
+
+        private LocalDateTime lastPointTime;
+        // Arrêt dans le rayon duquel se trouve le bus (-1 si aucun)
+        private int currentStop = -1;
+        private double closestKm;
+        private LocalDateTime closestTime;
+        // Dernier passage enregistré
+        private int lastStop = -1;
+        private LocalDateTime lastStopTime;
+        private long observations;
+
+        private PassageDetector(RouteStops route, TravelTimeHistogram[] segments) {
+            this.route = route;
+            this.segments = segments;
+        }
+
+        private void accept(BusLocation location) {
+            LocalDateTime time = location.getTimestamp();
+            if (lastPointTime != null && Duration.between(lastPointTime, time).compareTo(maxGap) > 0) {
+                finish();
+                lastStop = -1;
+            }
+            lastPointTime = time;
+
+            int stop = route.nearestStop(location.getLatitude(), location.getLongitude(), stopRadiusKm);
+            if (stop != currentStop) {
+                finish();
+                currentStop = stop;
+                closestKm = Double.MAX_VALUE;
+            }
+            if (stop >= 0) {
+                double distance = GeoMath.haversineKm(
+                        location.getLatitude(), location.getLongitude(),
+                        route.latitude(stop), route.longitude(stop));
+                if (distance < closestKm) {
+                    closestKm = distance;
+                    closestTime = time;
+                }
+            }
+        }
+
+        // Sortie du rayon d'un arrêt : enregistrer le passage
+        private void finish() {
+            if (currentStop < 0) {
+                return;
+            }
+            if (lastStop >= 0 && currentStop == lastStop + 1) {
+                double seconds = Duration.between(lastStopTime, closestTime).toMillis() / 1000.0;
+                segments[lastStop].add(lastStopTime.getHour(), seconds);
+                observations++;
+            }
+            lastStop = currentStop;
+            lastStopTime = closestTime;
+            currentStop = -1;
+        }
+    }
+}
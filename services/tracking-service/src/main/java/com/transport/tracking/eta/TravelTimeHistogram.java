@@ -0,0 +1,66 @@
+package com.transport.tracking.eta;
+
+/**
+ * Histogramme compact des temps de parcours d'un segment, par heure de la journée
+ *
+ * 32 classes en échelle logarithmique de 10 s à 1 h (environ ±10 % de
+ * précision), un tableau d'entiers par heure alloué seulement si l'heure
+ * a des observations.
+ *
+ * Rempli par un seul thread pendant l'apprentissage, lu seulement ensuite.
+ */
+public class TravelTimeHistogram {
+
+    private static final int HOURS = 24;
+    private static final int BINS = 32;
+    private static final double MIN_SECONDS = 10;
+    private static final double MAX_SECONDS = 3600;
+    private static final double LOG_MIN = Math.log(MIN_SECONDS);
+    private static final double LOG_STEP = (Math.log(MAX_SECONDS) - LOG_MIN) / (BINS - 1);
+
+    private final int[][] counts = new int[HOURS][];
+    private final int[] totals = new int[HOURS];
+
+    public void add(int hour, double seconds) {
+        if (seconds < MIN_SECONDS || seconds > MAX_SECONDS) {
+            return;
+        }
+        if (counts[hour] == null) {
+            counts[hour] = new int[BINS];
+        }
+        counts[hour][bin(seconds)]++;
+        totals[hour]++;
+    }
+
+    public int count(int hour) {
+        return totals[hour];
+    }
+
+    /**
+     * Quantile q (0..1) des temps de parcours observés à une heure, en secondes
+     * NaN si aucune observation.
+     */
+    public double quantile(int hour, double q) {
+        if (totals[hour] == 0) {
+            return Double.NaN;
+        }
+        long target = (long) Math.ceil(q * totals[hour]);
+        long cumulative = 0;
+        for (int bin = 0; bin < BINS; bin++) {
+            cumulative += counts[hour][bin];
+            if (cumulative >= Math.max(target, 1)) {
+                return binCenter(bin);
+            }
+        }
+        return binCenter(BINS - 1);
+    }
+
+    private static int bin(double seconds) {
+        int bin = (int) Math.round((Math.log(seconds) - LOG_MIN) / LOG_STEP);
+        return Math.max(0, Math.min(BINS - 1, bin));
+    }
+
+    private static double binCenter(int bin) {
+        return Math.exp(LOG_MIN + bin * LOG_STEP);
+    }
+}
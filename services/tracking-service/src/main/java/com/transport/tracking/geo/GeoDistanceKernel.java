@@ -0,0 +1,86 @@
+package com.transport.tracking.geo;
+
+/**
+ * Distances Haversine d'un point vers un ensemble de points, en masse
+ *
+ * Les points sont en radians avec cos(latitude) précalculé (GeoPoints) :
+ * la conversion du point de requête est faite une fois par appel (Origin),
+ * et la boucle ne contient que des opérations arithmétiques sur des tableaux.
+ *
+ * d = 2R * asin(sqrt(sin²(Δlat/2) + cos(lat1) cos(lat2) sin²(Δlon/2)))
+ */
+public final class GeoDistanceKernel {
+
+    private static final double DIAMETER_KM = 2 * GeoMath.EARTH_RADIUS_KM;
+
+    private GeoDistanceKernel() {
+    }
+
+    /**
+     * Distances en km entre (latitude, longitude) en degrés et chaque point
+     *
+     * @param out tableau d'au moins points.size() cases
+     */
+    public static void distancesKm(double latitude, double longitude, GeoPoints points, double[] out) {
+        if (out.length < points.size) {
+            throw new IllegalArgumentException("Output array too small");
+        }
+        Origin origin = new Origin(latitude, longitude);
+        for (int i = 0; i < points.size; i++) {
+            out[i] = origin.distanceKm(points.latRad[i], points.lonRad[i], points.cosLat[i]);
+        }
+    }
+
+    /**
+     * Indice du point le plus proche à moins de maxKm, ou -1
+     * (sans tableau intermédiaire : appelé à chaque ping pour la recherche d'arrêt)
+     */
+    public static int nearest(double latitude, double longitude, double maxKm, GeoPoints points) {
+        Origin origin = new Origin(latitude, longitude);
+        int nearest = -1;
+        double nearestKm = maxKm;
+        for (int i = 0; i < points.size; i++) {
+            double distance = origin.distanceKm(points.latRad[i], points.lonRad[i], points.cosLat[i]);
+            if (distance <= nearestKm) {
+                nearest = i;
+                nearestKm = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Point de requête converti une fois (radians, cos(latitude)),
+     * pour tester des points un par un sans tableau intermédiaire
+     */
+    public static final class Origin {
+
+        private final double latRad;
+        private final double lonRad;
+        private final double cosLat;
+
+        public Origin(double latitude, double longitude) {
+            this.latRad = Math.toRadians(latitude);
+            this.lonRad = Math.toRadians(longitude);
+            this.cosLat = Math.cos(latRad);
+        }
+
+        /**
+         * Distance en km vers un point en degrés
+         */
+        public double distanceKmTo(double latitude, double longitude) {
+            double lat = Math.toRadians(latitude);
+            return distanceKm(lat, Math.toRadians(longitude), Math.cos(lat));
+        }
+
+        /**
+         * Distance en km vers un point déjà converti (radians, cos(latitude))
+         */
+        public double distanceKm(double pointLatRad, double pointLonRad, double pointCosLat) {
+            double sinLat = Math.sin((pointLatRad - latRad) * 0.5);
+            double sinLon = Math.sin((pointLonRad - lonRad) * 0.5);
+            double a = sinLat * sinLat + cosLat * pointCosLat * sinLon * sinLon;
+            return DIAMETER_KM * Math.asin(Math.sqrt(Math.min(a, 1.0)));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.transport.tracking.geo;
+
+/**
+ * Fonctions géographiques de base (sphère terrestre)
+ */
+public final class GeoMath {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    private GeoMath() {
+    }
+
+    /**
+     * Distance entre deux points GPS en km (formule de Haversine)
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_KM * c;
+    }
+
+    /**
+     * Position sur le segment [A, B] du point le plus proche de P
+     * (projection plane locale, valable à l'échelle d'une ville)
+     *
+     * @return fraction dans [0, 1] : 0 en A, 1 en B
+     */
+    public static double segmentFraction(double lat, double lon,
+                                         double aLat, double aLon,
+                                         double bLat, double bLon) {
+        double cosLat = Math.cos(Math.toRadians(aLat));
+        double bx = (bLon - aLon) * cosLat;
+        double by = bLat - aLat;
+        double px = (lon - aLon) * cosLat;
+        double py = lat - aLat;
+
+        double lengthSquared = bx * bx + by * by;
+        if (lengthSquared == 0) {
+            return 0;
+        }
+        double t = (px * bx + py * by) / lengthSquared;
+        return Math.max(0, Math.min(1, t));
+    }
+
+    /**
+     * Rectangle englobant (en degrés) d'un cercle de rayon radiusKm
+     * Tout point à moins de radiusKm du centre est dans ce rectangle.
+     */
+    public static BoundingBox boundingBox(double latitude, double longitude, double radiusKm) {
+        double angular = radiusKm / EARTH_RADIUS_KM;
+        double deltaLat = Math.toDegrees(angular);
+
+        double minLat = latitude - deltaLat;
+        double maxLat = latitude + deltaLat;
+
+        // Si le cercle contient un pôle, toutes les longitudes sont possibles
+        double sinAngular = Math.sin(angular);
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        if (minLat <= -90 || maxLat >= 90 || sinAngular >= cosLat) {
+            return new BoundingBox(Math.max(minLat, -90), Math.min(maxLat, 90), -180, 180);
+        }
+
+        double deltaLon = Math.toDegrees(Math.asin(sinAngular / cosLat));
+        return new BoundingBox(minLat, maxLat, longitude - deltaLon, longitude + deltaLon);
+    }
+
+    /**
+     * Rectangle en degrés. minLon peut être > maxLon s'il traverse l'antiméridien
+     * (les longitudes sont ramenées dans [-180, 180]).
+     */
+    public static class BoundingBox {
+        private final double minLat;
+        private final double maxLat;
+        private final double minLon;
+        private final double maxLon;
+
+        public BoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+            this.minLat = minLat;
+            this.maxLat = maxLat;
+            this.minLon = minLon < -180 ? minLon + 360 : minLon;
+            this.maxLon = maxLon > 180 ? maxLon - 360 : maxLon;
+        }
+
+        public boolean contains(double latitude, double longitude) {
+            if (latitude < minLat || latitude > maxLat) {
+                return false;
+            }
+            if (minLon <= maxLon) {
+                return longitude >= minLon && longitude <= maxLon;
+            }
+            return longitude >= minLon || longitude <= maxLon;
+        }
+
+        public boolean crossesAntimeridian() {
+            return minLon > maxLon;
+        }
+
+        public double getMinLat() { return minLat; }
+        public double getMaxLat() { return maxLat; }
+        public double getMinLon() { return minLon; }
+        public double getMaxLon() { return maxLon; }
+    }
+}
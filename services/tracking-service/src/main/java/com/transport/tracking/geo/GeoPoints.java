@@ -0,0 +1,60 @@
+package com.transport.tracking.geo;
+
+/**
+ * Ensemble de points GPS en tableaux parallèles (structure of arrays)
+ *
+ * Coordonnées rangées en radians avec cos(latitude) précalculé, prêtes
+ * pour les calculs de distance en masse de GeoDistanceKernel.
+ * Immuable une fois construit.
+ */
+public final class GeoPoints {
+
+    final double[] latRad;
+    final double[] lonRad;
+    final double[] cosLat;
+    final int size;
+
+    private GeoPoints(double[] latRad, double[] lonRad, double[] cosLat, int size) {
+        this.latRad = latRad;
+        this.lonRad = lonRad;
+        this.cosLat = cosLat;
+        this.size = size;
+    }
+
+    /**
+     * Construire depuis des coordonnées en degrés (tableaux copiés)
+     */
+    public static GeoPoints ofDegrees(double[] latitudes, double[] longitudes) {
+        return ofDegrees(latitudes, longitudes, latitudes.length);
+    }
+
+    /**
+     * Construire depuis les size premières coordonnées en degrés (tableaux copiés)
+     */
+    public static GeoPoints ofDegrees(double[] latitudes, double[] longitudes, int size) {
+        if (size > latitudes.length || size > longitudes.length) {
+            throw new IllegalArgumentException("Size exceeds coordinate arrays");
+        }
+        double[] latRad = new double[size];
+        double[] lonRad = new double[size];
+        double[] cosLat = new double[size];
+        for (int i = 0; i < size; i++) {
+            latRad[i] = Math.toRadians(latitudes[i]);
+            lonRad[i] = Math.toRadians(longitudes[i]);
+            cosLat[i] = Math.cos(latRad[i]);
+        }
+        return new GeoPoints(latRad, lonRad, cosLat, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double latitude(int index) {
+        return Math.toDegrees(latRad[index]);
+    }
+
+    public double longitude(int index) {
+        return Math.toDegrees(lonRad[index]);
+    }
+}
@@ -0,0 +1,150 @@
+package com.transport.tracking.geo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index spatial en grille uniforme sur les dernières positions des bus
+ *
+ * La Terre est découpée en cellules de cellSizeDeg x cellSizeDeg degrés.
+ * Chaque bus est rangé dans la cellule de sa dernière position ;
+ * une recherche par rayon ne visite que les cellules couvertes par
+ * le rectangle englobant du cercle, quel que soit le nombre de bus.
+ *
+ * Les mises à jour d'un même bus doivent être sérialisées par l'appelant
+ * (LiveFleetState les fait dans son compute par bus).
+ */
+@Component
+public class SpatialGridIndex {
+
+    private final double cellSizeDeg;
+
+    // cellule -> bus présents dans la cellule
+    private final ConcurrentHashMap<Long, Set<String>> cells = new ConcurrentHashMap<>();
+
+    // bus -> cellule courante
+    private final ConcurrentHashMap<String, Long> cellByBus = new ConcurrentHashMap<>();
+
+    public SpatialGridIndex(@Value("${tracking.spatial-index.cell-size-deg:0.01}") double cellSizeDeg) {
+        if (cellSizeDeg <= 0) {
+            throw new IllegalArgumentException("Cell size must be > 0");
+        }
+        this.cellSizeDeg = cellSizeDeg;
+    }
+
+    /**
+     * Placer un bus dans la cellule correspondant à sa position
+     */
+    public void update(String busId, double latitude, double longitude) {
+        long cell = cellKey(latIndex(latitude), lonIndex(longitude));
+        Long previous = cellByBus.put(busId, cell);
+
+        if (previous == null || previous != cell) {
+            // Ajouter avant de retirer : le bus n'est jamais absent de l'index
+            addToCell(cell, busId);
+            if (previous != null) {
+                removeFromCell(previous, busId);
+            }
+        }
+    }
+
+    public void remove(String busId) {
+        Long previous = cellByBus.remove(busId);
+        if (previous != null) {
+            removeFromCell(previous, busId);
+        }
+    }
+
+    /**
+     * Bus des cellules couvertes par un rectangle (voir GeoMath.boundingBox)
+     * Le résultat peut contenir des bus hors du rectangle : le filtrage exact
+     * reste à la charge de l'appelant.
+     */
+    public List<String> candidates(GeoMath.BoundingBox box) {
+        int minLatIdx = latIndex(box.getMinLat());
+        int maxLatIdx = latIndex(box.getMaxLat());
+        int minLonIdx = lonIndex(box.getMinLon());
+        int maxLonIdx = lonIndex(box.getMaxLon());
+
+        long latCells = (long) maxLatIdx - minLatIdx + 1;
+        long lonCells = box.crossesAntimeridian()
+                ? (lonIndex(180) - minLonIdx + 1L) + (maxLonIdx - lonIndex(-180) + 1L)
+                : (long) maxLonIdx - minLonIdx + 1;
+
+        List<String> result = new ArrayList<>();
+
+        // Grand rayon : moins coûteux de parcourir les cellules occupées
+        if (latCells * lonCells > cells.size()) {
+            for (Map.Entry<Long, Set<String>> entry : cells.entrySet()) {
+                long key = entry.getKey();
+                int latIdx = (int) (key >> 32);
+                int lonIdx = (int) key;
+                if (latIdx >= minLatIdx && latIdx <= maxLatIdx
+                        && lonInRange(lonIdx, minLonIdx, maxLonIdx, box.crossesAntimeridian())) {
+                    result.addAll(entry.getValue());
+                }
+            }
+            return result;
+        }
+
+        for (int latIdx = minLatIdx; latIdx <= maxLatIdx; latIdx++) {
+            if (box.crossesAntimeridian()) {
+                collect(latIdx, minLonIdx, lonIndex(180), result);
+                collect(latIdx, lonIndex(-180), maxLonIdx, result);
+            } else {
+                collect(latIdx, minLonIdx, maxLonIdx, result);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return cellByBus.size();
+    }
+
+    private void collect(int latIdx, int fromLonIdx, int toLonIdx, List<String> result) {
+        for (int lonIdx = fromLonIdx; lonIdx <= toLonIdx; lonIdx++) {
+            Set<String> busIds = cells.get(cellKey(latIdx, lonIdx));
+            if (busIds != null) {
+                result.addAll(busIds);
+            }
+        }
+    }
+
+    private static boolean lonInRange(int lonIdx, int min, int max, boolean wraps) {
+        return wraps ? (lonIdx >= min || lonIdx <= max) : (lonIdx >= min && lonIdx <= max);
+    }
+
+    private void addToCell(long cell, String busId) {
+        cells.compute(cell, (k, busIds) -> {
+            Set<String> ids = busIds != null ? busIds : ConcurrentHashMap.newKeySet();
+            ids.add(busId);
+            return ids;
+        });
+    }
+
+    private void removeFromCell(long cell, String busId) {
+        cells.computeIfPresent(cell, (k, busIds) -> {
+            busIds.remove(busId);
+            return busIds.isEmpty() ? null : busIds;
+        });
+    }
+
+    private int latIndex(double latitude) {
+        return (int) Math.floor(latitude / cellSizeDeg);
+    }
+
+    private int lonIndex(double longitude) {
+        return (int) Math.floor(longitude / cellSizeDeg);
+    }
+
+    private static long cellKey(int latIdx, int lonIdx) {
+        return ((long) latIdx << 32) | (lonIdx & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,85 @@
+package com.transport.tracking.geo;
+
+import com.transport.tracking.dto.LocationPoint;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Simplification d'une trajectoire en flux (points reçus dans l'ordre chronologique)
+ *
+ * - resolution : au plus un point par intervalle de resolutionSeconds
+ * - tolerance : un point n'est gardé qu'à plus de toleranceMeters
+ *   du dernier point gardé (distance radiale)
+ * Le premier et le dernier point sont toujours conservés.
+ *
+ * Douglas-Peucker demanderait toute la trajectoire en mémoire ;
+ * ces filtres n'ont besoin que du dernier point gardé.
+ */
+public class TrajectorySampler {
+
+    private final long resolutionSeconds;
+    private final double toleranceKm;
+    private final Consumer<LocationPoint> sink;
+
+    private LocationPoint lastKept;
+    // Dernier point écarté, émis par finish() pour garder la fin du tracé
+    private LocationPoint pending;
+    private long emitted;
+
+    /**
+     * @param resolutionSeconds 0 pour désactiver l'échantillonnage temporel
+     * @param toleranceMeters   0 pour désactiver le filtre de distance
+     */
+    public TrajectorySampler(long resolutionSeconds, double toleranceMeters, Consumer<LocationPoint> sink) {
+        if (resolutionSeconds < 0 || toleranceMeters < 0) {
+            throw new IllegalArgumentException("Resolution and tolerance must be >= 0");
+        }
+        this.resolutionSeconds = resolutionSeconds;
+        this.toleranceKm = toleranceMeters / 1000.0;
+        this.sink = sink;
+    }
+
+    public void accept(LocationPoint point) {
+        if (lastKept == null || keep(point)) {
+            emit(point);
+            pending = null;
+        } else {
+            pending = point;
+        }
+    }
+
+    /**
+     * Émettre le dernier point s'il avait été écarté
+     */
+    public void finish() {
+        if (pending != null) {
+            emit(pending);
+            pending = null;
+        }
+    }
+
+    public long getEmitted() {
+        return emitted;
+    }
+
+    private boolean keep(LocationPoint point) {
+        if (resolutionSeconds > 0 && point.getTimestamp() != null && lastKept.getTimestamp() != null
+                && Duration.between(lastKept.getTimestamp(), point.getTimestamp()).getSeconds() < resolutionSeconds) {
+            return false;
+        }
+        if (toleranceKm > 0 && point.getLatitude() != null && point.getLongitude() != null
+                && lastKept.getLatitude() != null && lastKept.getLongitude() != null) {
+            double distance = GeoMath.haversineKm(lastKept.getLatitude(), lastKept.getLongitude(),
+                    point.getLatitude(), point.getLongitude());
+            return distance >= toleranceKm;
+        }
+        return true;
+    }
+
+    private void emit(LocationPoint point) {
+        sink.accept(point);
+        lastKept = point;
+        emitted++;
+    }
+}
@@ -0,0 +1,15 @@
+package com.transport.tracking.ingest;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * File d'ingestion pleine - le client doit réessayer plus tard (HTTP 429)
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class IngestBackpressureException extends RuntimeException {
+
+    public IngestBackpressureException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,241 @@
+package com.transport.tracking.ingest;
+
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.repository.BusLocationRepository;
+import com.transport.tracking.repository.BusRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écriture différée (write-behind) des positions GPS
+ *
+ * Le thread HTTP dépose la position dans une file bornée et répond
+ * immédiatement. Un thread dédié vide la file vers bus_locations par lots :
+ * un lot part dès qu'il atteint batchSize positions ou que flushIntervalMs
+ * s'est écoulé depuis sa première position.
+ * Le nombre de passagers des bus est mis à jour après chaque lot,
+ * une seule fois par bus (dernière valeur du lot).
+ *
+ * File pleine -> IngestBackpressureException (HTTP 429).
+ * Les positions écrites deviennent la référence de PingSuppressor ;
+ * une position abandonnée ne l'est jamais.
+ *
+ * Métriques :
+ * - tracking.ingest.queue.depth : positions en attente
+ * - tracking.ingest.flush.latency : durée d'écriture d'un lot
+ * - tracking.ingest.flushed / rejected / dropped : compteurs de positions
+ */
+@Component
+public class LocationWriteBehindQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationWriteBehindQueue.class);
+
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private final BusLocationRepository locationRepository;
+    private final BusRepository busRepository;
+    private final PingSuppressor pingSuppressor;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final BlockingQueue<BusLocation> queue;
+
+    private final Timer flushLatency;
+    private final Counter flushed;
+    private final Counter rejected;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public LocationWriteBehindQueue(
+            BusLocationRepository locationRepository,
+            BusRepository busRepository,
+            PingSuppressor pingSuppressor,
+            MeterRegistry meterRegistry,
+            @Value("${tracking.ingest.write-behind.enabled:true}") boolean enabled,
+            @Value("${tracking.ingest.write-behind.capacity:10000}") int capacity,
+            @Value("${tracking.ingest.write-behind.batch-size:500}") int batchSize,
+            @Value("${tracking.ingest.write-behind.flush-interval-ms:200}") long flushIntervalMs) {
+        this.locationRepository = locationRepository;
+        this.busRepository = busRepository;
+        this.pingSuppressor = pingSuppressor;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("tracking.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Positions en attente d'écriture")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("tracking.ingest.flush.latency")
+                .description("Durée d'écriture d'un lot de positions")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.flushed = meterRegistry.counter("tracking.ingest.flushed");
+        this.rejected = meterRegistry.counter("tracking.ingest.rejected");
+        this.dropped = meterRegistry.counter("tracking.ingest.dropped");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Write-behind ingestion disabled, locations are written synchronously");
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "location-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Write-behind ingestion started (capacity={}, batchSize={}, flushIntervalMs={})",
+                queue.remainingCapacity(), batchSize, flushIntervalMs);
+    }
+
+    /**
+     * Vider la file avant l'arrêt
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        if (!queue.isEmpty()) {
+            logger.warn("{} locations were not flushed before shutdown", queue.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Déposer une position dans la file (non bloquant)
+     * L'identifiant est attribué ici pour pouvoir être renvoyé au client.
+     */
+    public void submit(BusLocation location) {
+        if (location.getId() == null) {
+            location.setId(new ObjectId().toHexString());
+        }
+        if (!queue.offer(location)) {
+            rejected.increment();
+            throw new IngestBackpressureException("Location ingest queue is full, retry later");
+        }
+    }
+
+    public int depth() {
+        return queue.size();
+    }
+
+    private void runFlusher() {
+        List<BusLocation> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                BusLocation first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Compléter le lot jusqu'à batchSize ou l'échéance
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    BusLocation next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Unexpected error in location flusher: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<BusLocation> batch) throws InterruptedException {
+        Map<Integer, String> failures = insert(batch);
+        if (failures == null) {
+            dropped.increment(batch.size());
+            logger.error("Dropped {} locations after {} failed flush attempts", batch.size(), MAX_FLUSH_ATTEMPTS);
+            return;
+        }
+
+        // Passagers : dernière valeur écrite de chaque bus du lot
+        Map<String, Integer> passengersByBus = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            BusLocation location = batch.get(i);
+            if (failures.containsKey(i)) {
+                continue;
+            }
+            pingSuppressor.commit(location);
+            if (location.getCurrentPassengers() != null) {
+                passengersByBus.put(location.getBusId(), location.getCurrentPassengers());
+            }
+        }
+        try {
+            busRepository.updatePassengerCounts(passengersByBus);
+        } catch (Exception e) {
+            logger.warn("Passenger count update for {} buses failed: {}", passengersByBus.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Écrire un lot, avec nouvelles tentatives
+     *
+     * @return positions rejetées par MongoDB (index -> erreur),
+     *         ou null si toutes les tentatives ont échoué
+     */
+    private Map<Integer, String> insert(List<BusLocation> batch) throws InterruptedException {
+        for (int attempt = 1; attempt <= MAX_FLUSH_ATTEMPTS; attempt++) {
+            long start = System.nanoTime();
+            try {
+                Map<Integer, String> failures = locationRepository.insertUnordered(batch);
+                flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+                flushed.increment(batch.size() - failures.size());
+                if (!failures.isEmpty()) {
+                    dropped.increment(failures.size());
+                    logger.warn("{} locations rejected by MongoDB, first error: {}",
+                            failures.size(), failures.values().iterator().next());
+                }
+                return failures;
+            } catch (Exception e) {
+                logger.warn("Flush of {} locations failed (attempt {}/{}): {}",
+                        batch.size(), attempt, MAX_FLUSH_ATTEMPTS, e.getMessage());
+                Thread.sleep(500L * attempt);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,132 @@
+package com.transport.tracking.ingest;
+
+import com.transport.tracking.geo.GeoMath;
+import com.transport.tracking.model.BusLocation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Filtrage des positions redondantes avant écriture dans bus_locations
+ *
+ * Un bus à l'arrêt (terminus, embouteillage) envoie des positions identiques ;
+ * une position n'est écrite que si, par rapport à la dernière position écrite :
+ * - le bus s'est déplacé d'au moins min-distance-m
+ * - le cap a changé d'au moins min-heading-change-deg
+ * - le nombre de passagers ou la ligne a changé
+ * - max-interval-seconds se sont écoulées
+ *
+ * Les positions filtrées restent traitées en mémoire (état temps réel,
+ * détection des retards) : seule l'écriture MongoDB est évitée.
+ *
+ * La référence d'un bus n'est enregistrée (commit) qu'après l'écriture
+ * effective de la position : une écriture échouée ou abandonnée laisse
+ * la référence précédente, et la position suivante est de nouveau écrite.
+ *
+ * Métrique : tracking.ingest.suppressed (positions non écrites)
+ */
+@Component
+public class PingSuppressor {
+
+    private final boolean enabled;
+    private final double minDistanceKm;
+    private final double minHeadingChangeDeg;
+    private final long maxIntervalSeconds;
+    private final Counter suppressed;
+
+    // bus -> dernière position écrite
+    private final ConcurrentHashMap<String, BusLocation> lastPersisted = new ConcurrentHashMap<>();
+
+    public PingSuppressor(MeterRegistry meterRegistry,
+                          @Value("${tracking.ingest.suppression.enabled:true}") boolean enabled,
+                          @Value("${tracking.ingest.suppression.min-distance-m:10}") double minDistanceMeters,
+                          @Value("${tracking.ingest.suppression.min-heading-change-deg:15}") double minHeadingChangeDeg,
+                          @Value("${tracking.ingest.suppression.max-interval-seconds:30}") long maxIntervalSeconds) {
+        this.enabled = enabled;
+        this.minDistanceKm = minDistanceMeters / 1000.0;
+        this.minHeadingChangeDeg = minHeadingChangeDeg;
+        this.maxIntervalSeconds = maxIntervalSeconds;
+        this.suppressed = meterRegistry.counter("tracking.ingest.suppressed");
+    }
+
+    /**
+     * Décider si une position doit être écrite
+     *
+     * Si non, elle reçoit l'identifiant de la dernière position écrite.
+     * Si oui, l'appelant appelle commit une fois l'écriture réussie.
+     */
+    public boolean admit(BusLocation location) {
+        if (!enabled) {
+            return true;
+        }
+        BusLocation last = lastPersisted.get(location.getBusId());
+        if (last == null || changed(last, location)) {
+            return true;
+        }
+        location.setId(last.getId());
+        suppressed.increment();
+        return false;
+    }
+
+    /**
+     * Enregistrer une position écrite comme référence des positions suivantes
+     * (une position plus ancienne que la référence courante est ignorée)
+     */
+    public void commit(BusLocation location) {
+        if (!enabled) {
+            return;
+        }
+        lastPersisted.merge(location.getBusId(), location, (last, written) -> isOlder(written, last) ? last : written);
+    }
+
+    /**
+     * Oublier la référence d'un bus (bus supprimé ou confié à une autre
+     * instance) : sa prochaine position sera écrite
+     */
+    public void forget(String busId) {
+        lastPersisted.remove(busId);
+    }
+
+    private boolean changed(BusLocation last, BusLocation location) {
+        if (last.getTimestamp() == null || location.getTimestamp() == null
+                || Duration.between(last.getTimestamp(), location.getTimestamp()).getSeconds() >= maxIntervalSeconds) {
+            return true;
+        }
+        if (!Objects.equals(last.getRouteNumber(), location.getRouteNumber())) {
+            return true;
+        }
+        if (location.getCurrentPassengers() != null
+                && !location.getCurrentPassengers().equals(last.getCurrentPassengers())) {
+            return true;
+        }
+        if (last.getLatitude() == null || last.getLongitude() == null
+                || location.getLatitude() == null || location.getLongitude() == null) {
+            return true;
+        }
+        if (GeoMath.haversineKm(last.getLatitude(), last.getLongitude(),
+                location.getLatitude(), location.getLongitude()) >= minDistanceKm) {
+            return true;
+        }
+        return headingChange(last.getHeading(), location.getHeading()) >= minHeadingChangeDeg;
+    }
+
+    private static boolean isOlder(BusLocation candidate, BusLocation current) {
+        return candidate.getTimestamp() != null
+                && current.getTimestamp() != null
+                && candidate.getTimestamp().isBefore(current.getTimestamp());
+    }
+
+    // Écart angulaire en degrés, dans [0, 180]
+    private static double headingChange(Double from, Double to) {
+        if (from == null || to == null) {
+            return from == null && to == null ? 0 : 180;
+        }
+        double delta = Math.abs(from - to) % 360;
+        return delta > 180 ? 360 - delta : delta;
+    }
+}
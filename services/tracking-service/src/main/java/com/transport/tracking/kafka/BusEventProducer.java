@@ -1,14 +1,25 @@
 package com.transport.tracking.kafka;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service Producer Kafka pour les événements de bus
@@ -25,6 +36,15 @@ import java.util.concurrent.CompletableFuture;
  *
  * C'est une communication ASYNCHRONE : le tracking service n'attend pas
  * que les notifications soient envoyées pour continuer à fonctionner.
+ *
+ * REGROUPEMENT : les événements des types listés dans
+ * tracking.events.coalesce.types sont regroupés par (type, ligne, bus)
+ * sur tracking.events.coalesce.window-ms (voir EventCoalescer) ;
+ * une fenêtre de 0 désactive le regroupement.
+ *
+ * MÉTRIQUES : chaque envoi est mesuré à la confirmation de Kafka
+ * (tracking.events.send{topic,result}, histogramme de latence) ;
+ * les échecs sont comptés dans tracking.events.send.errors{topic}.
  */
 @Service
 public class BusEventProducer {
@@ -37,9 +57,29 @@ public class BusEventProducer {
     private static final String TOPIC_ALERTS = "bus-alerts";
 
     private final KafkaTemplate<String, BusEventNotification> kafkaTemplate;
+    private final Set<BusEventType> coalescedTypes;
+    private final EventCoalescer coalescer;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Timer> sendTimers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> errorCounters = new ConcurrentHashMap<>();
 
-    public BusEventProducer(KafkaTemplate<String, BusEventNotification> kafkaTemplate) {
+    public BusEventProducer(KafkaTemplate<String, BusEventNotification> kafkaTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${tracking.events.coalesce.window-ms:10000}") long coalesceWindowMs,
+                            @Value("${tracking.events.coalesce.types:DELAY,TRAFFIC_ALERT}") List<BusEventType> coalescedTypes) {
         this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.coalescedTypes = coalescedTypes.isEmpty() ? Set.of() : EnumSet.copyOf(coalescedTypes);
+        this.coalescer = coalesceWindowMs > 0
+                ? new EventCoalescer(Duration.ofMillis(coalesceWindowMs), this::sendToKafka)
+                : null;
+    }
+
+    @PreDestroy
+    public void flushPendingEvents() {
+        if (coalescer != null) {
+            coalescer.shutdown();
+        }
     }
 
     /**
@@ -62,7 +102,7 @@ public class BusEventProducer {
             Double longitude,
             String message
     ) {
-        logger.info("📤 Publishing DELAY event for bus {} (Route {}): {} minutes",
+        logger.debug("📤 Publishing DELAY event for bus {} (Route {}): {} minutes",
                 busNumber, routeNumber, delayMinutes);
 
         BusEventNotification event = BusEventNotification.builder()
@@ -82,7 +122,7 @@ public class BusEventProducer {
                 .affectedUsers("ALL") // Notifier tous les utilisateurs de cette ligne
                 .build();
 
-        sendToKafka(TOPIC_DELAYS, event);
+        publish(TOPIC_DELAYS, event);
     }
 
     /**
@@ -96,7 +136,7 @@ public class BusEventProducer {
             Double latitude,
             Double longitude
     ) {
-        logger.info("📤 Publishing CANCELLATION event for bus {} (Route {})", busNumber, routeNumber);
+        logger.debug("📤 Publishing CANCELLATION event for bus {} (Route {})", busNumber, routeNumber);
 
         BusEventNotification event = BusEventNotification.builder()
                 .eventId(UUID.randomUUID().toString())
@@ -114,7 +154,7 @@ public class BusEventProducer {
                 .affectedUsers("ALL")
                 .build();
 
-        sendToKafka(TOPIC_CANCELLATIONS, event);
+        publish(TOPIC_CANCELLATIONS, event);
     }
 
     /**
@@ -128,7 +168,7 @@ public class BusEventProducer {
             Double latitude,
             Double longitude
     ) {
-        logger.info("📤 Publishing BREAKDOWN event for bus {} (Route {})", busNumber, routeNumber);
+        logger.debug("📤 Publishing BREAKDOWN event for bus {} (Route {})", busNumber, routeNumber);
 
         BusEventNotification event = BusEventNotification.builder()
                 .eventId(UUID.randomUUID().toString())
@@ -146,7 +186,7 @@ public class BusEventProducer {
                 .affectedUsers("ALL")
                 .build();
 
-        sendToKafka(TOPIC_ALERTS, event);
+        publish(TOPIC_ALERTS, event);
     }
 
     /**
@@ -161,7 +201,7 @@ public class BusEventProducer {
             Double latitude,
             Double longitude
     ) {
-        logger.info("📤 Publishing ROUTE_CHANGE event for bus {} (Route {} -> {})",
+        logger.debug("📤 Publishing ROUTE_CHANGE event for bus {} (Route {} -> {})",
                 busNumber, routeNumber, newRoute);
 
         BusEventNotification event = BusEventNotification.builder()
@@ -181,7 +221,7 @@ public class BusEventProducer {
                 .metadata(String.format("new_route=%s", newRoute))
                 .build();
 
-        sendToKafka(TOPIC_ALERTS, event);
+        publish(TOPIC_ALERTS, event);
     }
 
     /**
@@ -194,7 +234,7 @@ public class BusEventProducer {
             Double latitude,
             Double longitude
     ) {
-        logger.info("📤 Publishing TRAFFIC_ALERT for route {}", routeNumber);
+        logger.debug("📤 Publishing TRAFFIC_ALERT for route {}", routeNumber);
 
         BusEventNotification event = BusEventNotification.builder()
                 .eventId(UUID.randomUUID().toString())
@@ -210,7 +250,18 @@ public class BusEventProducer {
                 .affectedUsers("ALL")
                 .build();
 
-        sendToKafka(TOPIC_ALERTS, event);
+        publish(TOPIC_ALERTS, event);
+    }
+
+    /**
+     * Envoyer un événement, directement ou via le regroupement
+     */
+    private void publish(String topic, BusEventNotification event) {
+        if (coalescer != null && coalescedTypes.contains(event.getEventType())) {
+            coalescer.submit(topic, event);
+        } else {
+            sendToKafka(topic, event);
+        }
     }
 
     /**
@@ -225,28 +276,50 @@ public class BusEventProducer {
             String key = event.getBusId() != null ? event.getBusId() : event.getRouteNumber();
 
             // Envoi asynchrone vers Kafka
+            long start = System.nanoTime();
             CompletableFuture<SendResult<String, BusEventNotification>> future =
                     kafkaTemplate.send(topic, key, event);
 
-            // Callback pour savoir si l'envoi a réussi
+            // Callback : métriques, log détaillé seulement en DEBUG ou en cas d'échec
             future.whenComplete((result, ex) -> {
+                long elapsed = System.nanoTime() - start;
                 if (ex == null) {
-                    logger.info("✅ Event sent successfully to topic '{}' | Event ID: {} | Partition: {} | Offset: {}",
-                            topic,
-                            event.getEventId(),
-                            result.getRecordMetadata().partition(),
-                            result.getRecordMetadata().offset());
+                    sendTimer(topic, "success").record(elapsed, TimeUnit.NANOSECONDS);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("✅ Event sent successfully to topic '{}' | Event ID: {} | Partition: {} | Offset: {}",
+                                topic,
+                                event.getEventId(),
+                                result.getRecordMetadata().partition(),
+                                result.getRecordMetadata().offset());
+                    }
                 } else {
+                    sendTimer(topic, "error").record(elapsed, TimeUnit.NANOSECONDS);
+                    errorCounter(topic).increment();
                     logger.error("❌ Failed to send event to topic '{}' | Event ID: {} | Error: {}",
                             topic, event.getEventId(), ex.getMessage(), ex);
                 }
             });
 
         } catch (Exception e) {
+            errorCounter(topic).increment();
             logger.error("❌ Exception while sending to Kafka: {}", e.getMessage(), e);
         }
     }
 
+    private Timer sendTimer(String topic, String result) {
+        return sendTimers.computeIfAbsent(topic + "|" + result, k -> Timer.builder("tracking.events.send")
+                .tag("topic", topic)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private Counter errorCounter(String topic) {
+        return errorCounters.computeIfAbsent(topic, k -> Counter.builder("tracking.events.send.errors")
+                .tag("topic", topic)
+                .register(meterRegistry));
+    }
+
     /**
      * Méthode générique pour publier un événement personnalisé
      */
@@ -257,6 +330,6 @@ public class BusEventProducer {
             default -> TOPIC_ALERTS;
         };
 
-        sendToKafka(topic, event);
+        publish(topic, event);
     }
 }
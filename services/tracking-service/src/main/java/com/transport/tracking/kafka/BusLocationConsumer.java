@@ -0,0 +1,67 @@
+package com.transport.tracking.kafka;
+
+import com.transport.tracking.dto.BatchLocationResponse;
+import com.transport.tracking.dto.UpdateLocationRequest;
+import com.transport.tracking.shard.ShardDispatcher;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consumer Kafka des positions GPS (topic "bus-locations")
+ *
+ * Chaque poll est traité comme un lot : validation, une lecture des bus
+ * concernés et une écriture groupée (TrackingService.updateLocations).
+ * Format du message : identique au body de POST /api/tracking/location.
+ *
+ * Avec le sharding, les positions des bus d'une autre instance lui sont
+ * transmises (un appel par instance et par lot, voir ShardDispatcher).
+ */
+@Component
+public class BusLocationConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BusLocationConsumer.class);
+
+    private final ShardDispatcher shardDispatcher;
+
+    public BusLocationConsumer(ShardDispatcher shardDispatcher) {
+        this.shardDispatcher = shardDispatcher;
+    }
+
+    @KafkaListener(
+            topics = KafkaTopicConfig.TOPIC_LOCATIONS,
+            containerFactory = "locationBatchListenerFactory"
+    )
+    public void consume(List<ConsumerRecord<String, UpdateLocationRequest>> records) {
+        List<UpdateLocationRequest> requests = new ArrayList<>(records.size());
+
+        for (ConsumerRecord<String, UpdateLocationRequest> record : records) {
+            UpdateLocationRequest request = record.value();
+            if (request == null) {
+                logger.warn("Skipping unreadable location at {}-{}@{}",
+                        record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            // La clé du message est le busId
+            if (request.getBusId() == null) {
+                request.setBusId(record.key());
+            }
+            requests.add(request);
+        }
+
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        BatchLocationResponse response = shardDispatcher.updateLocations(requests);
+        if (response.getRejected() > 0) {
+            logger.warn("Kafka location batch: {} accepted, {} rejected",
+                    response.getAccepted(), response.getRejected());
+        }
+    }
+}
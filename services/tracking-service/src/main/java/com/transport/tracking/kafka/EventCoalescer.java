@@ -0,0 +1,119 @@
+package com.transport.tracking.kafka;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Regroupement des événements proches dans le temps
+ *
+ * Les événements de même clé (type, ligne, bus) reçus pendant la fenêtre
+ * sont fusionnés en un seul, publié à la fin de la fenêtre :
+ * - contenu du dernier événement (retard, position, message)
+ * - priorité la plus élevée de la fenêtre
+ * - nombre d'événements regroupés dans metadata ("coalesced=N")
+ *
+ * La fenêtre démarre au premier événement d'une clé.
+ */
+class EventCoalescer {
+
+    private static final List<String> PRIORITIES = List.of("LOW", "MEDIUM", "HIGH", "URGENT");
+
+    private final long windowMs;
+    private final BiConsumer<String, BusEventNotification> publisher;
+    private final ScheduledExecutorService scheduler;
+
+    private final ConcurrentHashMap<String, Pending> pending = new ConcurrentHashMap<>();
+
+    EventCoalescer(Duration window, BiConsumer<String, BusEventNotification> publisher) {
+        this.windowMs = window.toMillis();
+        this.publisher = publisher;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "event-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void submit(String topic, BusEventNotification event) {
+        String key = key(event);
+        boolean[] opened = new boolean[1];
+        // Fusion et retrait (flush) atomiques pour une clé : aucun événement perdu
+        pending.compute(key, (k, current) -> {
+            if (current == null) {
+                opened[0] = true;
+                return new Pending(topic, event);
+            }
+            current.merge(event);
+            return current;
+        });
+        if (opened[0]) {
+            scheduler.schedule(() -> flush(key), windowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Publier immédiatement tous les événements en attente (arrêt du service)
+     */
+    void flushAll() {
+        for (String key : pending.keySet()) {
+            flush(key);
+        }
+    }
+
+    void shutdown() {
+        flushAll();
+        scheduler.shutdownNow();
+    }
+
+    private void flush(String key) {
+        Pending flushed = pending.remove(key);
+        if (flushed != null) {
+            publisher.accept(flushed.topic, flushed.build());
+        }
+    }
+
+    private static String key(BusEventNotification event) {
+        return event.getEventType() + "|" + Objects.toString(event.getRouteNumber(), "")
+                + "|" + Objects.toString(event.getBusId(), "");
+    }
+
+    private static int rank(String priority) {
+        return PRIORITIES.indexOf(priority);
+    }
+
+    private static class Pending {
+        private final String topic;
+        private BusEventNotification latest;
+        private String priority;
+        private int count = 1;
+
+        private Pending(String topic, BusEventNotification event) {
+            this.topic = topic;
+            this.latest = event;
+            this.priority = event.getPriority();
+        }
+
+        private void merge(BusEventNotification event) {
+            latest = event;
+            if (rank(event.getPriority()) > rank(priority)) {
+                priority = event.getPriority();
+            }
+            count++;
+        }
+
+        private BusEventNotification build() {
+            latest.setPriority(priority);
+            if (count > 1) {
+                String coalesced = "coalesced=" + count;
+                latest.setMetadata(latest.getMetadata() != null ? latest.getMetadata() + ";" + coalesced : coalesced);
+            }
+            return latest;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.transport.tracking.kafka;
+
+import com.transport.tracking.dto.UpdateLocationRequest;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration Kafka Consumer - Ingestion des positions GPS
+ *
+ * Les boîtiers embarqués publient leurs positions dans le topic "bus-locations"
+ * (clé = busId, donc les positions d'un bus restent ordonnées dans une partition).
+ * Le tracking service les consomme PAR LOTS : chaque poll est écrit
+ * en une seule écriture groupée MongoDB.
+ *
+ * Pour absorber plus de débit : augmenter le nombre de partitions
+ * et de pods (un consumer group partagé entre les instances).
+ */
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:kafka:9093}")
+    private String bootstrapServers;
+
+    @Value("${tracking.kafka.locations.group-id:tracking-service-group}")
+    private String groupId;
+
+    @Value("${tracking.kafka.locations.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${tracking.kafka.locations.concurrency:3}")
+    private int concurrency;
+
+    /**
+     * Consumer des positions
+     *
+     * ErrorHandlingDeserializer : un message JSON invalide est transmis
+     * au listener avec une valeur nulle au lieu de bloquer la partition.
+     */
+    @Bean
+    public ConsumerFactory<String, UpdateLocationRequest> locationConsumerFactory() {
+        Map<String, Object> config = new HashMap<>();
+
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+
+        // Positions en temps réel : inutile de relire tout l'historique
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+
+        // Taille maximale d'un lot
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        JsonDeserializer<UpdateLocationRequest> jsonDeserializer =
+                new JsonDeserializer<>(UpdateLocationRequest.class, false);
+
+        return new DefaultKafkaConsumerFactory<>(
+                config,
+                new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(jsonDeserializer)
+        );
+    }
+
+    /**
+     * Factory des listeners en mode BATCH
+     * Offsets validés après le traitement de chaque lot.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, UpdateLocationRequest>
+            locationBatchListenerFactory() {
+
+        ConcurrentKafkaListenerContainerFactory<String, UpdateLocationRequest> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(locationConsumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+
+        // MongoDB indisponible : réessayer le lot 3 fois (1s d'intervalle)
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(1000L, 3)));
+
+        return factory;
+    }
+}
@@ -1,5 +1,6 @@
 package com.transport.tracking.kafka;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,6 +8,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
@@ -31,6 +33,11 @@ import java.util.Map;
  * 4. Kafka stocke le message
  * 5. Le service de notifications le reçoit automatiquement
  * 6. Le service de notifications envoie l'email/SMS
+ *
+ * RÉGLAGES (tracking.kafka.producer.*) : les valeurs par défaut privilégient
+ * la latence ; le profil Spring "kafka-throughput" (application-kafka-throughput.yml)
+ * active la compression et des lots plus gros pour les rafales d'événements.
+ * Ces valeurs n'ont pas encore été mesurées (voir perf/kafka-producer-bench.ps1).
  */
 @Configuration
 public class KafkaProducerConfig {
@@ -38,6 +45,33 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers:kafka:9093}")
     private String bootstrapServers;
 
+    @Value("${tracking.kafka.producer.acks:all}")
+    private String acks;
+
+    @Value("${tracking.kafka.producer.retries:3}")
+    private int retries;
+
+    @Value("${tracking.kafka.producer.enable-idempotence:true}")
+    private boolean enableIdempotence;
+
+    @Value("${tracking.kafka.producer.linger-ms:1}")
+    private int lingerMs;
+
+    @Value("${tracking.kafka.producer.batch-size:16384}")
+    private int batchSize;
+
+    @Value("${tracking.kafka.producer.compression-type:none}")
+    private String compressionType;
+
+    @Value("${tracking.kafka.producer.buffer-memory:33554432}")
+    private long bufferMemory;
+
+    private final MeterRegistry meterRegistry;
+
+    public KafkaProducerConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Configuration du Producer Kafka
      *
@@ -58,14 +92,23 @@ public class KafkaProducerConfig {
         config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
 
         // Configuration pour la fiabilité
-        config.put(ProducerConfig.ACKS_CONFIG, "all"); // Attendre confirmation de tous les brokers
-        config.put(ProducerConfig.RETRIES_CONFIG, 3);  // Réessayer 3 fois en cas d'échec
-        config.put(ProducerConfig.LINGER_MS_CONFIG, 1); // Attendre 1ms avant d'envoyer (batching)
+        config.put(ProducerConfig.ACKS_CONFIG, acks); // "all" : attendre confirmation de tous les brokers
+        config.put(ProducerConfig.RETRIES_CONFIG, retries);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, enableIdempotence); // Pas de doublon en cas de réessai
+
+        // Configuration du batching
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);      // Attente avant envoi d'un lot
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);    // Taille max d'un lot par partition (octets)
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType); // none, lz4, zstd...
+        config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
 
         // Configuration du JSON serializer
         config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
 
-        return new DefaultKafkaProducerFactory<>(config);
+        DefaultKafkaProducerFactory<String, BusEventNotification> factory = new DefaultKafkaProducerFactory<>(config);
+        // Métriques du client Kafka (débit, taille des lots, taux de compression...)
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     /**
@@ -0,0 +1,42 @@
+package com.transport.tracking.kafka;
+
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration des Topics Kafka du tracking service
+ */
+@Configuration
+public class KafkaTopicConfig {
+
+    public static final String TOPIC_LOCATIONS = "bus-locations";
+
+    @Value("${spring.kafka.bootstrap-servers:kafka:9093}")
+    private String bootstrapServers;
+
+    @Value("${tracking.kafka.locations.partitions:6}")
+    private int locationPartitions;
+
+    @Bean
+    public KafkaAdmin kafkaAdmin() {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        return new KafkaAdmin(configs);
+    }
+
+    /**
+     * Topic des positions GPS envoyées par les bus
+     * Le nombre de partitions borne le nombre de consumers actifs.
+     */
+    @Bean
+    public NewTopic busLocationsTopic() {
+        return new NewTopic(TOPIC_LOCATIONS, locationPartitions, (short) 1);
+    }
+}
@@ -10,14 +10,19 @@ import java.time.LocalDateTime;
 
 /**
  * BusLocation Document - Position GPS d'un bus en temps réel
- * Stocké dans MongoDB avec TTL (Time To Live) pour archivage automatique
+ * Stocké dans MongoDB avec TTL (Time To Live) : les journées sont archivées
+ * puis supprimées par LocationRetentionJob, le TTL n'est qu'un filet de sécurité
  */
 @Document(collection = "bus_locations")
 @CompoundIndexes({
-        @CompoundIndex(name = "bus_timestamp_idx", def = "{'busId': 1, 'timestamp': -1}")
+        @CompoundIndex(name = "bus_timestamp_idx", def = "{'busId': 1, 'timestamp': -1}"),
+        @CompoundIndex(name = "route_timestamp_idx", def = "{'routeNumber': 1, 'timestamp': -1}")
 })
 public class BusLocation {
 
+    // Expiration des positions (index TTL), au-delà de la rétention à chaud
+    public static final int TTL_SECONDS = 72 * 3600;
+
     @Id
     private String id;
 
@@ -46,7 +51,7 @@ public class BusLocation {
     private Double accuracy;
 
     // Timestamp de la position
-    @Indexed(expireAfterSeconds = 86400)  // TTL: 24 heures
+    @Indexed(expireAfterSeconds = TTL_SECONDS)  // TTL: 72 heures
     private LocalDateTime timestamp;
 
     // Informations contextuelles
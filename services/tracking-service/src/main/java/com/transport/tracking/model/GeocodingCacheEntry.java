@@ -0,0 +1,54 @@
+package com.transport.tracking.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * GeocodingCacheEntry Document - Résultat de géocodage mis en cache
+ * Clé : fournisseur + adresse normalisée. found=false pour "adresse introuvable".
+ * Supprimé automatiquement par MongoDB à expiresAt (index TTL).
+ */
+@Document(collection = "geocoding_cache")
+public class GeocodingCacheEntry {
+
+    @Id
+    private String key;
+
+    private boolean found;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    private String formattedAddress;
+
+    private String provider;
+
+    @Indexed(expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+
+    // Getters and Setters
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public boolean isFound() { return found; }
+    public void setFound(boolean found) { this.found = found; }
+
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+    public String getFormattedAddress() { return formattedAddress; }
+    public void setFormattedAddress(String formattedAddress) { this.formattedAddress = formattedAddress; }
+
+    public String getProvider() { return provider; }
+    public void setProvider(String provider) { this.provider = provider; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
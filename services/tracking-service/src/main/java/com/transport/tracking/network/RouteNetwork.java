@@ -0,0 +1,91 @@
+package com.transport.tracking.network;
+
+import com.transport.tracking.client.SchedulingClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Réseau de lignes (arrêts ordonnés et horaires), synchronisé depuis scheduling-service
+ *
+ * Rechargé périodiquement (tracking.network.refresh-interval-ms) ; chaque
+ * chargement remplace la carte entière, les lectures ne prennent aucun verrou.
+ */
+@Component
+public class RouteNetwork {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteNetwork.class);
+
+    private final SchedulingClient schedulingClient;
+    private final double defaultSpeedKmh;
+
+    private volatile Map<String, RouteStops> routes = Map.of();
+    private volatile Map<String, RouteTimetable> timetables = Map.of();
+
+    public RouteNetwork(SchedulingClient schedulingClient,
+                        @Value("${tracking.eta.default-speed-kmh:20}") double defaultSpeedKmh) {
+        this.schedulingClient = schedulingClient;
+        this.defaultSpeedKmh = defaultSpeedKmh;
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.network.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            Map<String, RouteStops> loaded = new HashMap<>();
+            Map<String, RouteTimetable> loadedTimetables = new HashMap<>();
+            for (SchedulingClient.Route route : schedulingClient.getRoutes()) {
+                if (route.getRouteNumber() == null) {
+                    continue;
+                }
+                RouteStops stops = RouteStops.from(route);
+                loaded.put(route.getRouteNumber(), stops);
+                RouteTimetable timetable = loadTimetable(route, stops);
+                if (timetable != null) {
+                    loadedTimetables.put(route.getRouteNumber(), timetable);
+                }
+            }
+            routes = Map.copyOf(loaded);
+            timetables = Map.copyOf(loadedTimetables);
+            logger.info("Route network loaded: {} routes, {} timetables", loaded.size(), loadedTimetables.size());
+        } catch (Exception e) {
+            logger.warn("Could not load route network from scheduling-service: {}", e.getMessage());
+        }
+    }
+
+    public Optional<RouteStops> find(String routeNumber) {
+        return routeNumber == null ? Optional.empty() : Optional.ofNullable(routes.get(routeNumber));
+    }
+
+    /**
+     * Horaires d'une ligne, s'ils ont pu être chargés
+     */
+    public Optional<RouteTimetable> findTimetable(String routeNumber) {
+        return routeNumber == null ? Optional.empty() : Optional.ofNullable(timetables.get(routeNumber));
+    }
+
+    public Collection<RouteStops> all() {
+        return routes.values();
+    }
+
+    // Une ligne sans horaires reste utilisable pour le suivi et l'ETA
+    private RouteTimetable loadTimetable(SchedulingClient.Route route, RouteStops stops) {
+        if (route.getId() == null || stops.segmentCount() == 0) {
+            return null;
+        }
+        try {
+            RouteTimetable timetable = RouteTimetable.from(stops, schedulingClient.getSchedules(route.getId()),
+                    defaultSpeedKmh);
+            return timetable.hasDepartures() ? timetable : null;
+        } catch (Exception e) {
+            logger.warn("Could not load schedules for route {}: {}", route.getRouteNumber(), e.getMessage());
+            return null;
+        }
+    }
+}
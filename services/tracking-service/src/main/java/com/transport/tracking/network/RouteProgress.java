@@ -0,0 +1,22 @@
+package com.transport.tracking.network;
+
+/**
+ * Avancement d'un bus sur sa ligne
+ * segment i = entre l'arrêt i et l'arrêt i + 1, fraction dans [0, 1]
+ */
+public class RouteProgress {
+
+    private final int segment;
+    private final double fraction;
+    private final double offRouteKm;
+
+    public RouteProgress(int segment, double fraction, double offRouteKm) {
+        this.segment = segment;
+        this.fraction = fraction;
+        this.offRouteKm = offRouteKm;
+    }
+
+    public int getSegment() { return segment; }
+    public double getFraction() { return fraction; }
+    public double getOffRouteKm() { return offRouteKm; }
+}
@@ -0,0 +1,103 @@
+package com.transport.tracking.network;
+
+import com.transport.tracking.model.BusLocation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Avancement de chaque bus sur sa ligne, mis à jour à chaque position reçue
+ *
+ * Un bus avance d'un segment à l'autre : à partir du segment précédent,
+ * seuls quelques segments autour (un en arrière, lookahead en avant) sont
+ * examinés. La ligne entière n'est parcourue que pour la première position,
+ * après un changement de ligne ou de réseau, ou si le bus s'est écarté.
+ *
+ * Renseigne nearestStop et distanceToNextStop sur la BusLocation.
+ */
+@Component
+public class RouteProgressTracker {
+
+    private final RouteNetwork routeNetwork;
+    private final double maxOffRouteKm;
+    private final int lookaheadSegments;
+
+    private final ConcurrentHashMap<String, BusProgress> progressByBus = new ConcurrentHashMap<>();
+
+    public RouteProgressTracker(RouteNetwork routeNetwork,
+                                @Value("${tracking.network.max-off-route-m:300}") double maxOffRouteMeters,
+                                @Value("${tracking.network.lookahead-segments:3}") int lookaheadSegments) {
+        this.routeNetwork = routeNetwork;
+        this.maxOffRouteKm = maxOffRouteMeters / 1000.0;
+        this.lookaheadSegments = lookaheadSegments;
+    }
+
+    /**
+     * Situer une position sur la ligne du bus et renseigner les champs d'arrêt
+     * Sans effet si la ligne est inconnue ou si le bus est hors ligne.
+     *
+     * @return avancement calculé, ou null
+     */
+    public RouteProgress enrich(BusLocation location) {
+        if (location.getLatitude() == null || location.getLongitude() == null) {
+            return null;
+        }
+        RouteStops route = routeNetwork.find(location.getRouteNumber()).orElse(null);
+        if (route == null || route.segmentCount() == 0) {
+            progressByBus.remove(location.getBusId());
+            return null;
+        }
+
+        double latitude = location.getLatitude();
+        double longitude = location.getLongitude();
+
+        BusProgress previous = progressByBus.get(location.getBusId());
+        RouteProgress progress = null;
+        if (previous != null && previous.route == route) {
+            int segment = previous.progress.getSegment();
+            progress = route.locate(latitude, longitude, segment - 1, segment + lookaheadSegments);
+        }
+        if (progress == null || progress.getOffRouteKm() > maxOffRouteKm) {
+            progress = route.locate(latitude, longitude);
+        }
+        if (progress.getOffRouteKm() > maxOffRouteKm) {
+            progressByBus.remove(location.getBusId());
+            return null;
+        }
+
+        int segment = progress.getSegment();
+        double segmentKm = route.segmentKm(segment);
+        int nearest = progress.getFraction() <= 0.5 ? segment : segment + 1;
+        location.setNearestStop(route.stopName(nearest));
+        location.setDistanceToNextStop((1 - progress.getFraction()) * segmentKm);
+
+        progressByBus.put(location.getBusId(), new BusProgress(route, progress));
+        return progress;
+    }
+
+    /**
+     * Dernier avancement connu d'un bus, si la ligne n'a pas été rechargée depuis
+     */
+    public Optional<RouteProgress> find(String busId, RouteStops route) {
+        BusProgress progress = progressByBus.get(busId);
+        return progress != null && progress.route == route
+                ? Optional.of(progress.progress)
+                : Optional.empty();
+    }
+
+    public void remove(String busId) {
+        progressByBus.remove(busId);
+    }
+
+    private static class BusProgress {
+        private final RouteStops route;
+        private final RouteProgress progress;
+
+        private BusProgress(RouteStops route, RouteProgress progress) {
+            this.route = route;
+            this.progress = progress;
+        }
+    }
+}
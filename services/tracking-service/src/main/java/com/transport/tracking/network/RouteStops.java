@@ -0,0 +1,131 @@
+package com.transport.tracking.network;
+
+import com.transport.tracking.client.SchedulingClient;
+import com.transport.tracking.geo.GeoDistanceKernel;
+import com.transport.tracking.geo.GeoMath;
+import com.transport.tracking.geo.GeoPoints;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Arrêts d'une ligne dans l'ordre de passage (copie immuable)
+ *
+ * Les coordonnées sont rangées dans des tableaux ; le segment i va de
+ * l'arrêt i à l'arrêt i + 1.
+ */
+public class RouteStops {
+
+    private final UUID routeId;
+    private final String routeNumber;
+    private final UUID[] stopIds;
+    private final String[] stopNames;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final GeoPoints points;
+    private final double[] segmentKm;
+    private final int[] scheduledSegmentSeconds;  // -1 si inconnu
+
+    private RouteStops(UUID routeId, String routeNumber, List<SchedulingClient.Stop> stops) {
+        this.routeId = routeId;
+        this.routeNumber = routeNumber;
+        int n = stops.size();
+        this.stopIds = new UUID[n];
+        this.stopNames = new String[n];
+        this.latitudes = new double[n];
+        this.longitudes = new double[n];
+        this.segmentKm = new double[Math.max(n - 1, 0)];
+        this.scheduledSegmentSeconds = new int[Math.max(n - 1, 0)];
+
+        for (int i = 0; i < n; i++) {
+            SchedulingClient.Stop stop = stops.get(i);
+            stopIds[i] = stop.getId();
+            stopNames[i] = stop.getName();
+            latitudes[i] = stop.getLatitude();
+            longitudes[i] = stop.getLongitude();
+        }
+        this.points = GeoPoints.ofDegrees(latitudes, longitudes);
+        for (int i = 0; i < n - 1; i++) {
+            SchedulingClient.Stop stop = stops.get(i);
+            segmentKm[i] = stop.getDistanceToNext() != null && stop.getDistanceToNext() > 0
+                    ? stop.getDistanceToNext()
+                    : GeoMath.haversineKm(latitudes[i], longitudes[i], latitudes[i + 1], longitudes[i + 1]);
+            scheduledSegmentSeconds[i] = stop.getDurationToNext() != null && stop.getDurationToNext() > 0
+                    ? stop.getDurationToNext() * 60
+                    : -1;
+        }
+    }
+
+    /**
+     * Construire depuis une ligne de scheduling-service
+     * Les arrêts sans coordonnées sont ignorés.
+     */
+    public static RouteStops from(SchedulingClient.Route route) {
+        List<SchedulingClient.Stop> stops = route.getStops() == null ? List.of() : route.getStops().stream()
+                .filter(stop -> stop.getLatitude() != null && stop.getLongitude() != null)
+                .sorted(Comparator.comparing(SchedulingClient.Stop::getSequenceOrder,
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                .collect(Collectors.toList());
+        return new RouteStops(route.getId(), route.getRouteNumber(), stops);
+    }
+
+    /**
+     * Position d'un point sur la ligne : segment le plus proche
+     * (parcours de tous les segments)
+     */
+    public RouteProgress locate(double latitude, double longitude) {
+        return locate(latitude, longitude, 0, segmentCount() - 1);
+    }
+
+    /**
+     * Position d'un point sur la ligne, en ne considérant que les segments
+     * fromSegment..toSegment (bornes incluses, ramenées dans la ligne)
+     */
+    public RouteProgress locate(double latitude, double longitude, int fromSegment, int toSegment) {
+        if (segmentCount() == 0) {
+            return null;
+        }
+        int from = Math.max(0, fromSegment);
+        int to = Math.min(segmentCount() - 1, toSegment);
+
+        // Une passe sur les segments, sans tableau intermédiaire (chemin de chaque ping)
+        GeoDistanceKernel.Origin origin = new GeoDistanceKernel.Origin(latitude, longitude);
+        int best = from;
+        double bestFraction = 0;
+        double bestKm = Double.MAX_VALUE;
+        for (int i = from; i <= to; i++) {
+            double fraction = GeoMath.segmentFraction(latitude, longitude,
+                    latitudes[i], longitudes[i], latitudes[i + 1], longitudes[i + 1]);
+            double projectedLat = latitudes[i] + (latitudes[i + 1] - latitudes[i]) * fraction;
+            double projectedLon = longitudes[i] + (longitudes[i + 1] - longitudes[i]) * fraction;
+            double offRouteKm = origin.distanceKmTo(projectedLat, projectedLon);
+            if (offRouteKm < bestKm) {
+                best = i;
+                bestFraction = fraction;
+                bestKm = offRouteKm;
+            }
+        }
+        return new RouteProgress(best, bestFraction, bestKm);
+    }
+
+    /**
+     * Arrêt le plus proche d'un point à moins de radiusKm, ou -1
+     */
+    public int nearestStop(double latitude, double longitude, double radiusKm) {
+        return GeoDistanceKernel.nearest(latitude, longitude, radiusKm, points);
+    }
+
+    public int size() { return latitudes.length; }
+    public int segmentCount() { return segmentKm.length; }
+
+    public UUID getRouteId() { return routeId; }
+    public String getRouteNumber() { return routeNumber; }
+    public UUID stopId(int index) { return stopIds[index]; }
+    public String stopName(int index) { return stopNames[index]; }
+    public double latitude(int index) { return latitudes[index]; }
+    public double longitude(int index) { return longitudes[index]; }
+    public double segmentKm(int segment) { return segmentKm[segment]; }
+    public int scheduledSegmentSeconds(int segment) { return scheduledSegmentSeconds[segment]; }
+}
@@ -0,0 +1,125 @@
+package com.transport.tracking.network;
+
+import com.transport.tracking.client.SchedulingClient;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Horaires théoriques d'une ligne (copie immuable)
+ *
+ * - départs du premier arrêt par jour de la semaine, en secondes depuis minuit, triés
+ * - temps prévu depuis le départ jusqu'à chaque arrêt (durées de scheduling-service,
+ *   sinon distance à la vitesse par défaut)
+ *
+ * Les trajets qui passent minuit ne sont pas rattachés au jour précédent
+ * au-delà de la veille.
+ */
+public class RouteTimetable {
+
+    private static final int SECONDS_PER_DAY = 24 * 3600;
+
+    private final RouteStops route;
+    private final int[][] departuresByDay = new int[7][];
+    private final double[] stopOffsetSeconds;
+
+    private RouteTimetable(RouteStops route, List<SchedulingClient.Schedule> schedules, double defaultSpeedKmh) {
+        this.route = route;
+        for (DayOfWeek day : DayOfWeek.values()) {
+            TreeSet<Integer> departures = new TreeSet<>();
+            for (SchedulingClient.Schedule schedule : schedules) {
+                if (Boolean.FALSE.equals(schedule.getIsActive())
+                        || schedule.getActiveDays() == null || !schedule.getActiveDays().contains(day)) {
+                    continue;
+                }
+                addDepartures(schedule, departures);
+            }
+            departuresByDay[day.getValue() - 1] = departures.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        stopOffsetSeconds = new double[route.size()];
+        for (int i = 0; i < route.segmentCount(); i++) {
+            int scheduled = route.scheduledSegmentSeconds(i);
+            double seconds = scheduled > 0 ? scheduled : route.segmentKm(i) / defaultSpeedKmh * 3600;
+            stopOffsetSeconds[i + 1] = stopOffsetSeconds[i] + seconds;
+        }
+    }
+
+    public static RouteTimetable from(RouteStops route, List<SchedulingClient.Schedule> schedules,
+                                      double defaultSpeedKmh) {
+        return new RouteTimetable(route, schedules, defaultSpeedKmh);
+    }
+
+    private static void addDepartures(SchedulingClient.Schedule schedule, TreeSet<Integer> departures) {
+        if (schedule.getDepartureTimes() != null && !schedule.getDepartureTimes().isEmpty()) {
+            for (LocalTime time : schedule.getDepartureTimes()) {
+                departures.add(time.toSecondOfDay());
+            }
+            return;
+        }
+        if (schedule.getStartTime() != null && schedule.getEndTime() != null
+                && schedule.getFrequency() != null && schedule.getFrequency() > 0) {
+            int end = schedule.getEndTime().toSecondOfDay();
+            for (int t = schedule.getStartTime().toSecondOfDay(); t <= end; t += schedule.getFrequency() * 60) {
+                departures.add(t);
+            }
+        }
+    }
+
+    /**
+     * Temps prévu entre le départ et une position sur la ligne, en secondes
+     */
+    public double offsetSeconds(RouteProgress progress) {
+        int segment = progress.getSegment();
+        double from = stopOffsetSeconds[segment];
+        double to = stopOffsetSeconds[segment + 1];
+        return from + (to - from) * progress.getFraction();
+    }
+
+    /**
+     * Départ du trajet le plus récent compatible avec une position :
+     * dernier départ d tel que d + offsetSeconds <= at + earlySeconds
+     * (recherche dans la journée de "at" puis la veille), ou null
+     */
+    public LocalDateTime tripDeparture(LocalDateTime at, double offsetSeconds, long earlySeconds) {
+        long target = at.toLocalTime().toSecondOfDay() + earlySeconds - (long) Math.ceil(offsetSeconds);
+        for (int daysBack = 0; daysBack <= 1; daysBack++) {
+            LocalDateTime day = at.toLocalDate().minusDays(daysBack).atStartOfDay();
+            int[] departures = departuresByDay[day.getDayOfWeek().getValue() - 1];
+            long dayTarget = target + (long) daysBack * SECONDS_PER_DAY;
+            int index = latestAtOrBefore(departures, dayTarget);
+            if (index >= 0) {
+                return day.plusSeconds(departures[index]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Arrêts sur lesquels les temps prévus ont été calculés
+     */
+    public RouteStops getRoute() {
+        return route;
+    }
+
+    public boolean hasDepartures() {
+        for (int[] departures : departuresByDay) {
+            if (departures.length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int latestAtOrBefore(int[] sorted, long value) {
+        if (value < 0) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(sorted, (int) Math.min(value, Integer.MAX_VALUE));
+        return index >= 0 ? index : -index - 2;
+    }
+}
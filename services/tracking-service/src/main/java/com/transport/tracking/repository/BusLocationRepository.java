@@ -9,7 +9,8 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BusLocationRepository extends MongoRepository<BusLocation, String> {
+public interface BusLocationRepository extends MongoRepository<BusLocation, String>,
+        BusLocationRepositoryCustom {
 
     // Trouver la dernière position d'un bus
     Optional<BusLocation> findFirstByBusIdOrderByTimestampDesc(String busId);
@@ -21,12 +22,6 @@ public interface BusLocationRepository extends MongoRepository<BusLocation, Stri
             LocalDateTime end
     );
 
-    // Trouver les dernières positions de tous les bus d'une ligne
-    List<BusLocation> findByRouteNumberOrderByTimestampDesc(String routeNumber);
-
-    // Trouver toutes les positions récentes (dernière heure)
-    List<BusLocation> findByTimestampAfterOrderByTimestampDesc(LocalDateTime since);
-
-    // Supprimer les anciennes positions
-    void deleteByTimestampBefore(LocalDateTime before);
+    // Dernières positions par bus (ligne / récentes) : voir findLatestPerBus
+    // Suppression des anciennes positions : voir LocationRetentionJob
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.transport.tracking.repository;
+
+import com.transport.tracking.model.BusLocation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Opérations MongoDB spécifiques à bus_locations (hors requêtes dérivées)
+ */
+public interface BusLocationRepositoryCustom {
+
+    /**
+     * Insérer des positions en une seule écriture groupée non ordonnée
+     * Un échec n'empêche pas l'insertion des autres documents.
+     *
+     * @return index (dans la liste) -> message d'erreur des documents rejetés
+     */
+    Map<Integer, String> insertUnordered(List<BusLocation> locations);
+
+    /**
+     * Dernière position de chaque bus vue depuis une date donnée
+     * Agrégation côté MongoDB ($match, $sort, $group/$first) :
+     * un seul document par bus est renvoyé.
+     *
+     * @param routeNumber ligne à filtrer, ou null pour tous les bus
+     */
+    List<BusLocation> findLatestPerBus(String routeNumber, LocalDateTime since);
+
+    /**
+     * Historique d'un bus lu au fil du curseur, du plus ancien au plus récent
+     * Seuls les champs de LocationPoint (et routeNumber) sont lus. Le Stream doit être fermé.
+     */
+    Stream<BusLocation> streamHistory(String busId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Identifiants des bus vus sur une ligne pendant une période
+     */
+    List<String> findBusIdsOnRoute(String routeNumber, LocalDateTime start, LocalDateTime end);
+}
@@ -0,0 +1,97 @@
+package com.transport.tracking.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.transport.tracking.model.BusLocation;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Implémentation des opérations personnalisées de BusLocationRepository
+ */
+public class BusLocationRepositoryCustomImpl implements BusLocationRepositoryCustom {
+
+    // Documents lus par aller-retour lors du parcours de l'historique
+    private static final int HISTORY_CURSOR_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public BusLocationRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<BusLocation> locations) {
+        if (locations.isEmpty()) {
+            return Map.of();
+        }
+
+        // Identifiants générés côté client pour pouvoir les renvoyer à l'appelant
+        for (BusLocation location : locations) {
+            if (location.getId() == null) {
+                location.setId(new ObjectId().toHexString());
+            }
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BusLocation.class)
+                    .insert(locations)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failures = new HashMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+            return failures;
+        }
+    }
+
+    @Override
+    public List<BusLocation> findLatestPerBus(String routeNumber, LocalDateTime since) {
+        // Index utilisés : route_timestamp_idx avec une ligne, timestamp sinon
+        Criteria criteria = routeNumber != null
+                ? Criteria.where("routeNumber").is(routeNumber).and("timestamp").gte(since)
+                : Criteria.where("timestamp").gte(since);
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.sort(Sort.Direction.DESC, "timestamp"),
+                Aggregation.group("busId").first(Aggregation.ROOT).as("latest"),
+                Aggregation.replaceRoot("latest")
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        return mongoTemplate.aggregate(aggregation, BusLocation.class, BusLocation.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public Stream<BusLocation> streamHistory(String busId, LocalDateTime start, LocalDateTime end) {
+        Query query = new Query(Criteria.where("busId").is(busId).and("timestamp").gte(start).lte(end))
+                .with(Sort.by(Sort.Direction.ASC, "timestamp"))
+                .cursorBatchSize(HISTORY_CURSOR_BATCH_SIZE);
+        query.fields()
+                .include("routeNumber", "timestamp", "latitude", "longitude", "speed", "heading", "currentPassengers")
+                .exclude("_id");
+
+        return mongoTemplate.stream(query, BusLocation.class);
+    }
+
+    @Override
+    public List<String> findBusIdsOnRoute(String routeNumber, LocalDateTime start, LocalDateTime end) {
+        Query query = new Query(Criteria.where("routeNumber").is(routeNumber).and("timestamp").gte(start).lte(end));
+        return mongoTemplate.findDistinct(query, "busId", BusLocation.class, String.class);
+    }
+}
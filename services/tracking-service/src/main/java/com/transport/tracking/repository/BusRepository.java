@@ -10,7 +10,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface BusRepository extends MongoRepository<Bus, String> {
+public interface BusRepository extends MongoRepository<Bus, String>, BusRepositoryCustom {
 
     Optional<Bus> findByBusNumber(String busNumber);
 
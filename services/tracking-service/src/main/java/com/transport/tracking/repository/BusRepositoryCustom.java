@@ -0,0 +1,15 @@
+package com.transport.tracking.repository;
+
+import java.util.Map;
+
+/**
+ * Opérations sur les bus non exprimables en requêtes dérivées
+ */
+public interface BusRepositoryCustom {
+
+    /**
+     * Mettre à jour le nombre de passagers de plusieurs bus
+     * (mise à jour ciblée, le reste du document n'est pas réécrit)
+     */
+    void updatePassengerCounts(Map<String, Integer> passengersByBus);
+}
@@ -0,0 +1,37 @@
+package com.transport.tracking.repository;
+
+import com.transport.tracking.model.Bus;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Implémentation des opérations personnalisées de BusRepository
+ */
+public class BusRepositoryCustomImpl implements BusRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public BusRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void updatePassengerCounts(Map<String, Integer> passengersByBus) {
+        if (passengersByBus.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Bus.class);
+        passengersByBus.forEach((busId, passengers) -> bulk.updateOne(
+                Query.query(Criteria.where("_id").is(busId)),
+                new Update().set("currentPassengers", passengers).set("updatedAt", now)));
+        bulk.execute();
+    }
+}
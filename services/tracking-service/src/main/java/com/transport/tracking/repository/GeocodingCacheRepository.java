@@ -0,0 +1,9 @@
+package com.transport.tracking.repository;
+
+import com.transport.tracking.model.GeocodingCacheEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GeocodingCacheRepository extends MongoRepository<GeocodingCacheEntry, String> {
+}
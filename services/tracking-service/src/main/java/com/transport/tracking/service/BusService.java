@@ -1,9 +1,14 @@
 package com.transport.tracking.service;
 
+import com.transport.tracking.cache.BusMetadataCache;
 import com.transport.tracking.dto.*;
+import com.transport.tracking.eta.DelayDetector;
+import com.transport.tracking.ingest.PingSuppressor;
 import com.transport.tracking.model.Bus;
 import com.transport.tracking.model.BusStatus;
+import com.transport.tracking.network.RouteProgressTracker;
 import com.transport.tracking.repository.BusRepository;
+import com.transport.tracking.state.LiveFleetState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -19,9 +24,21 @@ public class BusService {
     private static final Logger logger = LoggerFactory.getLogger(BusService.class);
 
     private final BusRepository busRepository;
-
-    public BusService(BusRepository busRepository) {
+    private final BusMetadataCache busMetadataCache;
+    private final LiveFleetState fleetState;
+    private final RouteProgressTracker progressTracker;
+    private final DelayDetector delayDetector;
+    private final PingSuppressor pingSuppressor;
+
+    public BusService(BusRepository busRepository, BusMetadataCache busMetadataCache,
+                      LiveFleetState fleetState, RouteProgressTracker progressTracker,
+                      DelayDetector delayDetector, PingSuppressor pingSuppressor) {
         this.busRepository = busRepository;
+        this.busMetadataCache = busMetadataCache;
+        this.fleetState = fleetState;
+        this.progressTracker = progressTracker;
+        this.delayDetector = delayDetector;
+        this.pingSuppressor = pingSuppressor;
     }
 
     /**
@@ -48,6 +65,7 @@ public class BusService {
         bus.setCapacity(request.getCapacity());
 
         Bus savedBus = busRepository.save(bus);
+        busMetadataCache.put(savedBus);
         logger.info("Bus created successfully: {}", savedBus.getId());
 
         return BusResponse.fromDomain(savedBus);
@@ -114,6 +132,7 @@ public class BusService {
 
         bus.assignRoute(request.getRouteId(), request.getRouteNumber());
         Bus savedBus = busRepository.save(bus);
+        busMetadataCache.put(savedBus);
 
         logger.info("Route assigned successfully to bus {}", savedBus.getId());
         return BusResponse.fromDomain(savedBus);
@@ -130,6 +149,7 @@ public class BusService {
 
         bus.assignDriver(driverId, driverName);
         Bus savedBus = busRepository.save(bus);
+        busMetadataCache.put(savedBus);
 
         logger.info("Driver assigned successfully to bus {}", savedBus.getId());
         return BusResponse.fromDomain(savedBus);
@@ -146,6 +166,7 @@ public class BusService {
 
         bus.startService();
         Bus savedBus = busRepository.save(bus);
+        busMetadataCache.put(savedBus);
 
         logger.info("Service started for bus {}", savedBus.getId());
         return BusResponse.fromDomain(savedBus);
@@ -162,6 +183,7 @@ public class BusService {
 
         bus.endService();
         Bus savedBus = busRepository.save(bus);
+        busMetadataCache.put(savedBus);
 
         logger.info("Service ended for bus {}", savedBus.getId());
         return BusResponse.fromDomain(savedBus);
@@ -179,6 +201,7 @@ public class BusService {
         bus.setMaintenance();
         bus.setLastMaintenanceDate(LocalDateTime.now());
         Bus savedBus = busRepository.save(bus);
+        busMetadataCache.put(savedBus);
 
         logger.info("Bus {} set to maintenance", savedBus.getId());
         return BusResponse.fromDomain(savedBus);
@@ -195,6 +218,7 @@ public class BusService {
 
         bus.updatePassengerCount(count);
         Bus savedBus = busRepository.save(bus);
+        busMetadataCache.put(savedBus);
 
         logger.info("Passenger count updated for bus {}", savedBus.getId());
         return BusResponse.fromDomain(savedBus);
@@ -211,6 +235,11 @@ public class BusService {
         }
 
         busRepository.deleteById(busId);
+        busMetadataCache.evict(busId);
+        fleetState.remove(busId);
+        progressTracker.remove(busId);
+        delayDetector.remove(busId);
+        pingSuppressor.forget(busId);
         logger.info("Bus deleted: {}", busId);
     }
 
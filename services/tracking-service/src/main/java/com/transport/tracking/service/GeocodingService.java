@@ -4,6 +4,8 @@ import com.google.maps.GeoApiContext;
 import com.google.maps.GeocodingApi;
 import com.google.maps.model.GeocodingResult;
 import com.google.maps.model.LatLng;
+import com.transport.tracking.cache.GeocodingCache;
+import com.transport.tracking.cache.ReverseGeocodingCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -16,6 +18,7 @@ import java.util.Map;
 /**
  * Service de géocodage - Convertit adresses en coordonnées GPS
  * Supporte Google Maps API et OpenStreetMap (fallback gratuit)
+ * Les résultats sont mis en cache (voir GeocodingCache)
  */
 @Service
 public class GeocodingService {
@@ -24,16 +27,36 @@ public class GeocodingService {
 
     private final GeoApiContext geoApiContext;
     private final WebClient openStreetMapClient;
+    private final GeocodingCache geocodingCache;
+    private final ReverseGeocodingCache reverseGeocodingCache;
 
-    public GeocodingService(GeoApiContext geoApiContext, WebClient openStreetMapClient) {
+    public GeocodingService(GeoApiContext geoApiContext, WebClient openStreetMapClient,
+                            GeocodingCache geocodingCache, ReverseGeocodingCache reverseGeocodingCache) {
         this.geoApiContext = geoApiContext;
         this.openStreetMapClient = openStreetMapClient;
+        this.geocodingCache = geocodingCache;
+        this.reverseGeocodingCache = reverseGeocodingCache;
     }
 
     /**
-     * Géocoder une adresse avec Google Maps
+     * Géocoder une adresse avec Google Maps (OpenStreetMap en secours)
      */
     public GeoLocation geocodeWithGoogleMaps(String address) {
+        return geocodingCache.get("google", address, () -> {
+            GeoLocation location = lookupGoogleMaps(address);
+            return location != null ? location : lookupOpenStreetMap(address);
+        });
+    }
+
+    /**
+     * Géocoder une adresse avec OpenStreetMap (gratuit)
+     */
+    public GeoLocation geocodeWithOpenStreetMap(String address) {
+        return geocodingCache.get("osm", address, () -> lookupOpenStreetMap(address));
+    }
+
+    // null si introuvable ou en erreur (le secours OpenStreetMap prend le relais)
+    private GeoLocation lookupGoogleMaps(String address) {
         try {
             logger.info("Geocoding address with Google Maps: {}", address);
 
@@ -53,19 +76,17 @@ public class GeocodingService {
                 );
             }
 
-            throw new IllegalArgumentException("Address not found: " + address);
+            logger.info("Address not found with Google Maps: {}", address);
+            return null;
 
         } catch (Exception e) {
             logger.error("Error geocoding with Google Maps: {}", e.getMessage());
-            // Fallback to OpenStreetMap
-            return geocodeWithOpenStreetMap(address);
+            return null;
         }
     }
 
-    /**
-     * Géocoder une adresse avec OpenStreetMap (gratuit)
-     */
-    public GeoLocation geocodeWithOpenStreetMap(String address) {
+    // null si introuvable, exception si OpenStreetMap est en erreur
+    private GeoLocation lookupOpenStreetMap(String address) {
         try {
             logger.info("Geocoding address with OpenStreetMap: {}", address);
 
@@ -92,7 +113,8 @@ public class GeocodingService {
                 return new GeoLocation(lat, lon, displayName, "OPENSTREETMAP");
             }
 
-            throw new IllegalArgumentException("Address not found: " + address);
+            logger.info("Address not found with OpenStreetMap: {}", address);
+            return null;
 
         } catch (Exception e) {
             logger.error("Error geocoding with OpenStreetMap: {}", e.getMessage());
@@ -102,8 +124,22 @@ public class GeocodingService {
 
     /**
      * Géocodage inversé - Convertir coordonnées en adresse (Google Maps)
+     * Les adresses sont mises en cache par cellule (voir ReverseGeocodingCache)
      */
     public String reverseGeocodeWithGoogleMaps(double latitude, double longitude) {
+        return reverseGeocodingCache.get("google", latitude, longitude,
+                () -> lookupReverseGoogleMaps(latitude, longitude));
+    }
+
+    /**
+     * Géocodage inversé avec OpenStreetMap
+     */
+    public String reverseGeocodeWithOpenStreetMap(double latitude, double longitude) {
+        return reverseGeocodingCache.get("osm", latitude, longitude,
+                () -> lookupReverseOpenStreetMap(latitude, longitude));
+    }
+
+    private String lookupReverseGoogleMaps(double latitude, double longitude) {
         try {
             logger.info("Reverse geocoding with Google Maps: ({}, {})", latitude, longitude);
 
@@ -116,18 +152,15 @@ public class GeocodingService {
                 return address;
             }
 
-            return "Unknown location";
+            return ReverseGeocodingCache.UNKNOWN_LOCATION;
 
         } catch (Exception e) {
             logger.error("Error reverse geocoding with Google Maps: {}", e.getMessage());
-            return reverseGeocodeWithOpenStreetMap(latitude, longitude);
+            return lookupReverseOpenStreetMap(latitude, longitude);
         }
     }
 
-    /**
-     * Géocodage inversé avec OpenStreetMap
-     */
-    public String reverseGeocodeWithOpenStreetMap(double latitude, double longitude) {
+    private String lookupReverseOpenStreetMap(double latitude, double longitude) {
         try {
             logger.info("Reverse geocoding with OpenStreetMap: ({}, {})", latitude, longitude);
 
@@ -149,11 +182,11 @@ public class GeocodingService {
                 return address;
             }
 
-            return "Unknown location";
+            return ReverseGeocodingCache.UNKNOWN_LOCATION;
 
         } catch (Exception e) {
             logger.error("Error reverse geocoding with OpenStreetMap: {}", e.getMessage());
-            return "Unknown location";
+            return ReverseGeocodingCache.UNKNOWN_LOCATION;
         }
     }
 
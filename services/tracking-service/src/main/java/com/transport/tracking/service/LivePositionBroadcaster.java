@@ -0,0 +1,241 @@
+package com.transport.tracking.service;
+
+import com.transport.tracking.dto.AreaSubscriptionRequest;
+import com.transport.tracking.dto.LocationResponse;
+import com.transport.tracking.geo.GeoMath;
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.state.LiveFleetState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diffusion des positions en temps réel (WebSocket / STOMP)
+ *
+ * Chaque position reçue marque seulement le bus comme "modifié".
+ * Toutes les pushIntervalMs, les bus modifiés sont envoyés avec leur
+ * DERNIÈRE position (conflation) :
+ * - /topic/tracking/bus/{busId}
+ * - /topic/tracking/route/{routeNumber} (liste des bus modifiés de la ligne)
+ * - /user/queue/tracking/area pour chaque session abonnée à une zone,
+ *   au plus une fois par minIntervalMs de la session
+ *
+ * Rien n'est sérialisé pour une destination sans abonné.
+ */
+@Service
+public class LivePositionBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(LivePositionBroadcaster.class);
+
+    public static final String BUS_TOPIC = "/topic/tracking/bus/";
+    public static final String ROUTE_TOPIC = "/topic/tracking/route/";
+    public static final String AREA_QUEUE = "/queue/tracking/area";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final LiveFleetState fleetState;
+    private final long defaultAreaIntervalMs;
+
+    // Bus modifiés depuis le dernier envoi
+    private final Set<String> dirtyBusIds = ConcurrentHashMap.newKeySet();
+
+    // destination -> nombre d'abonnements
+    private final ConcurrentHashMap<String, Integer> subscriptionCounts = new ConcurrentHashMap<>();
+
+    // session -> (subscriptionId -> destination)
+    private final ConcurrentHashMap<String, Map<String, String>> sessionSubscriptions = new ConcurrentHashMap<>();
+
+    // session -> zone suivie
+    private final ConcurrentHashMap<String, AreaSubscription> areaSubscriptions = new ConcurrentHashMap<>();
+
+    public LivePositionBroadcaster(SimpMessagingTemplate messagingTemplate,
+                                   LiveFleetState fleetState,
+                                   @Value("${tracking.live.area-min-interval-ms:2000}") long defaultAreaIntervalMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.fleetState = fleetState;
+        this.defaultAreaIntervalMs = defaultAreaIntervalMs;
+    }
+
+    /**
+     * Signaler une nouvelle position (appelé à chaque ping, O(1))
+     */
+    public void positionChanged(String busId) {
+        if (!subscriptionCounts.isEmpty() || !areaSubscriptions.isEmpty()) {
+            dirtyBusIds.add(busId);
+        }
+    }
+
+    /**
+     * Suivre une zone pour une session
+     * Les bus déjà présents dans la zone sont envoyés au prochain cycle.
+     */
+    public void subscribeArea(String sessionId, AreaSubscriptionRequest request) {
+        GeoMath.BoundingBox box = new GeoMath.BoundingBox(
+                request.getMinLatitude(), request.getMaxLatitude(),
+                request.getMinLongitude(), request.getMaxLongitude());
+        long interval = request.getMinIntervalMs() != null ? request.getMinIntervalMs() : defaultAreaIntervalMs;
+
+        AreaSubscription subscription = new AreaSubscription(box, interval);
+        for (BusLocation location : fleetState.all()) {
+            if (isInside(box, location)) {
+                subscription.pending.add(location.getBusId());
+            }
+        }
+        areaSubscriptions.put(sessionId, subscription);
+        logger.info("Session {} follows area [{}, {}] x [{}, {}]", sessionId,
+                request.getMinLatitude(), request.getMaxLatitude(),
+                request.getMinLongitude(), request.getMaxLongitude());
+    }
+
+    public void unsubscribeArea(String sessionId) {
+        areaSubscriptions.remove(sessionId);
+    }
+
+    /**
+     * Envoyer les positions modifiées
+     */
+    @Scheduled(fixedDelayString = "${tracking.live.push-interval-ms:1000}")
+    public void flush() {
+        if (dirtyBusIds.isEmpty() && areaSubscriptions.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<LocationResponse>> byRoute = new HashMap<>();
+        Iterator<String> iterator = dirtyBusIds.iterator();
+        while (iterator.hasNext()) {
+            String busId = iterator.next();
+            iterator.remove();
+
+            BusLocation location = fleetState.find(busId).orElse(null);
+            if (location == null) {
+                continue;
+            }
+
+            String busTopic = BUS_TOPIC + busId;
+            String routeTopic = location.getRouteNumber() != null ? ROUTE_TOPIC + location.getRouteNumber() : null;
+            boolean toBus = subscriptionCounts.containsKey(busTopic);
+            boolean toRoute = routeTopic != null && subscriptionCounts.containsKey(routeTopic);
+
+            if (toBus || toRoute) {
+                LocationResponse response = LocationResponse.fromDomain(location);
+                if (toBus) {
+                    messagingTemplate.convertAndSend(busTopic, response);
+                }
+                if (toRoute) {
+                    byRoute.computeIfAbsent(routeTopic, t -> new ArrayList<>()).add(response);
+                }
+            }
+
+            for (AreaSubscription subscription : areaSubscriptions.values()) {
+                if (isInside(subscription.box, location)) {
+                    subscription.pending.add(busId);
+                }
+            }
+        }
+
+        byRoute.forEach(messagingTemplate::convertAndSend);
+
+        long now = System.currentTimeMillis();
+        areaSubscriptions.forEach((sessionId, subscription) -> {
+            if (subscription.pending.isEmpty() || now - subscription.lastSentAt < subscription.minIntervalMs) {
+                return;
+            }
+            List<LocationResponse> positions = new ArrayList<>(subscription.pending.size());
+            for (String busId : subscription.pending) {
+                fleetState.find(busId)
+                        .filter(location -> isInside(subscription.box, location))
+                        .map(LocationResponse::fromDomain)
+                        .ifPresent(positions::add);
+            }
+            subscription.pending.clear();
+            subscription.lastSentAt = now;
+            if (!positions.isEmpty()) {
+                sendToSession(sessionId, positions);
+            }
+        });
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        if (destination == null || accessor.getSessionId() == null
+                || !(destination.startsWith(BUS_TOPIC) || destination.startsWith(ROUTE_TOPIC))) {
+            return;
+        }
+        sessionSubscriptions.computeIfAbsent(accessor.getSessionId(), s -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), destination);
+        subscriptionCounts.merge(destination, 1, Integer::sum);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = sessionSubscriptions.get(accessor.getSessionId());
+        if (subscriptions != null && accessor.getSubscriptionId() != null) {
+            String destination = subscriptions.remove(accessor.getSubscriptionId());
+            if (destination != null) {
+                decrement(destination);
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        areaSubscriptions.remove(event.getSessionId());
+        Map<String, String> subscriptions = sessionSubscriptions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::decrement);
+        }
+    }
+
+    private void decrement(String destination) {
+        subscriptionCounts.computeIfPresent(destination, (d, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void sendToSession(String sessionId, List<LocationResponse> positions) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(sessionId, AREA_QUEUE, positions, headers.getMessageHeaders());
+    }
+
+    private static boolean isInside(GeoMath.BoundingBox box, BusLocation location) {
+        return location.getLatitude() != null && location.getLongitude() != null
+                && box.contains(location.getLatitude(), location.getLongitude());
+    }
+
+    /**
+     * Zone suivie par une session
+     * pending et lastSentAt ne sont modifiés que par le thread de flush.
+     */
+    private static class AreaSubscription {
+        private final GeoMath.BoundingBox box;
+        private final long minIntervalMs;
+        private final Set<String> pending = new HashSet<>();
+        private long lastSentAt;
+
+        AreaSubscription(GeoMath.BoundingBox box, long minIntervalMs) {
+            this.box = box;
+            this.minIntervalMs = minIntervalMs;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.transport.tracking.service;
+
+import com.transport.tracking.client.SchedulingClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Préchauffage du cache de géocodage inversé avec les arrêts des lignes
+ *
+ * Désactivé par défaut (tracking.geocoding.reverse.prewarm.enabled).
+ * Tourne dans un thread à part pour ne pas retarder le démarrage ; les
+ * appels sont espacés de delay-ms (Nominatim limite à 1 requête/seconde).
+ */
+@Component
+public class ReverseGeocodingPrewarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReverseGeocodingPrewarmer.class);
+
+    private final SchedulingClient schedulingClient;
+    private final GeocodingService geocodingService;
+    private final boolean enabled;
+    private final String provider;
+    private final long delayMs;
+
+    public ReverseGeocodingPrewarmer(
+            SchedulingClient schedulingClient,
+            GeocodingService geocodingService,
+            @Value("${tracking.geocoding.reverse.prewarm.enabled:false}") boolean enabled,
+            @Value("${tracking.geocoding.reverse.prewarm.provider:osm}") String provider,
+            @Value("${tracking.geocoding.reverse.prewarm.delay-ms:1100}") long delayMs) {
+        this.schedulingClient = schedulingClient;
+        this.geocodingService = geocodingService;
+        this.enabled = enabled;
+        this.provider = provider;
+        this.delayMs = delayMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::prewarm, "reverse-geocoding-prewarm");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void prewarm() {
+        try {
+            int stops = 0;
+            for (SchedulingClient.Route route : schedulingClient.getRoutes()) {
+                if (route.getStops() == null) {
+                    continue;
+                }
+                for (SchedulingClient.Stop stop : route.getStops()) {
+                    if (stop.getLatitude() == null || stop.getLongitude() == null) {
+                        continue;
+                    }
+                    if ("google".equalsIgnoreCase(provider)) {
+                        geocodingService.reverseGeocodeWithGoogleMaps(stop.getLatitude(), stop.getLongitude());
+                    } else {
+                        geocodingService.reverseGeocodeWithOpenStreetMap(stop.getLatitude(), stop.getLongitude());
+                    }
+                    stops++;
+                    Thread.sleep(delayMs);
+                }
+            }
+            logger.info("Reverse geocoding cache prewarmed with {} stops", stops);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("Could not prewarm reverse geocoding cache: {}", e.getMessage());
+        }
+    }
+}
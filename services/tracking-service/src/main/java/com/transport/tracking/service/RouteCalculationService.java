@@ -1,140 +1,194 @@
 package com.transport.tracking.service;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.maps.DirectionsApi;
+import com.google.maps.DirectionsApiRequest;
 import com.google.maps.GeoApiContext;
+import com.google.maps.PendingResult;
 import com.google.maps.model.*;
+import com.transport.tracking.cache.RouteCache;
+import com.transport.tracking.geo.GeoMath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
-import java.util.ArrayList;
+import java.time.Duration;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Service de calcul d'itinéraires
  * Utilise Google Maps Directions API et OpenStreetMap
+ * Non bloquant : les résultats sont des Mono
  */
 @Service
 public class RouteCalculationService {
 
     private static final Logger logger = LoggerFactory.getLogger(RouteCalculationService.class);
 
-    private final GeoApiContext geoApiContext;
-    private final WebClient openStreetMapClient;
+    public static final String STRAIGHT_LINE = "STRAIGHT_LINE";
 
-    public RouteCalculationService(GeoApiContext geoApiContext, WebClient openStreetMapClient) {
+    private final GeoApiContext geoApiContext;
+    private final WebClient osrmClient;
+    private final RouteCache routeCache;
+    private final Duration googleTimeout;
+    private final Duration osrmTimeout;
+    private final Duration hedgeDelay;
+
+    public RouteCalculationService(GeoApiContext geoApiContext,
+                                   WebClient osrmClient,
+                                   RouteCache routeCache,
+                                   @Value("${tracking.routing.google.timeout-ms:2000}") long googleTimeoutMs,
+                                   @Value("${tracking.routing.osrm.timeout-ms:2000}") long osrmTimeoutMs,
+                                   @Value("${tracking.routing.hedge-delay-ms:300}") long hedgeDelayMs) {
         this.geoApiContext = geoApiContext;
-        this.openStreetMapClient = openStreetMapClient;
+        this.osrmClient = osrmClient;
+        this.routeCache = routeCache;
+        this.googleTimeout = Duration.ofMillis(googleTimeoutMs);
+        this.osrmTimeout = Duration.ofMillis(osrmTimeoutMs);
+        this.hedgeDelay = Duration.ofMillis(hedgeDelayMs);
     }
 
     /**
-     * Calculer l'itinéraire avec Google Maps
+     * Calculer un itinéraire sans bloquer
+     *
+     * - provider "google" : Google Maps, avec une requête OSRM de couverture
+     *   lancée si Google n'a pas répondu après hedgeDelay (ou a échoué) ;
+     *   la première réponse valide l'emporte
+     * - sinon : OSRM seul
+     * Si aucun fournisseur ne répond à temps : estimation en ligne droite.
+     *
+     * Les itinéraires sont mis en cache (voir RouteCache), sauf l'estimation
+     * en ligne droite qui ne coûte aucun appel.
      */
-    public RouteInfo calculateRouteWithGoogleMaps(
-            double originLat, double originLng,
-            double destLat, double destLng) {
-        try {
-            logger.info("Calculating route with Google Maps: ({},{}) -> ({},{})",
-                    originLat, originLng, destLat, destLng);
-
-            DirectionsResult result = DirectionsApi.newRequest(geoApiContext)
-                    .mode(TravelMode.DRIVING)
-                    .origin(new LatLng(originLat, originLng))
-                    .destination(new LatLng(destLat, destLng))
-                    .await();
-
-            if (result.routes != null && result.routes.length > 0) {
-                DirectionsRoute route = result.routes[0];
-                DirectionsLeg leg = route.legs[0];
-
-                long distanceMeters = leg.distance.inMeters;
-                long durationSeconds = leg.duration.inSeconds;
+    public Mono<RouteInfo> calculateRoute(double originLat, double originLng,
+                                          double destLat, double destLng,
+                                          String provider) {
+        String cacheKey = routeCache.key(provider, originLat, originLng, destLat, destLng);
+        RouteInfo cached = routeCache.get(cacheKey);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
 
-                // Extraire les coordonnées du trajet
-                List<Coordinate> path = extractPathFromRoute(route);
+        return calculateUncached(originLat, originLng, destLat, destLng, provider)
+                .doOnNext(route -> {
+                    if (!STRAIGHT_LINE.equals(route.getProvider())) {
+                        routeCache.put(cacheKey, route);
+                    }
+                });
+    }
 
-                RouteInfo routeInfo = new RouteInfo(
-                        distanceMeters / 1000.0,  // km
-                        durationSeconds / 60.0,    // minutes
-                        path,
-                        "GOOGLE_MAPS"
-                );
+    private Mono<RouteInfo> calculateUncached(double originLat, double originLng,
+                                              double destLat, double destLng,
+                                              String provider) {
+        Mono<RouteInfo> osrm = routeWithOpenStreetMap(originLat, originLng, destLat, destLng).cache();
+        Mono<RouteInfo> route;
+
+        if ("google".equalsIgnoreCase(provider)) {
+            Mono<RouteInfo> google = routeWithGoogleMaps(originLat, originLng, destLat, destLng)
+                    .onErrorResume(e -> osrm);
+            Mono<RouteInfo> hedge = Mono.delay(hedgeDelay).then(osrm);
+            route = Mono.firstWithValue(google, hedge);
+        } else {
+            route = osrm;
+        }
 
-                logger.info("Route calculated: {} km, {} minutes",
-                        routeInfo.getDistanceKm(), routeInfo.getDurationMinutes());
+        return route.onErrorResume(e -> {
+            logger.warn("No routing provider answered, using straight line: {}", e.getMessage());
+            return Mono.just(calculateStraightLineRoute(originLat, originLng, destLat, destLng));
+        });
+    }
 
-                return routeInfo;
-            }
+    /**
+     * Calculer l'itinéraire avec Google Maps (appel asynchrone du SDK)
+     */
+    private Mono<RouteInfo> routeWithGoogleMaps(double originLat, double originLng,
+                                                double destLat, double destLng) {
+        return Mono.<DirectionsResult>create(sink -> {
+                    logger.info("Calculating route with Google Maps: ({},{}) -> ({},{})",
+                            originLat, originLng, destLat, destLng);
+
+                    DirectionsApiRequest request = DirectionsApi.newRequest(geoApiContext)
+                            .mode(TravelMode.DRIVING)
+                            .origin(new LatLng(originLat, originLng))
+                            .destination(new LatLng(destLat, destLng));
+                    sink.onCancel(request::cancel);
+                    request.setCallback(new PendingResult.Callback<>() {
+                        @Override
+                        public void onResult(DirectionsResult result) {
+                            sink.success(result);
+                        }
+
+                        @Override
+                        public void onFailure(Throwable e) {
+                            sink.error(e);
+                        }
+                    });
+                })
+                .timeout(googleTimeout)
+                .map(result -> {
+                    if (result.routes == null || result.routes.length == 0) {
+                        throw new IllegalArgumentException("Route not found");
+                    }
+                    DirectionsRoute route = result.routes[0];
+                    DirectionsLeg leg = route.legs[0];
 
-            throw new IllegalArgumentException("Route not found");
+                    RouteInfo routeInfo = new RouteInfo(
+                            leg.distance.inMeters / 1000.0,  // km
+                            leg.duration.inSeconds / 60.0,    // minutes
+                            extractPathFromRoute(route),
+                            "GOOGLE_MAPS"
+                    );
 
-        } catch (Exception e) {
-            logger.error("Error calculating route with Google Maps: {}", e.getMessage());
-            return calculateRouteWithOpenStreetMap(originLat, originLng, destLat, destLng);
-        }
+                    logger.info("Route calculated: {} km, {} minutes",
+                            routeInfo.getDistanceKm(), routeInfo.getDurationMinutes());
+                    return routeInfo;
+                })
+                .doOnError(e -> logger.error("Error calculating route with Google Maps: {}", e.getMessage()));
     }
 
     /**
      * Calculer l'itinéraire avec OpenStreetMap (OSRM)
      */
-    public RouteInfo calculateRouteWithOpenStreetMap(
-            double originLat, double originLng,
-            double destLat, double destLng) {
-        try {
-            logger.info("Calculating route with OSRM: ({},{}) -> ({},{})",
-                    originLat, originLng, destLat, destLng);
-
-            // Utiliser OSRM (OpenStreetMap Routing Machine)
-            String osrmUrl = "https://router.project-osrm.org";
-
-            WebClient osrmClient = WebClient.builder().baseUrl(osrmUrl).build();
-
-            Mono<Map> response = osrmClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/route/v1/driving/{coords}")
-                            .queryParam("overview", "full")
-                            .queryParam("geometries", "geojson")
-                            .build(originLng + "," + originLat + ";" + destLng + "," + destLat))
-                    .retrieve()
-                    .bodyToMono(Map.class);
-
-            Map result = response.block();
-
-            if (result != null && result.containsKey("routes")) {
-                List<Map> routes = (List<Map>) result.get("routes");
-                if (!routes.isEmpty()) {
+    private Mono<RouteInfo> routeWithOpenStreetMap(double originLat, double originLng,
+                                                   double destLat, double destLng) {
+        return osrmClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/route/v1/driving/{coords}")
+                        .queryParam("overview", "full")
+                        .queryParam("geometries", "geojson")
+                        .build(originLng + "," + originLat + ";" + destLng + "," + destLat))
+                .retrieve()
+                .bodyToMono(Map.class)
+                .doOnSubscribe(subscription -> logger.info("Calculating route with OSRM: ({},{}) -> ({},{})",
+                        originLat, originLng, destLat, destLng))
+                .timeout(osrmTimeout)
+                .map(result -> {
+                    List<Map> routes = (List<Map>) result.get("routes");
+                    if (routes == null || routes.isEmpty()) {
+                        throw new IllegalArgumentException("Route not found");
+                    }
                     Map route = routes.get(0);
 
                     double distanceMeters = ((Number) route.get("distance")).doubleValue();
                     double durationSeconds = ((Number) route.get("duration")).doubleValue();
 
-                    // Extraire le chemin
-                    List<Coordinate> path = extractPathFromOSRM(route);
-
                     RouteInfo routeInfo = new RouteInfo(
                             distanceMeters / 1000.0,  // km
                             durationSeconds / 60.0,    // minutes
-                            path,
+                            extractPathFromOSRM(route),
                             "OPENSTREETMAP"
                     );
 
                     logger.info("Route calculated: {} km, {} minutes",
                             routeInfo.getDistanceKm(), routeInfo.getDurationMinutes());
-
                     return routeInfo;
-                }
-            }
-
-            // Fallback: calcul simple en ligne droite
-            return calculateStraightLineRoute(originLat, originLng, destLat, destLng);
-
-        } catch (Exception e) {
-            logger.error("Error calculating route with OSRM: {}", e.getMessage());
-            return calculateStraightLineRoute(originLat, originLng, destLat, destLng);
-        }
+                })
+                .doOnError(e -> logger.error("Error calculating route with OSRM: {}", e.getMessage()));
     }
 
     /**
@@ -144,44 +198,30 @@ public class RouteCalculationService {
             double originLat, double originLng,
             double destLat, double destLng) {
 
-        double distance = calculateHaversineDistance(originLat, originLng, destLat, destLng);
+        double distance = GeoMath.haversineKm(originLat, originLng, destLat, destLng);
         double duration = distance / 50.0 * 60; // Estimation: 50 km/h
 
-        List<Coordinate> path = new ArrayList<>();
-        path.add(new Coordinate(originLat, originLng));
-        path.add(new Coordinate(destLat, destLng));
-
-        return new RouteInfo(distance, duration, path, "STRAIGHT_LINE");
-    }
-
-    /**
-     * Calculer la distance Haversine entre deux points
-     */
-    private double calculateHaversineDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Rayon de la Terre en km
-
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        double[] path = {originLat, originLng, destLat, destLng};
 
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return R * c;
+        return new RouteInfo(distance, duration, path, STRAIGHT_LINE);
     }
 
     /**
-     * Extraire le chemin depuis Google Maps route
+     * Extraire le chemin depuis Google Maps route (lat, lng à la suite)
      */
-    private List<Coordinate> extractPathFromRoute(DirectionsRoute route) {
-        List<Coordinate> path = new ArrayList<>();
+    private double[] extractPathFromRoute(DirectionsRoute route) {
+        int points = 0;
+        for (DirectionsLeg leg : route.legs) {
+            points += leg.steps.length;
+        }
 
+        double[] path = new double[points * 2];
+        int i = 0;
         for (DirectionsLeg leg : route.legs) {
             for (DirectionsStep step : leg.steps) {
                 LatLng start = step.startLocation;
-                path.add(new Coordinate(start.lat, start.lng));
+                path[i++] = start.lat;
+                path[i++] = start.lng;
             }
         }
 
@@ -189,59 +229,61 @@ public class RouteCalculationService {
     }
 
     /**
-     * Extraire le chemin depuis OSRM
+     * Extraire le chemin depuis OSRM (lat, lng à la suite)
      */
-    private List<Coordinate> extractPathFromOSRM(Map route) {
-        List<Coordinate> path = new ArrayList<>();
-
+    private double[] extractPathFromOSRM(Map route) {
         try {
             Map geometry = (Map) route.get("geometry");
             if (geometry != null && geometry.containsKey("coordinates")) {
                 List<List<Number>> coordinates = (List<List<Number>>) geometry.get("coordinates");
 
+                double[] path = new double[coordinates.size() * 2];
+                int i = 0;
                 for (List<Number> coord : coordinates) {
-                    double lng = coord.get(0).doubleValue();
-                    double lat = coord.get(1).doubleValue();
-                    path.add(new Coordinate(lat, lng));
+                    path[i++] = coord.get(1).doubleValue();  // lat
+                    path[i++] = coord.get(0).doubleValue();  // lng
                 }
+                return path;
             }
         } catch (Exception e) {
             logger.error("Error extracting path from OSRM: {}", e.getMessage());
         }
 
-        return path;
+        return new double[0];
     }
 
     /**
-     * Calculer le temps d'arrivée estimé (ETA)
+     * Calculer le temps d'arrivée estimé (ETA) en minutes
      */
-    public int calculateETA(double currentLat, double currentLng,
-                            double destLat, double destLng,
-                            double currentSpeedKmh) {
-
-        RouteInfo route = calculateRouteWithOpenStreetMap(currentLat, currentLng, destLat, destLng);
-
-        if (currentSpeedKmh > 0) {
-            // Utiliser la vitesse actuelle
-            double timeHours = route.getDistanceKm() / currentSpeedKmh;
-            return (int) (timeHours * 60); // Convertir en minutes
-        } else {
-            // Utiliser le temps calculé par l'API
-            return (int) route.getDurationMinutes();
-        }
+    public Mono<Integer> calculateETA(double currentLat, double currentLng,
+                                      double destLat, double destLng,
+                                      double currentSpeedKmh) {
+
+        return calculateRoute(currentLat, currentLng, destLat, destLng, "osm")
+                .map(route -> {
+                    if (currentSpeedKmh > 0) {
+                        // Utiliser la vitesse actuelle
+                        double timeHours = route.getDistanceKm() / currentSpeedKmh;
+                        return (int) (timeHours * 60); // Convertir en minutes
+                    }
+                    // Utiliser le temps calculé par l'API
+                    return (int) route.getDurationMinutes();
+                });
     }
 
     /**
      * Classe interne pour les informations de route
+     * Le chemin est stocké à plat (lat0, lng0, lat1, lng1, ...) ;
+     * getPath() en donne une vue List<Coordinate> pour la sérialisation JSON.
      */
     public static class RouteInfo {
         private double distanceKm;
         private double durationMinutes;
-        private List<Coordinate> path;
+        private double[] path;
         private String provider;
 
         public RouteInfo(double distanceKm, double durationMinutes,
-                         List<Coordinate> path, String provider) {
+                         double[] path, String provider) {
             this.distanceKm = distanceKm;
             this.durationMinutes = durationMinutes;
             this.path = path;
@@ -251,8 +293,24 @@ public class RouteCalculationService {
         // Getters
         public double getDistanceKm() { return distanceKm; }
         public double getDurationMinutes() { return durationMinutes; }
-        public List<Coordinate> getPath() { return path; }
         public String getProvider() { return provider; }
+
+        public List<Coordinate> getPath() {
+            return new AbstractList<>() {
+                @Override
+                public Coordinate get(int index) {
+                    return new Coordinate(path[index * 2], path[index * 2 + 1]);
+                }
+
+                @Override
+                public int size() {
+                    return path.length / 2;
+                }
+            };
+        }
+
+        @JsonIgnore
+        public double[] getPackedPath() { return path; }
     }
 
     /**
@@ -1,17 +1,41 @@
 package com.transport.tracking.service;
 
+import com.transport.tracking.cache.BusMetadata;
+import com.transport.tracking.cache.BusMetadataCache;
+import com.transport.tracking.dto.BatchLocationResponse;
+import com.transport.tracking.dto.LocationPoint;
 import com.transport.tracking.dto.LocationResponse;
 import com.transport.tracking.dto.UpdateLocationRequest;
-import com.transport.tracking.model.Bus;
+import com.transport.tracking.eta.DelayDetector;
+import com.transport.tracking.geo.GeoDistanceKernel;
+import com.transport.tracking.geo.GeoMath;
+import com.transport.tracking.geo.GeoPoints;
+import com.transport.tracking.geo.TrajectorySampler;
+import com.transport.tracking.ingest.LocationWriteBehindQueue;
+import com.transport.tracking.ingest.PingSuppressor;
 import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.network.RouteProgressTracker;
 import com.transport.tracking.repository.BusLocationRepository;
 import com.transport.tracking.repository.BusRepository;
+import com.transport.tracking.state.LiveFleetState;
+import com.transport.tracking.storage.LocationHistoryReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,11 +45,44 @@ public class TrackingService {
 
     private final BusLocationRepository locationRepository;
     private final BusRepository busRepository;
+    private final BusMetadataCache busMetadataCache;
+    private final LiveFleetState fleetState;
+    private final Validator validator;
+    private final LocationWriteBehindQueue writeBehindQueue;
+    private final LivePositionBroadcaster broadcaster;
+    private final RouteProgressTracker progressTracker;
+    private final DelayDetector delayDetector;
+    private final PingSuppressor pingSuppressor;
+    private final LocationHistoryReader historyReader;
+    private final Duration maxClockSkew;
+    private final Duration maxPingAge;
 
     public TrackingService(BusLocationRepository locationRepository,
-                           BusRepository busRepository) {
+                           BusRepository busRepository,
+                           BusMetadataCache busMetadataCache,
+                           LiveFleetState fleetState,
+                           Validator validator,
+                           LocationWriteBehindQueue writeBehindQueue,
+                           LivePositionBroadcaster broadcaster,
+                           RouteProgressTracker progressTracker,
+                           DelayDetector delayDetector,
+                           PingSuppressor pingSuppressor,
+                           LocationHistoryReader historyReader,
+                           @Value("${tracking.ingest.max-clock-skew-seconds:30}") long maxClockSkewSeconds,
+                           @Value("${tracking.ingest.max-ping-age-minutes:30}") long maxPingAgeMinutes) {
         this.locationRepository = locationRepository;
         this.busRepository = busRepository;
+        this.busMetadataCache = busMetadataCache;
+        this.fleetState = fleetState;
+        this.validator = validator;
+        this.writeBehindQueue = writeBehindQueue;
+        this.broadcaster = broadcaster;
+        this.progressTracker = progressTracker;
+        this.delayDetector = delayDetector;
+        this.pingSuppressor = pingSuppressor;
+        this.historyReader = historyReader;
+        this.maxClockSkew = Duration.ofSeconds(maxClockSkewSeconds);
+        this.maxPingAge = Duration.ofMinutes(maxPingAgeMinutes);
     }
 
     /**
@@ -34,11 +91,149 @@ public class TrackingService {
     public LocationResponse updateLocation(UpdateLocationRequest request) {
         logger.info("Updating location for bus: {}", request.getBusId());
 
-        // Vérifier que le bus existe
-        Bus bus = busRepository.findById(request.getBusId())
+        // Vérifier que le bus existe (cache des métadonnées)
+        BusMetadata bus = busMetadataCache.find(request.getBusId())
                 .orElseThrow(() -> new IllegalArgumentException("Bus not found: " + request.getBusId()));
 
         // Créer une nouvelle position
+        BusLocation location = toLocation(request, bus);
+
+        // Position redondante (bus immobile) : état temps réel seulement
+        if (!pingSuppressor.admit(location)) {
+            fleetState.update(location);
+            delayDetector.onLocation(location);
+            logger.debug("Location for bus {} unchanged, not persisted", request.getBusId());
+            return LocationResponse.fromDomain(location);
+        }
+
+        // Sauvegarder la position : écriture différée si activée, sinon synchrone
+        // (la file enregistre elle-même la référence une fois le lot écrit)
+        BusLocation savedLocation;
+        if (writeBehindQueue.isEnabled()) {
+            writeBehindQueue.submit(location);
+            savedLocation = location;
+        } else {
+            savedLocation = locationRepository.save(location);
+            pingSuppressor.commit(savedLocation);
+        }
+
+        // Mettre à jour le nombre de passagers si fourni
+        // (en écriture différée, fait par la file après l'écriture du lot)
+        if (request.getCurrentPassengers() != null && !writeBehindQueue.isEnabled()) {
+            busRepository.updatePassengerCounts(Map.of(bus.getId(), request.getCurrentPassengers()));
+        }
+        fleetState.update(savedLocation);
+        broadcaster.positionChanged(savedLocation.getBusId());
+        delayDetector.onLocation(savedLocation);
+        logger.info("Location updated for bus {}: ({}, {})",
+                request.getBusId(), request.getLatitude(), request.getLongitude());
+
+        return LocationResponse.fromDomain(savedLocation);
+    }
+
+    /**
+     * Mettre à jour les positions de plusieurs bus en une seule fois
+     *
+     * - validation de toutes les positions avant écriture
+     * - métadonnées des bus lues depuis le cache (une lecture pour les absents)
+     * - une seule écriture groupée non ordonnée des positions
+     *   (hors positions redondantes, voir PingSuppressor)
+     * Les positions invalides sont rejetées individuellement.
+     */
+    public BatchLocationResponse updateLocations(List<UpdateLocationRequest> requests) {
+        logger.info("Updating {} locations in batch", requests.size());
+
+        BatchLocationResponse response = new BatchLocationResponse();
+
+        // 1. Validation
+        Map<Integer, UpdateLocationRequest> valid = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            UpdateLocationRequest request = requests.get(i);
+            if (request == null) {
+                response.addRejected(i, null, "Location is required");
+                continue;
+            }
+            Set<ConstraintViolation<UpdateLocationRequest>> violations = validator.validate(request);
+            if (violations.isEmpty()) {
+                valid.put(i, request);
+            } else {
+                response.addRejected(i, request.getBusId(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            }
+        }
+
+        // 2. Métadonnées des bus concernés
+        Set<String> busIds = valid.values().stream()
+                .map(UpdateLocationRequest::getBusId)
+                .collect(Collectors.toSet());
+        Map<String, BusMetadata> buses = busMetadataCache.findAll(busIds);
+
+        // 3. Construction des positions
+        List<Integer> indexes = new ArrayList<>();
+        List<BusLocation> locations = new ArrayList<>();
+
+        for (Map.Entry<Integer, UpdateLocationRequest> entry : valid.entrySet()) {
+            UpdateLocationRequest request = entry.getValue();
+            BusMetadata bus = buses.get(request.getBusId());
+            if (bus == null) {
+                response.addRejected(entry.getKey(), request.getBusId(), "Bus not found: " + request.getBusId());
+                continue;
+            }
+            try {
+                BusLocation location = toLocation(request, bus);
+                if (!pingSuppressor.admit(location)) {
+                    fleetState.update(location);
+                    delayDetector.onLocation(location);
+                    response.addAccepted(entry.getKey(), location.getBusId(), location.getId());
+                    continue;
+                }
+                locations.add(location);
+                indexes.add(entry.getKey());
+            } catch (IllegalArgumentException e) {
+                response.addRejected(entry.getKey(), request.getBusId(), e.getMessage());
+            }
+        }
+
+        // 4. Écritures groupées ; passagers mis à jour pour les positions écrites seulement
+        Map<Integer, String> failures = locationRepository.insertUnordered(locations);
+        Map<String, Integer> passengersByBus = new HashMap<>();
+
+        for (int i = 0; i < locations.size(); i++) {
+            BusLocation location = locations.get(i);
+            String failure = failures.get(i);
+            if (failure == null) {
+                if (location.getCurrentPassengers() != null) {
+                    passengersByBus.put(location.getBusId(), location.getCurrentPassengers());
+                }
+                pingSuppressor.commit(location);
+                fleetState.update(location);
+                broadcaster.positionChanged(location.getBusId());
+                delayDetector.onLocation(location);
+                response.addAccepted(indexes.get(i), location.getBusId(), location.getId());
+            } else {
+                response.addRejected(indexes.get(i), location.getBusId(), failure);
+            }
+        }
+        busRepository.updatePassengerCounts(passengersByBus);
+
+        response.getResults().sort(Comparator.comparingInt(BatchLocationResponse.ItemResult::getIndex));
+        logger.info("Batch processed: {} accepted, {} rejected", response.getAccepted(), response.getRejected());
+        return response;
+    }
+
+    /**
+     * Construire une BusLocation à partir d'une position reçue
+     * Vérifie l'heure du fix et le nombre de passagers s'ils sont fournis,
+     * puis renseigne l'arrêt le plus proche et la distance au prochain arrêt.
+     *
+     * Heure du fix acceptée dans [now - max-ping-age, now + max-clock-skew] :
+     * une position datée du futur bloquerait les suivantes (plus anciennes),
+     * une position trop ancienne tomberait dans un jour déjà archivé
+     * (max-ping-age ne doit pas dépasser tracking.retention.grace-minutes).
+     */
+    private BusLocation toLocation(UpdateLocationRequest request, BusMetadata bus) {
         BusLocation location = new BusLocation();
         location.setBusId(request.getBusId());
         location.setBusNumber(bus.getBusNumber());
@@ -49,23 +244,30 @@ public class TrackingService {
         location.setSpeed(request.getSpeed());
         location.setHeading(request.getHeading());
         location.setAccuracy(request.getAccuracy());
-        location.setTimestamp(LocalDateTime.now());
+        location.setTimestamp(checkTimestamp(request.getTimestamp()));
 
-        // Mettre à jour le nombre de passagers si fourni
         if (request.getCurrentPassengers() != null) {
-            bus.updatePassengerCount(request.getCurrentPassengers());
-            busRepository.save(bus);
+            bus.checkPassengerCount(request.getCurrentPassengers());
 
             location.setCurrentPassengers(request.getCurrentPassengers());
-            location.setOccupancyRate(bus.getOccupancyRate());
+            location.setOccupancyRate(bus.occupancyRate(request.getCurrentPassengers()));
         }
+        progressTracker.enrich(location);
+        return location;
+    }
 
-        // Sauvegarder la position
-        BusLocation savedLocation = locationRepository.save(location);
-        logger.info("Location updated for bus {}: ({}, {})",
-                request.getBusId(), request.getLatitude(), request.getLongitude());
-
-        return LocationResponse.fromDomain(savedLocation);
+    private LocalDateTime checkTimestamp(LocalDateTime timestamp) {
+        LocalDateTime now = LocalDateTime.now();
+        if (timestamp == null) {
+            return now;
+        }
+        if (timestamp.isAfter(now.plus(maxClockSkew))) {
+            throw new IllegalArgumentException("Timestamp is in the future: " + timestamp);
+        }
+        if (timestamp.isBefore(now.minus(maxPingAge))) {
+            throw new IllegalArgumentException("Timestamp is too old: " + timestamp);
+        }
+        return timestamp;
     }
 
     /**
@@ -74,7 +276,9 @@ public class TrackingService {
     public LocationResponse getLatestLocation(String busId) {
         logger.info("Fetching latest location for bus: {}", busId);
 
-        BusLocation location = locationRepository.findFirstByBusIdOrderByTimestampDesc(busId)
+        // État temps réel d'abord, MongoDB pour les bus absents depuis le démarrage
+        BusLocation location = fleetState.find(busId)
+                .or(() -> locationRepository.findFirstByBusIdOrderByTimestampDesc(busId))
                 .orElseThrow(() -> new IllegalArgumentException("No location found for bus: " + busId));
 
         return LocationResponse.fromDomain(location);
@@ -94,19 +298,41 @@ public class TrackingService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Parcourir l'historique d'un bus sans le charger en mémoire
+     *
+     * Les points sont lus au fil du curseur MongoDB ou des archives des jours
+     * passés (ordre chronologique, voir LocationHistoryReader), simplifiés
+     * (voir TrajectorySampler) puis transmis un à un au consommateur.
+     *
+     * @return nombre de points transmis
+     */
+    public long streamLocationHistory(String busId, LocalDateTime start, LocalDateTime end,
+                                      long resolutionSeconds, double toleranceMeters,
+                                      Consumer<LocationPoint> consumer) {
+        logger.info("Streaming location history for bus {} from {} to {} (resolution={}s, tolerance={}m)",
+                busId, start, end, resolutionSeconds, toleranceMeters);
+
+        TrajectorySampler sampler = new TrajectorySampler(resolutionSeconds, toleranceMeters, consumer);
+        historyReader.read(busId, start, end, location -> sampler.accept(LocationPoint.fromDomain(location)));
+        sampler.finish();
+        return sampler.getEmitted();
+    }
+
     /**
      * Obtenir les positions de tous les bus d'une ligne
+     * (dernière position de chaque bus vu sur la ligne depuis une heure)
      */
     public List<LocationResponse> getLocationsByRoute(String routeNumber) {
         logger.info("Fetching locations for route: {}", routeNumber);
 
-        List<BusLocation> locations = locationRepository.findByRouteNumberOrderByTimestampDesc(routeNumber);
+        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
+
+        List<BusLocation> locations = fleetState.isComplete()
+                ? fleetState.findByRoute(routeNumber, oneHourAgo)
+                : locationRepository.findLatestPerBus(routeNumber, oneHourAgo);
 
-        // Garder seulement la dernière position de chaque bus
         return locations.stream()
-                .collect(Collectors.groupingBy(BusLocation::getBusId))
-                .values().stream()
-                .map(list -> list.get(0))  // Prendre la plus récente
                 .map(LocationResponse::fromDomain)
                 .collect(Collectors.toList());
     }
@@ -118,13 +344,12 @@ public class TrackingService {
         logger.info("Fetching all recent locations");
 
         LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        List<BusLocation> locations = locationRepository.findByTimestampAfterOrderByTimestampDesc(oneHourAgo);
 
-        // Garder seulement la dernière position de chaque bus
+        List<BusLocation> locations = fleetState.isComplete()
+                ? fleetState.findUpdatedSince(oneHourAgo)
+                : locationRepository.findLatestPerBus(null, oneHourAgo);
+
         return locations.stream()
-                .collect(Collectors.groupingBy(BusLocation::getBusId))
-                .values().stream()
-                .map(list -> list.get(0))
                 .map(LocationResponse::fromDomain)
                 .collect(Collectors.toList());
     }
@@ -133,18 +358,7 @@ public class TrackingService {
      * Calculer la distance entre deux points GPS (formule de Haversine)
      */
     public double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Rayon de la Terre en km
-
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return R * c; // Distance en km
+        return GeoMath.haversineKm(lat1, lon1, lat2, lon2);
     }
 
     /**
@@ -153,26 +367,35 @@ public class TrackingService {
     public List<LocationResponse> findNearbyBuses(double latitude, double longitude, double radiusKm) {
         logger.info("Finding buses near ({}, {}) within {} km", latitude, longitude, radiusKm);
 
-        List<LocationResponse> recentLocations = getRecentLocations();
-
-        return recentLocations.stream()
-                .filter(location -> {
-                    double distance = calculateDistance(
-                            latitude, longitude,
-                            location.getLatitude(), location.getLongitude()
-                    );
-                    return distance <= radiusKm;
-                })
-                .collect(Collectors.toList());
-    }
+        if (fleetState.isComplete()) {
+            LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
+            return fleetState.findNearby(latitude, longitude, radiusKm, oneHourAgo).stream()
+                    .map(LocationResponse::fromDomain)
+                    .collect(Collectors.toList());
+        }
 
-    /**
-     * Nettoyer les anciennes positions (plus de 7 jours)
-     */
-    public void cleanOldLocations() {
-        logger.info("Cleaning old locations");
-        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
-        locationRepository.deleteByTimestampBefore(sevenDaysAgo);
-        logger.info("Old locations cleaned");
+        // Pas d'index spatial : distances en masse sur les dernières positions
+        List<LocationResponse> recent = getRecentLocations();
+        List<LocationResponse> located = new ArrayList<>(recent.size());
+        double[] latitudes = new double[recent.size()];
+        double[] longitudes = new double[recent.size()];
+        for (LocationResponse location : recent) {
+            if (location.getLatitude() != null && location.getLongitude() != null) {
+                latitudes[located.size()] = location.getLatitude();
+                longitudes[located.size()] = location.getLongitude();
+                located.add(location);
+            }
+        }
+        double[] distances = new double[located.size()];
+        GeoDistanceKernel.distancesKm(latitude, longitude,
+                GeoPoints.ofDegrees(latitudes, longitudes, located.size()), distances);
+
+        List<LocationResponse> nearby = new ArrayList<>();
+        for (int i = 0; i < distances.length; i++) {
+            if (distances[i] <= radiusKm) {
+                nearby.add(located.get(i));
+            }
+        }
+        return nearby;
     }
-}
\ No newline at end of file
+}
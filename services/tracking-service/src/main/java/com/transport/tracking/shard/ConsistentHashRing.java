@@ -0,0 +1,89 @@
+package com.transport.tracking.shard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Anneau de hachage cohérent (copie immuable)
+ *
+ * Chaque instance occupe virtualNodes points de l'anneau ; une clé appartient
+ * à l'instance du premier point qui suit son hash. L'ajout ou le retrait
+ * d'une instance ne déplace que les clés de ses propres segments
+ * (environ 1/N des bus), les autres restent sur leur instance.
+ */
+public final class ConsistentHashRing {
+
+    private final long[] points;
+    private final String[] owners;
+    private final Set<String> members;
+
+    private ConsistentHashRing(long[] points, String[] owners, Set<String> members) {
+        this.points = points;
+        this.owners = owners;
+        this.members = members;
+    }
+
+    public static ConsistentHashRing of(Collection<String> instanceIds, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Virtual nodes must be > 0");
+        }
+        Set<String> members = new TreeSet<>(instanceIds);
+        List<long[]> entries = new ArrayList<>(members.size() * virtualNodes);
+        List<String> memberList = new ArrayList<>(members);
+        for (int m = 0; m < memberList.size(); m++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                entries.add(new long[]{hash(memberList.get(m) + "#" + v), m});
+            }
+        }
+        entries.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        long[] points = new long[entries.size()];
+        String[] owners = new String[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            points[i] = entries.get(i)[0];
+            owners[i] = memberList.get((int) entries.get(i)[1]);
+        }
+        return new ConsistentHashRing(points, owners, Set.copyOf(members));
+    }
+
+    /**
+     * Instance propriétaire d'une clé, ou null si l'anneau est vide
+     */
+    public String owner(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public Set<String> getMembers() {
+        return members;
+    }
+
+    public boolean isEmpty() {
+        return points.length == 0;
+    }
+
+    // FNV-1a 64 bits suivi du mélange final de MurmurHash3 (bonne dispersion des busId proches)
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
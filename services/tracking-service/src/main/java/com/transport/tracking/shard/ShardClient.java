@@ -0,0 +1,121 @@
+package com.transport.tracking.shard;
+
+import com.transport.tracking.dto.BatchLocationResponse;
+import com.transport.tracking.dto.EtaResponse;
+import com.transport.tracking.dto.LocationResponse;
+import com.transport.tracking.dto.UpdateLocationRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Client HTTP vers l'instance propriétaire d'un bus
+ *
+ * Appels directs à l'URI de l'instance (pas de load balancer), marqués par
+ * l'en-tête X-Tracking-Forwarded : l'instance appelée les traite localement
+ * sans les retransmettre.
+ *
+ * - connexion impossible (refusée, hôte inconnu) : Optional vide, la requête
+ *   n'a pas atteint le propriétaire et est traitée par l'instance courante
+ * - réponse 4xx du propriétaire (dont 429) : ResponseStatusException avec
+ *   le même statut, renvoyé tel quel au client
+ * - réponse 5xx ou délai dépassé : ResponseStatusException 503, sans
+ *   traitement local (le propriétaire a pu traiter la requête)
+ */
+@Component
+public class ShardClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardClient.class);
+
+    public static final String FORWARDED_HEADER = "X-Tracking-Forwarded";
+
+    private final WebClient webClient;
+    private final Duration timeout;
+
+    public ShardClient(@Value("${tracking.sharding.forward-timeout-ms:2000}") long timeoutMs) {
+        this.webClient = WebClient.builder()
+                .defaultHeader(FORWARDED_HEADER, "true")
+                .build();
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    public Optional<LocationResponse> updateLocation(ServiceInstance owner, UpdateLocationRequest request) {
+        return call(owner, webClient.post()
+                .uri(owner.getUri() + "/api/tracking/location")
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(LocationResponse.class));
+    }
+
+    public Optional<BatchLocationResponse> updateLocations(ServiceInstance owner, List<UpdateLocationRequest> requests) {
+        return call(owner, webClient.post()
+                .uri(owner.getUri() + "/api/tracking/locations/batch")
+                .bodyValue(requests)
+                .retrieve()
+                .bodyToMono(BatchLocationResponse.class));
+    }
+
+    public Optional<LocationResponse> getLatestLocation(ServiceInstance owner, String busId) {
+        return call(owner, webClient.get()
+                .uri(owner.getUri() + "/api/tracking/location/{busId}", busId)
+                .retrieve()
+                .bodyToMono(LocationResponse.class));
+    }
+
+    public Optional<EtaResponse> getEta(ServiceInstance owner, String busId) {
+        return call(owner, webClient.get()
+                .uri(owner.getUri() + "/api/tracking/eta/{busId}", busId)
+                .retrieve()
+                .bodyToMono(EtaResponse.class));
+    }
+
+    private <T> Optional<T> call(ServiceInstance owner, Mono<T> response) {
+        try {
+            return Optional.ofNullable(response.block(timeout));
+        } catch (WebClientResponseException e) {
+            if (e.getStatusCode().is4xxClientError()) {
+                throw new ResponseStatusException(e.getStatusCode(), e.getResponseBodyAsString());
+            }
+            logger.warn("Shard owner {} failed ({})", owner.getInstanceId(), e.getStatusCode());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Shard owner " + owner.getInstanceId() + " failed: " + e.getStatusCode().value());
+        } catch (WebClientRequestException e) {
+            if (isConnectFailure(e)) {
+                logger.warn("Shard owner {} unreachable ({}), handling locally", owner.getInstanceId(), e.getMessage());
+                return Optional.empty();
+            }
+            logger.warn("Shard owner {} request failed: {}", owner.getInstanceId(), e.getMessage());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Shard owner " + owner.getInstanceId() + " unavailable");
+        } catch (IllegalStateException e) {
+            // block(timeout) : délai dépassé, la requête a pu être traitée
+            logger.warn("Shard owner {} timed out after {} ms", owner.getInstanceId(), timeout.toMillis());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Shard owner " + owner.getInstanceId() + " timed out");
+        }
+    }
+
+    // Connexion jamais établie : aucun risque de double traitement
+    static boolean isConnectFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,133 @@
+package com.transport.tracking.shard;
+
+import com.transport.tracking.dto.BatchLocationResponse;
+import com.transport.tracking.dto.EtaResponse;
+import com.transport.tracking.dto.LocationResponse;
+import com.transport.tracking.dto.UpdateLocationRequest;
+import com.transport.tracking.eta.EtaEngine;
+import com.transport.tracking.service.TrackingService;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Aiguillage des opérations par bus vers l'instance propriétaire
+ *
+ * Point d'entrée des contrôleurs et du consumer Kafka : les positions et
+ * lectures d'un bus sont traitées par son propriétaire (ShardRouter), ou
+ * localement si le sharding est désactivé ou le propriétaire injoignable
+ * (voir ShardClient pour les erreurs renvoyées au client).
+ * Un lot est découpé par propriétaire, chaque part envoyée en un appel ;
+ * une part refusée par son propriétaire est rejetée position par position.
+ */
+@Component
+public class ShardDispatcher {
+
+    private final ShardRouter router;
+    private final ShardClient client;
+    private final TrackingService trackingService;
+    private final EtaEngine etaEngine;
+
+    public ShardDispatcher(ShardRouter router, ShardClient client,
+                           TrackingService trackingService, EtaEngine etaEngine) {
+        this.router = router;
+        this.client = client;
+        this.trackingService = trackingService;
+        this.etaEngine = etaEngine;
+    }
+
+    public LocationResponse updateLocation(UpdateLocationRequest request) {
+        return router.remoteOwner(request.getBusId())
+                .flatMap(owner -> client.updateLocation(owner, request))
+                .orElseGet(() -> trackingService.updateLocation(request));
+    }
+
+    public LocationResponse getLatestLocation(String busId) {
+        return router.remoteOwner(busId)
+                .flatMap(owner -> client.getLatestLocation(owner, busId))
+                .orElseGet(() -> trackingService.getLatestLocation(busId));
+    }
+
+    public EtaResponse predictEta(String busId) {
+        return router.remoteOwner(busId)
+                .flatMap(owner -> client.getEta(owner, busId))
+                .orElseGet(() -> etaEngine.predict(busId));
+    }
+
+    /**
+     * Traiter un lot : une part par instance propriétaire, résultats
+     * renvoyés dans l'ordre du lot d'origine
+     */
+    public BatchLocationResponse updateLocations(List<UpdateLocationRequest> requests) {
+        if (!router.isEnabled()) {
+            return trackingService.updateLocations(requests);
+        }
+
+        // Indices du lot par propriétaire (positions locales ou sans busId à part)
+        List<Integer> local = new ArrayList<>();
+        Map<String, List<Integer>> remote = new LinkedHashMap<>();
+        Map<String, ServiceInstance> owners = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            UpdateLocationRequest request = requests.get(i);
+            Optional<ServiceInstance> owner = router.remoteOwner(request != null ? request.getBusId() : null);
+            if (owner.isPresent()) {
+                owners.put(owner.get().getInstanceId(), owner.get());
+                remote.computeIfAbsent(owner.get().getInstanceId(), id -> new ArrayList<>()).add(i);
+            } else {
+                local.add(i);
+            }
+        }
+
+        BatchLocationResponse response = new BatchLocationResponse();
+        for (Map.Entry<String, List<Integer>> part : remote.entrySet()) {
+            Optional<BatchLocationResponse> forwarded;
+            try {
+                forwarded = client.updateLocations(owners.get(part.getKey()), select(requests, part.getValue()));
+            } catch (ResponseStatusException e) {
+                for (int index : part.getValue()) {
+                    response.addRejected(index, requests.get(index).getBusId(),
+                            e.getStatusCode().value() + " " + e.getReason());
+                }
+                continue;
+            }
+            if (forwarded.isPresent()) {
+                merge(response, forwarded.get(), part.getValue());
+            } else {
+                local.addAll(part.getValue());
+            }
+        }
+        if (!local.isEmpty()) {
+            merge(response, trackingService.updateLocations(select(requests, local)), local);
+        }
+
+        response.getResults().sort(Comparator.comparingInt(BatchLocationResponse.ItemResult::getIndex));
+        return response;
+    }
+
+    private static List<UpdateLocationRequest> select(List<UpdateLocationRequest> requests, List<Integer> indexes) {
+        List<UpdateLocationRequest> selected = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            selected.add(requests.get(index));
+        }
+        return selected;
+    }
+
+    // Ramener les indices d'une part aux indices du lot d'origine
+    private static void merge(BatchLocationResponse target, BatchLocationResponse part, List<Integer> indexes) {
+        for (BatchLocationResponse.ItemResult result : part.getResults()) {
+            int index = indexes.get(result.getIndex());
+            if (result.getStatus() == BatchLocationResponse.ItemStatus.ACCEPTED) {
+                target.addAccepted(index, result.getBusId(), result.getLocationId());
+            } else {
+                target.addRejected(index, result.getBusId(), result.getError());
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.transport.tracking.shard;
+
+import com.transport.tracking.eta.DelayDetector;
+import com.transport.tracking.ingest.PingSuppressor;
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.network.RouteProgressTracker;
+import com.transport.tracking.repository.BusLocationRepository;
+import com.transport.tracking.state.LiveFleetState;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Répartition des bus entre les instances de tracking-service
+ *
+ * Chaque bus appartient à une instance (hachage cohérent du busId sur les
+ * instances enregistrées dans Eureka) : seule cette instance reçoit ses
+ * positions et garde son état temps réel (dernière position, avancement,
+ * retards). Les autres lui transmettent les requêtes (voir ShardDispatcher).
+ *
+ * Les instances sont relues toutes les refresh-interval-ms. À chaque relecture,
+ * l'instance oublie les bus qui ne lui appartiennent pas (bus cédés, ou traités
+ * localement pendant une panne de leur propriétaire). Quand l'anneau change,
+ * elle recharge aussi depuis MongoDB la dernière position des bus qu'elle a
+ * reçus (une agrégation).
+ *
+ * Désactivé par défaut (tracking.sharding.enabled) : une instance garde tous les bus.
+ */
+@Component
+public class ShardRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRouter.class);
+
+    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<Registration> registration;
+    private final LiveFleetState fleetState;
+    private final RouteProgressTracker progressTracker;
+    private final DelayDetector delayDetector;
+    private final PingSuppressor pingSuppressor;
+    private final BusLocationRepository locationRepository;
+    private final String serviceId;
+    private final int virtualNodes;
+    private final long rebuildWindowHours;
+
+    private volatile boolean enabled;
+    private volatile String selfId;
+    private volatile ConsistentHashRing ring = ConsistentHashRing.of(List.of(), 1);
+    private volatile Map<String, ServiceInstance> instances = Map.of();
+
+    public ShardRouter(DiscoveryClient discoveryClient,
+                       ObjectProvider<Registration> registration,
+                       LiveFleetState fleetState,
+                       RouteProgressTracker progressTracker,
+                       DelayDetector delayDetector,
+                       PingSuppressor pingSuppressor,
+                       BusLocationRepository locationRepository,
+                       @Value("${tracking.sharding.enabled:false}") boolean enabled,
+                       @Value("${spring.application.name}") String serviceId,
+                       @Value("${tracking.sharding.virtual-nodes:128}") int virtualNodes,
+                       @Value("${tracking.state.rebuild-window-hours:24}") long rebuildWindowHours) {
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+        this.fleetState = fleetState;
+        this.progressTracker = progressTracker;
+        this.delayDetector = delayDetector;
+        this.pingSuppressor = pingSuppressor;
+        this.locationRepository = locationRepository;
+        this.enabled = enabled;
+        this.serviceId = serviceId;
+        this.virtualNodes = virtualNodes;
+        this.rebuildWindowHours = rebuildWindowHours;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        Registration self = registration.getIfAvailable();
+        if (self == null) {
+            logger.warn("Sharding enabled but this instance is not registered in service discovery, sharding disabled");
+            enabled = false;
+            return;
+        }
+        selfId = self.getInstanceId();
+        fleetState.setPartial(true);
+        logger.info("Sharding enabled for {} (instance {}, {} virtual nodes)", serviceId, selfId, virtualNodes);
+    }
+
+    /**
+     * Relire les instances, oublier les bus d'autres instances
+     * et recharger les bus reçus si l'anneau a changé
+     */
+    @Scheduled(initialDelayString = "${tracking.sharding.refresh-initial-delay-ms:15000}",
+            fixedDelayString = "${tracking.sharding.refresh-interval-ms:10000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, ServiceInstance> discovered = new HashMap<>();
+        try {
+            for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+                discovered.put(instance.getInstanceId(), instance);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not list {} instances, keeping current shards: {}", serviceId, e.getMessage());
+            return;
+        }
+        // Toujours se compter (enregistrement Eureka pas encore visible)
+        Set<String> members = new TreeSet<>(discovered.keySet());
+        members.add(selfId);
+        if (members.equals(ring.getMembers())) {
+            instances = discovered;
+            int released = release();
+            if (released > 0) {
+                logger.info("Released {} buses owned by other instances", released);
+            }
+            return;
+        }
+
+        int previousSize = ring.getMembers().size();
+        ring = ConsistentHashRing.of(members, virtualNodes);
+        instances = discovered;
+        logger.info("Shard ring changed: {} -> {} instances", previousSize, members.size());
+        rebalance();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Instance propriétaire d'un bus si ce n'est pas l'instance courante
+     * (vide : traiter localement, y compris si le propriétaire est inconnu)
+     */
+    public Optional<ServiceInstance> remoteOwner(String busId) {
+        if (!enabled || busId == null) {
+            return Optional.empty();
+        }
+        String owner = ring.owner(busId);
+        if (owner == null || owner.equals(selfId)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(instances.get(owner));
+    }
+
+    public boolean isLocal(String busId) {
+        return remoteOwner(busId).isEmpty();
+    }
+
+    /**
+     * Oublier les bus cédés, recharger les bus reçus
+     */
+    private void rebalance() {
+        long start = System.currentTimeMillis();
+        int released = release();
+
+        int acquired = 0;
+        try {
+            LocalDateTime since = LocalDateTime.now().minusHours(rebuildWindowHours);
+            for (BusLocation location : locationRepository.findLatestPerBus(null, since)) {
+                String busId = location.getBusId();
+                if (isLocal(busId) && fleetState.find(busId).isEmpty()) {
+                    fleetState.update(location);
+                    acquired++;
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Could not load acquired buses from MongoDB: {}", e.getMessage());
+        }
+
+        logger.info("Shard rebalanced in {} ms: {} buses released, {} acquired, {} owned",
+                System.currentTimeMillis() - start, released, acquired, fleetState.size());
+    }
+
+    /**
+     * Oublier l'état des bus qui n'appartiennent pas à l'instance
+     *
+     * @return nombre de bus oubliés
+     */
+    private int release() {
+        List<String> released = new ArrayList<>();
+        for (BusLocation location : fleetState.all()) {
+            if (!isLocal(location.getBusId())) {
+                released.add(location.getBusId());
+            }
+        }
+        for (String busId : released) {
+            fleetState.remove(busId);
+            progressTracker.remove(busId);
+            delayDetector.remove(busId);
+            pingSuppressor.forget(busId);
+        }
+        return released.size();
+    }
+}
@@ -0,0 +1,238 @@
+package com.transport.tracking.state;
+
+import com.transport.tracking.geo.GeoDistanceKernel;
+import com.transport.tracking.geo.GeoMath;
+import com.transport.tracking.geo.SpatialGridIndex;
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.repository.BusLocationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * État temps réel de la flotte - Dernière position connue de chaque bus
+ *
+ * MongoDB reste l'historique durable ; cette structure sert les lectures
+ * "dernière position" sans requête :
+ * - index principal : busId -> dernière BusLocation
+ * - vue secondaire : routeNumber -> ensemble des busId de la ligne
+ * - index spatial : grille des dernières positions (recherche par rayon),
+ *   avec la position convertie une fois par ping (radians, cos(latitude))
+ *
+ * Les lectures ne prennent aucun verrou. Les écritures passent par
+ * ConcurrentHashMap.compute, atomique pour un bus donné.
+ * Les BusLocation stockées ne sont jamais modifiées après insertion.
+ */
+@Component
+public class LiveFleetState {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveFleetState.class);
+
+    private final ConcurrentHashMap<String, BusLocation> latestByBus = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> busesByRoute = new ConcurrentHashMap<>();
+    // busId -> {latitude rad, longitude rad, cos(latitude)} de la dernière position
+    private final ConcurrentHashMap<String, double[]> radiansByBus = new ConcurrentHashMap<>();
+
+    private final BusLocationRepository locationRepository;
+    private final SpatialGridIndex spatialIndex;
+    private final long rebuildWindowHours;
+
+    // Vrai une fois l'état reconstruit depuis MongoDB
+    private volatile boolean warm;
+    // Vrai si l'instance ne garde qu'une partie des bus (voir ShardRouter)
+    private volatile boolean partial;
+
+    public LiveFleetState(BusLocationRepository locationRepository,
+                          SpatialGridIndex spatialIndex,
+                          @Value("${tracking.state.rebuild-window-hours:24}") long rebuildWindowHours) {
+        this.locationRepository = locationRepository;
+        this.spatialIndex = spatialIndex;
+        this.rebuildWindowHours = rebuildWindowHours;
+    }
+
+    /**
+     * Reconstruire l'état depuis MongoDB au démarrage
+     * (une seule agrégation : dernière position de chaque bus sur la fenêtre)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        logger.info("Rebuilding live fleet state from MongoDB");
+        try {
+            LocalDateTime since = LocalDateTime.now().minusHours(rebuildWindowHours);
+            locationRepository.findLatestPerBus(null, since).forEach(this::update);
+            warm = true;
+            logger.info("Live fleet state ready: {} buses", latestByBus.size());
+        } catch (Exception e) {
+            logger.warn("Could not rebuild live fleet state, reads will use MongoDB: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Enregistrer une nouvelle position
+     * Une position plus ancienne que celle déjà connue est ignorée.
+     */
+    public void update(BusLocation location) {
+        latestByBus.compute(location.getBusId(), (busId, previous) -> {
+            if (previous != null && isOlder(location, previous)) {
+                return previous;
+            }
+
+            String previousRoute = previous != null ? previous.getRouteNumber() : null;
+            if (previous == null || !Objects.equals(previousRoute, location.getRouteNumber())) {
+                if (previousRoute != null) {
+                    removeFromRoute(previousRoute, busId);
+                }
+                if (location.getRouteNumber() != null) {
+                    addToRoute(location.getRouteNumber(), busId);
+                }
+            }
+            if (location.getLatitude() != null && location.getLongitude() != null) {
+                spatialIndex.update(busId, location.getLatitude(), location.getLongitude());
+                double latRad = Math.toRadians(location.getLatitude());
+                radiansByBus.put(busId, new double[] {latRad, Math.toRadians(location.getLongitude()), Math.cos(latRad)});
+            }
+            return location;
+        });
+    }
+
+    /**
+     * Retirer un bus de l'état (ex: bus supprimé)
+     */
+    public void remove(String busId) {
+        BusLocation removed = latestByBus.remove(busId);
+        if (removed != null && removed.getRouteNumber() != null) {
+            removeFromRoute(removed.getRouteNumber(), busId);
+        }
+        spatialIndex.remove(busId);
+        radiansByBus.remove(busId);
+    }
+
+    public Optional<BusLocation> find(String busId) {
+        return Optional.ofNullable(latestByBus.get(busId));
+    }
+
+    /**
+     * Dernières positions des bus d'une ligne reçues après une date donnée
+     */
+    public List<BusLocation> findByRoute(String routeNumber, LocalDateTime since) {
+        Set<String> busIds = busesByRoute.get(routeNumber);
+        if (busIds == null) {
+            return List.of();
+        }
+
+        List<BusLocation> locations = new ArrayList<>(busIds.size());
+        for (String busId : busIds) {
+            BusLocation location = latestByBus.get(busId);
+            // La vue secondaire peut être brièvement en avance sur l'index principal
+            if (location != null && routeNumber.equals(location.getRouteNumber())
+                    && location.getTimestamp() != null && location.getTimestamp().isAfter(since)) {
+                locations.add(location);
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Dernières positions reçues après une date donnée
+     */
+    public List<BusLocation> findUpdatedSince(LocalDateTime since) {
+        List<BusLocation> locations = new ArrayList<>();
+        for (BusLocation location : latestByBus.values()) {
+            if (location.getTimestamp() != null && location.getTimestamp().isAfter(since)) {
+                locations.add(location);
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Bus à moins de radiusKm d'un point, vus après une date donnée
+     *
+     * Seules les cellules de la grille couvrant le cercle sont visitées,
+     * puis un test rectangle (sans trigonométrie) écarte les candidats
+     * avant le calcul Haversine exact sur les positions déjà converties.
+     */
+    public List<BusLocation> findNearby(double latitude, double longitude, double radiusKm, LocalDateTime since) {
+        GeoMath.BoundingBox box = GeoMath.boundingBox(latitude, longitude, radiusKm);
+        GeoDistanceKernel.Origin origin = new GeoDistanceKernel.Origin(latitude, longitude);
+
+        List<BusLocation> locations = new ArrayList<>();
+        for (String busId : spatialIndex.candidates(box)) {
+            BusLocation location = latestByBus.get(busId);
+            double[] radians = radiansByBus.get(busId);
+            if (location == null || radians == null
+                    || location.getLatitude() == null || location.getLongitude() == null) {
+                continue;
+            }
+            if (location.getTimestamp() == null || !location.getTimestamp().isAfter(since)) {
+                continue;
+            }
+            if (!box.contains(location.getLatitude(), location.getLongitude())) {
+                continue;
+            }
+            if (origin.distanceKm(radians[0], radians[1], radians[2]) <= radiusKm) {
+                locations.add(location);
+            }
+        }
+        return locations;
+    }
+
+    public Collection<BusLocation> all() {
+        return latestByBus.values();
+    }
+
+    public int size() {
+        return latestByBus.size();
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * État prêt et contenant tous les bus : les lectures sur toute la flotte
+     * (ligne, proximité, récentes) peuvent l'utiliser sans MongoDB
+     */
+    public boolean isComplete() {
+        return warm && !partial;
+    }
+
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+
+    // Ajout et retrait passent tous deux par compute pour ne jamais
+    // ajouter un bus dans un ensemble déjà retiré de la map
+    private void addToRoute(String routeNumber, String busId) {
+        busesByRoute.compute(routeNumber, (r, busIds) -> {
+            Set<String> ids = busIds != null ? busIds : ConcurrentHashMap.newKeySet();
+            ids.add(busId);
+            return ids;
+        });
+    }
+
+    private void removeFromRoute(String routeNumber, String busId) {
+        busesByRoute.computeIfPresent(routeNumber, (r, busIds) -> {
+            busIds.remove(busId);
+            return busIds.isEmpty() ? null : busIds;
+        });
+    }
+
+    private static boolean isOlder(BusLocation candidate, BusLocation current) {
+        return candidate.getTimestamp() != null
+                && current.getTimestamp() != null
+                && candidate.getTimestamp().isBefore(current.getTimestamp());
+    }
+}
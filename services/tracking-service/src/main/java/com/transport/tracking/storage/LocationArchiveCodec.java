@@ -0,0 +1,237 @@
+package com.transport.tracking.storage;
+
+import com.transport.tracking.model.BusLocation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Format compact d'une journée de positions d'un bus (archive)
+ *
+ * Flux gzip contenant :
+ * - en-tête : magic "BLA", version, jour (epochDay)
+ * - par point, dans l'ordre chronologique :
+ *   drapeaux (champs présents), temps en ms depuis le point précédent,
+ *   latitude/longitude en micro-degrés (écart au point précédent),
+ *   vitesse et cap au dixième, passagers, ligne seulement quand elle change
+ * - marqueur de fin
+ *
+ * Les entiers sont en varint zigzag : un point courant tient en une dizaine
+ * d'octets avant compression. Précision : 1e-6 degré (~0,1 m), 0,1 km/h, 0,1°.
+ */
+final class LocationArchiveCodec {
+
+    private static final int MAGIC = 0x424C41;  // "BLA"
+    private static final int VERSION = 1;
+
+    private static final int HAS_POSITION = 1;
+    private static final int HAS_SPEED = 1 << 1;
+    private static final int HAS_HEADING = 1 << 2;
+    private static final int HAS_PASSENGERS = 1 << 3;
+    private static final int ROUTE_CHANGED = 1 << 4;
+    private static final int END = 0xFF;
+
+    private static final double COORDINATE_SCALE = 1e6;
+    private static final double TENTHS = 10.0;
+
+    private LocationArchiveCodec() {
+    }
+
+    /**
+     * Encodeur d'une journée : points ajoutés un à un, dans l'ordre chronologique
+     */
+    static class Writer {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out;
+        private final LocalDateTime dayStart;
+
+        private LocalDateTime lastTime;
+        private long lastLat;
+        private long lastLon;
+        private String lastRoute;
+        private int count;
+        // Lignes vues dans la journée (métadonnées de l'archive)
+        private final Set<String> routes = new TreeSet<>();
+
+        Writer(LocalDate day) {
+            this.dayStart = day.atStartOfDay();
+            this.lastTime = dayStart;
+            try {
+                this.out = new DataOutputStream(new GZIPOutputStream(bytes));
+                out.writeByte(MAGIC >> 16);
+                out.writeShort(MAGIC & 0xFFFF);
+                out.writeByte(VERSION);
+                writeVarLong(out, day.toEpochDay());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void write(BusLocation location) {
+            if (location.getTimestamp() == null || location.getTimestamp().isBefore(lastTime)) {
+                throw new IllegalArgumentException("Archived locations must be in chronological order");
+            }
+            int flags = 0;
+            if (location.getLatitude() != null && location.getLongitude() != null) {
+                flags |= HAS_POSITION;
+            }
+            if (location.getSpeed() != null) {
+                flags |= HAS_SPEED;
+            }
+            if (location.getHeading() != null) {
+                flags |= HAS_HEADING;
+            }
+            if (location.getCurrentPassengers() != null) {
+                flags |= HAS_PASSENGERS;
+            }
+            if (!Objects.equals(lastRoute, location.getRouteNumber())) {
+                flags |= ROUTE_CHANGED;
+            }
+
+            try {
+                out.writeByte(flags);
+                writeVarLong(out, Duration.between(lastTime, location.getTimestamp()).toMillis());
+                lastTime = location.getTimestamp();
+                if ((flags & HAS_POSITION) != 0) {
+                    long lat = Math.round(location.getLatitude() * COORDINATE_SCALE);
+                    long lon = Math.round(location.getLongitude() * COORDINATE_SCALE);
+                    writeVarLong(out, lat - lastLat);
+                    writeVarLong(out, lon - lastLon);
+                    lastLat = lat;
+                    lastLon = lon;
+                }
+                if ((flags & HAS_SPEED) != 0) {
+                    writeVarLong(out, Math.round(location.getSpeed() * TENTHS));
+                }
+                if ((flags & HAS_HEADING) != 0) {
+                    writeVarLong(out, Math.round(location.getHeading() * TENTHS));
+                }
+                if ((flags & HAS_PASSENGERS) != 0) {
+                    writeVarLong(out, location.getCurrentPassengers());
+                }
+                if ((flags & ROUTE_CHANGED) != 0) {
+                    out.writeBoolean(location.getRouteNumber() != null);
+                    if (location.getRouteNumber() != null) {
+                        out.writeUTF(location.getRouteNumber());
+                    }
+                    lastRoute = location.getRouteNumber();
+                    if (lastRoute != null) {
+                        routes.add(lastRoute);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count++;
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        Set<String> getRoutes() {
+            return routes;
+        }
+
+        /**
+         * Terminer l'archive
+         */
+        byte[] finish() {
+            try {
+                out.writeByte(END);
+                out.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * Relire une archive et transmettre les points au consommateur
+     * (busId renseigné, identifiant absent)
+     */
+    static void read(InputStream archive, String busId, Consumer<BusLocation> consumer) throws IOException {
+        DataInputStream in = new DataInputStream(new GZIPInputStream(archive));
+        int magic = (in.readUnsignedByte() << 16) | in.readUnsignedShort();
+        int version = in.readUnsignedByte();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("Unsupported location archive (magic=" + magic + ", version=" + version + ")");
+        }
+        LocalDateTime time = LocalDate.ofEpochDay(readVarLong(in)).atStartOfDay();
+        long lat = 0;
+        long lon = 0;
+        String route = null;
+
+        while (true) {
+            int flags = in.readUnsignedByte();
+            if (flags == END) {
+                return;
+            }
+            BusLocation location = new BusLocation();
+            location.setBusId(busId);
+            time = time.plusNanos(readVarLong(in) * 1_000_000);
+            location.setTimestamp(time);
+            if ((flags & HAS_POSITION) != 0) {
+                lat += readVarLong(in);
+                lon += readVarLong(in);
+                location.setLatitude(lat / COORDINATE_SCALE);
+                location.setLongitude(lon / COORDINATE_SCALE);
+            }
+            if ((flags & HAS_SPEED) != 0) {
+                location.setSpeed(readVarLong(in) / TENTHS);
+            }
+            if ((flags & HAS_HEADING) != 0) {
+                location.setHeading(readVarLong(in) / TENTHS);
+            }
+            if ((flags & HAS_PASSENGERS) != 0) {
+                location.setCurrentPassengers((int) readVarLong(in));
+            }
+            if ((flags & ROUTE_CHANGED) != 0) {
+                route = in.readBoolean() ? in.readUTF() : null;
+            }
+            location.setRouteNumber(route);
+            consumer.accept(location);
+        }
+    }
+
+    // Entier signé en varint zigzag (1 octet entre -64 et 63)
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.write((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.write((int) zigzag);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated location archive");
+            }
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("Malformed varint in location archive");
+    }
+}
@@ -0,0 +1,144 @@
+package com.transport.tracking.storage;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.transport.tracking.model.BusLocation;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Archives des positions dans GridFS (bucket location_archive)
+ *
+ * Un fichier par bus et par jour (format LocationArchiveCodec), avec en
+ * métadonnées busId, day (yyyy-MM-dd), le nombre de points, les lignes
+ * parcourues (routes) et sealed :
+ * - sealed=false : copie d'un jour dont les positions sont encore dans bus_locations
+ * - sealed=true : seule copie des positions, supprimées de bus_locations
+ * Réécrire un jour remplace l'archive existante.
+ */
+@Component
+public class LocationArchiveStore {
+
+    static final String BUCKET = "location_archive";
+    private static final String CONTENT_TYPE = "application/x-bus-location-archive";
+
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+
+    public LocationArchiveStore(MongoDatabaseFactory databaseFactory, MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.gridFsTemplate = new GridFsTemplate(databaseFactory, mongoTemplate.getConverter(), BUCKET);
+    }
+
+    @PostConstruct
+    public void ensureIndexes() {
+        mongoTemplate.getCollection(BUCKET + ".files")
+                .createIndex(Indexes.ascending("metadata.busId", "metadata.day"));
+        mongoTemplate.getCollection(BUCKET + ".files")
+                .createIndex(Indexes.ascending("metadata.routes", "metadata.day"));
+    }
+
+    /**
+     * Enregistrer (ou remplacer) l'archive d'un bus pour un jour
+     *
+     * La nouvelle archive est écrite avant la suppression des précédentes :
+     * une archive scellée est la seule copie de ses positions.
+     */
+    public void store(String busId, LocalDate day, byte[] archive, int points,
+                      Collection<String> routes, boolean sealed) {
+        Document metadata = new Document("busId", busId)
+                .append("day", day.toString())
+                .append("points", points)
+                .append("routes", new ArrayList<>(routes))
+                .append("sealed", sealed);
+        ObjectId stored = gridFsTemplate.store(new ByteArrayInputStream(archive), busId + "/" + day,
+                CONTENT_TYPE, metadata);
+        gridFsTemplate.delete(dayQuery(busId, day).addCriteria(Criteria.where("_id").ne(stored)));
+    }
+
+    /**
+     * Archive d'un bus pour un jour contenant des positions supprimées de bus_locations
+     */
+    public boolean isSealed(String busId, LocalDate day) {
+        GridFSFile file = latest(busId, day);
+        return file != null && file.getMetadata() != null && file.getMetadata().getBoolean("sealed", false);
+    }
+
+    /**
+     * Jours d'un bus entre deux dates (incluses) dont l'archive est scellée,
+     * c'est-à-dire dont les positions ne sont plus dans bus_locations
+     */
+    public Set<LocalDate> sealedDays(String busId, LocalDate from, LocalDate to) {
+        Query query = new Query(Criteria.where("metadata.busId").is(busId)
+                .and("metadata.day").gte(from.toString()).lte(to.toString())
+                .and("metadata.sealed").is(true));
+        Set<LocalDate> days = new TreeSet<>();
+        for (GridFSFile file : gridFsTemplate.find(query)) {
+            days.add(LocalDate.parse(file.getMetadata().getString("day")));
+        }
+        return days;
+    }
+
+    /**
+     * Bus archivés sur une ligne entre deux dates (incluses)
+     */
+    public Set<String> busIdsOnRoute(String routeNumber, LocalDate from, LocalDate to) {
+        Bson filter = Filters.and(Filters.eq("metadata.routes", routeNumber),
+                Filters.gte("metadata.day", from.toString()), Filters.lte("metadata.day", to.toString()));
+        Set<String> busIds = new TreeSet<>();
+        mongoTemplate.getCollection(BUCKET + ".files")
+                .distinct("metadata.busId", filter, String.class)
+                .into(busIds);
+        return busIds;
+    }
+
+    /**
+     * Relire l'archive d'un bus pour un jour, points dans l'ordre chronologique
+     *
+     * @return false si le jour n'est pas archivé
+     */
+    public boolean read(String busId, LocalDate day, Consumer<BusLocation> consumer) {
+        GridFSFile file = latest(busId, day);
+        if (file == null) {
+            return false;
+        }
+        try (InputStream in = gridFsTemplate.getResource(file).getInputStream()) {
+            LocationArchiveCodec.read(in, busId, consumer);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archive " + file.getFilename(), e);
+        }
+    }
+
+    // Archive la plus récente : après un arrêt entre écriture et suppression,
+    // l'ancienne archive peut encore être présente
+    private GridFSFile latest(String busId, LocalDate day) {
+        return gridFsTemplate.find(dayQuery(busId, day)
+                .with(Sort.by(Sort.Direction.DESC, "uploadDate", "_id"))).first();
+    }
+
+    private static Query dayQuery(String busId, LocalDate day) {
+        return new Query(Criteria.where("metadata.busId").is(busId).and("metadata.day").is(day.toString()));
+    }
+}
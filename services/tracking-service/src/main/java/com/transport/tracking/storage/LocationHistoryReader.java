@@ -0,0 +1,93 @@
+package com.transport.tracking.storage;
+
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.repository.BusLocationRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Lecture de l'historique d'un bus sur les deux niveaux de stockage
+ *
+ * Pour chaque jour de la période : l'archive GridFS si elle est scellée,
+ * sinon bus_locations (jours consécutifs lus en une requête). Un jour archivé
+ * mais non scellé est lu dans bus_locations, qui contient aussi les positions
+ * arrivées après l'archivage.
+ * Les points sont transmis dans l'ordre chronologique, sans identifiant,
+ * avec les champs de LocationPoint et routeNumber.
+ */
+@Component
+public class LocationHistoryReader {
+
+    private final BusLocationRepository locationRepository;
+    private final LocationArchiveStore archiveStore;
+
+    public LocationHistoryReader(BusLocationRepository locationRepository, LocationArchiveStore archiveStore) {
+        this.locationRepository = locationRepository;
+        this.archiveStore = archiveStore;
+    }
+
+    public void read(String busId, LocalDateTime start, LocalDateTime end, Consumer<BusLocation> consumer) {
+        if (end.isBefore(start)) {
+            return;
+        }
+        LocalDate firstDay = start.toLocalDate();
+        LocalDate lastDay = end.toLocalDate();
+        Set<LocalDate> sealed = archiveStore.sealedDays(busId, firstDay, lastDay);
+
+        LocalDate rawFrom = null;
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            if (!sealed.contains(day)) {
+                if (rawFrom == null) {
+                    rawFrom = day;
+                }
+                continue;
+            }
+            if (rawFrom != null) {
+                readRaw(busId, rawFrom, day.minusDays(1), start, end, consumer);
+                rawFrom = null;
+            }
+            archiveStore.read(busId, day, location -> {
+                if (!location.getTimestamp().isBefore(start) && !location.getTimestamp().isAfter(end)) {
+                    consumer.accept(location);
+                }
+            });
+        }
+        if (rawFrom != null) {
+            readRaw(busId, rawFrom, lastDay, start, end, consumer);
+        }
+    }
+
+    /**
+     * Bus vus sur une ligne pendant la période : positions de bus_locations
+     * et jours archivés (d'après les lignes enregistrées dans l'archive)
+     */
+    public Set<String> busIdsOnRoute(String routeNumber, LocalDateTime start, LocalDateTime end) {
+        Set<String> busIds = new TreeSet<>(locationRepository.findBusIdsOnRoute(routeNumber, start, end));
+        busIds.addAll(archiveStore.busIdsOnRoute(routeNumber, start.toLocalDate(), end.toLocalDate()));
+        return busIds;
+    }
+
+    // Jours fromDay..toDay (inclus) lus dans bus_locations, bornés à [start, end]
+    private void readRaw(String busId, LocalDate fromDay, LocalDate toDay,
+                         LocalDateTime start, LocalDateTime end, Consumer<BusLocation> consumer) {
+        LocalDateTime from = max(start, fromDay.atStartOfDay());
+        LocalDateTime to = min(end, toDay.plusDays(1).atStartOfDay().minusNanos(1));
+        try (Stream<BusLocation> locations = locationRepository.streamHistory(busId, from, to)) {
+            locations.forEach(consumer);
+        }
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
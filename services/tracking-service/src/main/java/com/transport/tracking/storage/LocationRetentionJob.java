@@ -0,0 +1,263 @@
+package com.transport.tracking.storage;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.repository.BusLocationRepository;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Rétention de l'historique des positions
+ *
+ * Chaque journée terminée (depuis grace-minutes, pour les écritures différées)
+ * est archivée bus par bus dans GridFS (LocationArchiveStore). Une fois le
+ * jour sorti de la rétention à chaud (hot-hours après la fin du jour), il est
+ * ré-archivé bus par bus juste avant la suppression, et seuls les documents
+ * relus pour cette archive sont supprimés (par lots d'_id) : une position
+ * arrivée en retard n'est jamais supprimée sans avoir été archivée.
+ * Les positions arrivées après la suppression sont ajoutées à l'archive
+ * au passage suivant (l'archive scellée est relue et complétée).
+ *
+ * Une seule instance exécute le job à la fois (verrou MongoLease, renouvelé
+ * à chaque bus). L'archivage des jours encore chauds est enregistré par jour
+ * dans retention_days. En time-series, la suppression par _id suppose
+ * MongoDB 7 ou plus récent.
+ *
+ * Le TTL de bus_locations doit couvrir jour + grace + hot-hours, sinon des
+ * positions expirent avant d'être archivées (vérifié au démarrage).
+ */
+@Component
+public class LocationRetentionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationRetentionJob.class);
+
+    private static final String CHECKPOINTS_COLLECTION = "retention_days";
+    private static final String LOCK = "location_retention";
+
+    private final MongoTemplate mongoTemplate;
+    private final BusLocationRepository locationRepository;
+    private final LocationArchiveStore archiveStore;
+    private final LocationStorageInitializer storage;
+    private final MongoLease mongoLease;
+    private final boolean enabled;
+    private final Duration hotRetention;
+    private final Duration grace;
+    private final int deleteChunkSize;
+    private final Duration lockDuration;
+
+    public LocationRetentionJob(MongoTemplate mongoTemplate,
+                                BusLocationRepository locationRepository,
+                                LocationArchiveStore archiveStore,
+                                LocationStorageInitializer storage,
+                                MongoLease mongoLease,
+                                @Value("${tracking.retention.enabled:true}") boolean enabled,
+                                @Value("${tracking.retention.hot-hours:24}") long hotHours,
+                                @Value("${tracking.retention.grace-minutes:30}") long graceMinutes,
+                                @Value("${tracking.retention.delete-chunk-size:5000}") int deleteChunkSize,
+                                @Value("${tracking.retention.lock-minutes:10}") long lockMinutes) {
+        this.mongoTemplate = mongoTemplate;
+        this.locationRepository = locationRepository;
+        this.archiveStore = archiveStore;
+        this.storage = storage;
+        this.mongoLease = mongoLease;
+        this.enabled = enabled;
+        this.hotRetention = Duration.ofHours(hotHours);
+        this.grace = Duration.ofMinutes(graceMinutes);
+        this.deleteChunkSize = deleteChunkSize;
+        this.lockDuration = Duration.ofMinutes(lockMinutes);
+    }
+
+    @PostConstruct
+    public void checkExpiration() {
+        Duration needed = Duration.ofDays(1).plus(grace).plus(hotRetention);
+        if (enabled && storage.getExpireAfter().compareTo(needed) <= 0) {
+            logger.warn("bus_locations expire after {}h, but retention needs more than {}h: "
+                            + "locations may expire before being archived",
+                    storage.getExpireAfter().toHours(), needed.toHours());
+        }
+    }
+
+    @Scheduled(cron = "${tracking.retention.cron:0 20 * * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        if (!mongoLease.tryAcquire(LOCK, lockDuration)) {
+            logger.debug("Location retention is running on another instance");
+            return;
+        }
+        try {
+            retain();
+        } finally {
+            mongoLease.release(LOCK);
+        }
+    }
+
+    private void retain() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate lastArchivable = now.minus(grace).toLocalDate().minusDays(1);
+        LocalDate firstDay = oldestDay();
+        if (firstDay == null) {
+            return;
+        }
+
+        MongoCollection<Document> checkpoints = mongoTemplate.getCollection(CHECKPOINTS_COLLECTION);
+        for (LocalDate day = firstDay; !day.isAfter(lastArchivable); day = day.plusDays(1)) {
+            try {
+                boolean hot = day.plusDays(1).atStartOfDay().isAfter(now.minus(hotRetention));
+                if (!hot) {
+                    purge(day);
+                    continue;
+                }
+                Document checkpoint = checkpoints.find(Filters.eq("_id", day.toString())).first();
+                if (checkpoint == null || !checkpoint.getBoolean("archived", false)) {
+                    save(checkpoints, archive(day));
+                }
+            } catch (Exception e) {
+                logger.error("Retention of {} failed, retrying next run: {}", day, e.getMessage(), e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Archiver chaque bus vu pendant le jour (positions conservées dans bus_locations)
+     */
+    private Document archive(LocalDate day) {
+        long start = System.currentTimeMillis();
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = day.plusDays(1).atStartOfDay().minusNanos(1);
+        List<String> busIds = busesOfDay(from, to);
+
+        long points = 0;
+        long bytes = 0;
+        for (String busId : busIds) {
+            renewLock();
+            LocationArchiveCodec.Writer writer = new LocationArchiveCodec.Writer(day);
+            try (Stream<BusLocation> locations = locationRepository.streamHistory(busId, from, to)) {
+                locations.forEach(writer::write);
+            }
+            byte[] archive = writer.finish();
+            archiveStore.store(busId, day, archive, writer.getCount(), writer.getRoutes(), false);
+            points += writer.getCount();
+            bytes += archive.length;
+        }
+
+        logger.info("Archived {}: {} buses, {} locations in {} KB ({} ms)",
+                day, busIds.size(), points, bytes / 1024, System.currentTimeMillis() - start);
+        return new Document("_id", day.toString())
+                .append("archived", true)
+                .append("buses", busIds.size())
+                .append("locations", points)
+                .append("bytes", bytes);
+    }
+
+    /**
+     * Ré-archiver puis supprimer les positions du jour encore présentes
+     * dans bus_locations, bus par bus
+     */
+    private void purge(LocalDate day) {
+        long start = System.currentTimeMillis();
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = day.plusDays(1).atStartOfDay().minusNanos(1);
+        List<String> busIds = busesOfDay(from, to);
+        if (busIds.isEmpty()) {
+            return;
+        }
+
+        long deleted = 0;
+        for (String busId : busIds) {
+            renewLock();
+            deleted += sealAndPurge(busId, day, from, to);
+        }
+        logger.info("Purged {}: {} locations of {} buses archived and deleted ({} ms)",
+                day, deleted, busIds.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Écrire l'archive scellée d'un bus (archive scellée existante + positions
+     * de bus_locations), puis supprimer exactement les positions archivées
+     *
+     * @return nombre de positions supprimées
+     */
+    private long sealAndPurge(String busId, LocalDate day, LocalDateTime from, LocalDateTime to) {
+        List<BusLocation> points = new ArrayList<>();
+        if (archiveStore.isSealed(busId, day)) {
+            archiveStore.read(busId, day, points::add);
+        }
+        List<String> ids = new ArrayList<>();
+        Query dayQuery = new Query(Criteria.where("busId").is(busId).and("timestamp").gte(from).lte(to));
+        try (Stream<BusLocation> locations = mongoTemplate.stream(dayQuery, BusLocation.class)) {
+            locations.forEach(location -> {
+                ids.add(location.getId());
+                points.add(location);
+            });
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Tri stable ; une position déjà archivée (même milliseconde) n'est écrite qu'une fois
+        points.sort(Comparator.comparing(BusLocation::getTimestamp));
+        LocationArchiveCodec.Writer writer = new LocationArchiveCodec.Writer(day);
+        LocalDateTime previous = null;
+        for (BusLocation point : points) {
+            LocalDateTime time = point.getTimestamp().truncatedTo(ChronoUnit.MILLIS);
+            if (!time.equals(previous)) {
+                writer.write(point);
+                previous = time;
+            }
+        }
+        archiveStore.store(busId, day, writer.finish(), writer.getCount(), writer.getRoutes(), true);
+
+        long deleted = 0;
+        for (int i = 0; i < ids.size(); i += deleteChunkSize) {
+            List<String> chunk = ids.subList(i, Math.min(i + deleteChunkSize, ids.size()));
+            deleted += mongoTemplate.remove(new Query(Criteria.where("id").in(chunk)), BusLocation.class)
+                    .getDeletedCount();
+        }
+        return deleted;
+    }
+
+    private List<String> busesOfDay(LocalDateTime from, LocalDateTime to) {
+        Query query = new Query(Criteria.where("timestamp").gte(from).lte(to));
+        return mongoTemplate.findDistinct(query, "busId", BusLocation.class, String.class);
+    }
+
+    private void renewLock() {
+        if (!mongoLease.tryAcquire(LOCK, lockDuration)) {
+            throw new IllegalStateException("Retention lock lost");
+        }
+    }
+
+    private LocalDate oldestDay() {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "timestamp")).limit(1);
+        query.fields().include("timestamp");
+        BusLocation oldest = mongoTemplate.findOne(query, BusLocation.class);
+        return oldest != null && oldest.getTimestamp() != null ? oldest.getTimestamp().toLocalDate() : null;
+    }
+
+    private static void save(MongoCollection<Document> checkpoints, Document checkpoint) {
+        checkpoints.replaceOne(Filters.eq("_id", checkpoint.get("_id")), checkpoint, new ReplaceOptions().upsert(true));
+    }
+}
@@ -0,0 +1,391 @@
+package com.transport.tracking.storage;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.transport.tracking.model.BusLocation;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Préparation du stockage MongoDB au démarrage
+ *
+ * - tracking.storage.mode=standard : collection bus_locations classique
+ * - tracking.storage.mode=timeseries : collection time-series
+ *   (timeField timestamp, metaField busId, granularité secondes,
+ *   expiration via expireAfterSeconds au lieu de l'index TTL)
+ *
+ * L'expiration (index TTL ou expireAfterSeconds) est un filet de sécurité,
+ * plus long que la rétention à chaud de LocationRetentionJob ; une valeur
+ * modifiée est appliquée à la collection existante (collMod).
+ *
+ * Migration (tracking.storage.migrate=true) : la collection classique est
+ * renommée en bus_locations_legacy puis recopiée par lots dans la collection
+ * time-series. Elle tourne après le démarrage (thread dédié), sur une seule
+ * instance à la fois (verrou MongoLease) ; chaque étape vérifie l'état des
+ * collections avant d'agir. L'avancement est enregistré dans
+ * storage_migrations, une migration interrompue reprend au dernier lot copié.
+ * Jusqu'au renommage, les positions restent écrites dans la collection classique.
+ *
+ * Crée aussi les index déclarés sur les documents (@Indexed, @CompoundIndex) :
+ * la création automatique de Spring Data est désactivée car l'index TTL
+ * de BusLocation est refusé par une collection time-series.
+ */
+@Component
+public class LocationStorageInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationStorageInitializer.class);
+
+    public static final String LEGACY_COLLECTION = "bus_locations_legacy";
+    private static final String MIGRATIONS_COLLECTION = "storage_migrations";
+    private static final String MIGRATION_ID = "bus_locations_timeseries";
+    private static final Duration MIGRATION_LOCK_DURATION = Duration.ofMinutes(5);
+    private static final long MIGRATION_WAIT_MS = 30_000;
+    private static final int MAX_CREATE_ATTEMPTS = 3;
+    // Code d'erreur MongoDB NamespaceExists
+    private static final int NAMESPACE_EXISTS = 48;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final MongoLease mongoLease;
+    private final StorageMode mode;
+    private final boolean migrate;
+    private final long expireAfterHours;
+    private final int migrationBatchSize;
+
+    public LocationStorageInitializer(
+            MongoTemplate mongoTemplate,
+            MongoMappingContext mappingContext,
+            MongoLease mongoLease,
+            @Value("${tracking.storage.mode:standard}") String mode,
+            @Value("${tracking.storage.migrate:false}") boolean migrate,
+            @Value("${tracking.storage.timeseries.expire-after-hours:72}") long expireAfterHours,
+            @Value("${tracking.storage.migration-batch-size:5000}") int migrationBatchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.mongoLease = mongoLease;
+        this.mode = StorageMode.valueOf(mode.toUpperCase());
+        this.migrate = migrate;
+        this.expireAfterHours = expireAfterHours;
+        this.migrationBatchSize = migrationBatchSize;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        String collection = mongoTemplate.getCollectionName(BusLocation.class);
+
+        if (mode == StorageMode.TIMESERIES) {
+            prepareTimeSeries(collection);
+        }
+
+        // Collection classique en attente de migration : pas d'avertissement
+        boolean timeSeries = isTimeSeries(collection);
+        boolean migrationPending = mode == StorageMode.TIMESERIES && migrate;
+        if (timeSeries != (mode == StorageMode.TIMESERIES) && !migrationPending) {
+            logger.warn("Collection {} is {}, but tracking.storage.mode is {}",
+                    collection, timeSeries ? "time-series" : "a regular collection", mode);
+        }
+        ensureIndexes(timeSeries);
+    }
+
+    /**
+     * Lancer la migration vers la collection time-series, hors démarrage
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startMigration() {
+        if (mode != StorageMode.TIMESERIES || !migrate || isMigrationCompleted()) {
+            return;
+        }
+        Thread thread = new Thread(this::runMigration, "location-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public StorageMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Âge au-delà duquel MongoDB supprime les positions
+     */
+    public Duration getExpireAfter() {
+        return mode == StorageMode.TIMESERIES
+                ? Duration.ofHours(expireAfterHours)
+                : Duration.ofSeconds(BusLocation.TTL_SECONDS);
+    }
+
+    /**
+     * Créer la collection time-series si absente (sans migration : rapide)
+     */
+    private void prepareTimeSeries(String collection) {
+        Document info = collectionInfo(collection);
+
+        if (info == null) {
+            createTimeSeries(collection);
+        } else if (!"timeseries".equals(info.getString("type"))) {
+            if (!migrate) {
+                throw new IllegalStateException("Collection " + collection
+                        + " is not a time-series collection, set tracking.storage.migrate=true to migrate it");
+            }
+            logger.info("Collection {} will be migrated to a time-series collection after startup", collection);
+        } else {
+            updateExpiration(collection, info);
+        }
+    }
+
+    /**
+     * Créer la collection time-series
+     *
+     * @return false si la collection existait déjà (créée entre-temps)
+     */
+    private boolean createTimeSeries(String collection) {
+        logger.info("Creating time-series collection {} (expireAfter={}h)", collection, expireAfterHours);
+        try {
+            mongoTemplate.createCollection(collection, CollectionOptions.timeSeries("timestamp",
+                    options -> options.metaField("busId")
+                            .granularity(Granularity.SECONDS)
+                            .expireAfter(Duration.ofHours(expireAfterHours))));
+            return true;
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() != NAMESPACE_EXISTS) {
+                throw e;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Migrer tant que la migration n'est pas terminée, sous verrou
+     * (une autre instance qui détient le verrou est attendue)
+     */
+    private void runMigration() {
+        String collection = mongoTemplate.getCollectionName(BusLocation.class);
+        try {
+            while (!isMigrationCompleted()) {
+                if (!mongoLease.tryAcquire(MIGRATION_ID, MIGRATION_LOCK_DURATION)) {
+                    logger.info("Migration of {} is running on another instance, waiting", collection);
+                    Thread.sleep(MIGRATION_WAIT_MS);
+                    continue;
+                }
+                try {
+                    migrate(collection);
+                } finally {
+                    mongoLease.release(MIGRATION_ID);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Migration of {} to a time-series collection failed: {}", collection, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Renommer la collection classique, créer la collection time-series,
+     * puis recopier bus_locations_legacy (reprise possible à chaque étape)
+     */
+    private void migrate(String collection) {
+        for (int attempt = 1; !isTimeSeries(collection); attempt++) {
+            if (attempt > MAX_CREATE_ATTEMPTS) {
+                throw new IllegalStateException("Could not create time-series collection " + collection);
+            }
+            if (collectionInfo(collection) != null) {
+                if (collectionInfo(LEGACY_COLLECTION) == null) {
+                    // Marque la collection renommée comme appartenant à cette migration
+                    saveCheckpoint(mongoTemplate.getCollection(MIGRATIONS_COLLECTION), null, 0, false);
+                    logger.info("Renaming {} to {} before migration", collection, LEGACY_COLLECTION);
+                    MongoDatabase db = mongoTemplate.getDb();
+                    db.getCollection(collection).renameCollection(new MongoNamespace(db.getName(), LEGACY_COLLECTION));
+                } else if (migrationCheckpoint() != null) {
+                    // Positions écrites entre le renommage et la création : ajoutées à la copie
+                    mergeIntoLegacy(collection);
+                } else {
+                    throw new IllegalStateException("Cannot migrate " + collection + ": "
+                            + LEGACY_COLLECTION + " already exists");
+                }
+            }
+            createTimeSeries(collection);
+        }
+        ensureIndexes(true);
+
+        if (collectionInfo(LEGACY_COLLECTION) != null) {
+            copyLegacy(collection);
+        } else {
+            saveCheckpoint(mongoTemplate.getCollection(MIGRATIONS_COLLECTION), null, 0, true);
+        }
+    }
+
+    /**
+     * Déplacer une collection classique recréée par des écritures
+     * dans bus_locations_legacy, puis la supprimer
+     */
+    private void mergeIntoLegacy(String collection) {
+        logger.info("Moving documents written to {} during migration into {}", collection, LEGACY_COLLECTION);
+        mongoTemplate.getCollection(collection).aggregate(List.of(new Document("$merge",
+                new Document("into", LEGACY_COLLECTION)
+                        .append("on", "_id")
+                        .append("whenMatched", "keepExisting")
+                        .append("whenNotMatched", "insert")))).toCollection();
+        mongoTemplate.getCollection(collection).drop();
+    }
+
+    /**
+     * Appliquer expire-after-hours à une collection time-series existante
+     */
+    private void updateExpiration(String collection, Document info) {
+        Document options = info.get("options", Document.class);
+        Number current = options != null ? options.get("expireAfterSeconds", Number.class) : null;
+        long expected = Duration.ofHours(expireAfterHours).toSeconds();
+        if (current == null || current.longValue() != expected) {
+            logger.info("Updating expireAfterSeconds of {} from {} to {}", collection, current, expected);
+            mongoTemplate.getDb().runCommand(new Document("collMod", collection)
+                    .append("expireAfterSeconds", expected));
+        }
+    }
+
+    /**
+     * Recopier bus_locations_legacy par lots, dans l'ordre des _id
+     */
+    private void copyLegacy(String collection) {
+        MongoCollection<Document> migrations = mongoTemplate.getCollection(MIGRATIONS_COLLECTION);
+        Document checkpoint = migrationCheckpoint();
+        if (checkpoint != null && checkpoint.getBoolean("completed", false)) {
+            return;
+        }
+
+        MongoCollection<Document> source = mongoTemplate.getCollection(LEGACY_COLLECTION);
+        MongoCollection<Document> target = mongoTemplate.getCollection(collection);
+        Object lastId = checkpoint != null ? checkpoint.get("lastId") : null;
+        long copied = checkpoint != null ? checkpoint.get("copied", 0L) : 0L;
+        long failed = 0;
+
+        logger.info("Migrating {} into {} (resuming after {} documents)", LEGACY_COLLECTION, collection, copied);
+        while (true) {
+            Bson filter = lastId != null ? Filters.gt("_id", lastId) : new Document();
+            List<Document> chunk = source.find(filter)
+                    .sort(Sorts.ascending("_id"))
+                    .limit(migrationBatchSize)
+                    .into(new ArrayList<>(migrationBatchSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            int inserted = chunk.size();
+            try {
+                target.insertMany(chunk, new InsertManyOptions().ordered(false));
+            } catch (MongoBulkWriteException e) {
+                // Ex: document sans timestamp, refusé par la collection time-series
+                inserted -= e.getWriteErrors().size();
+                failed += e.getWriteErrors().size();
+            }
+
+            copied += inserted;
+            lastId = chunk.get(chunk.size() - 1).get("_id");
+            saveCheckpoint(migrations, lastId, copied, false);
+            if (!mongoLease.tryAcquire(MIGRATION_ID, MIGRATION_LOCK_DURATION)) {
+                throw new IllegalStateException("Migration lock lost after " + copied + " documents");
+            }
+        }
+
+        saveCheckpoint(migrations, lastId, copied, true);
+        logger.info("Migration done: {} documents copied, {} rejected. {} can be dropped once verified",
+                copied, failed, LEGACY_COLLECTION);
+    }
+
+    private Document migrationCheckpoint() {
+        return mongoTemplate.getCollection(MIGRATIONS_COLLECTION).find(Filters.eq("_id", MIGRATION_ID)).first();
+    }
+
+    private boolean isMigrationCompleted() {
+        Document checkpoint = migrationCheckpoint();
+        return checkpoint != null && checkpoint.getBoolean("completed", false);
+    }
+
+    private void saveCheckpoint(MongoCollection<Document> migrations, Object lastId, long copied, boolean completed) {
+        Document checkpoint = new Document("_id", MIGRATION_ID)
+                .append("lastId", lastId)
+                .append("copied", copied)
+                .append("completed", completed);
+        migrations.replaceOne(Filters.eq("_id", MIGRATION_ID), checkpoint, new ReplaceOptions().upsert(true));
+    }
+
+    /**
+     * Créer les index déclarés sur les documents
+     * En time-series, l'index TTL est ignoré (expiration portée par la collection).
+     */
+    private void ensureIndexes(boolean timeSeries) {
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                continue;
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+            for (IndexDefinition index : resolver.resolveIndexForEntity(entity)) {
+                if (timeSeries && entity.getType() == BusLocation.class
+                        && index.getIndexOptions().containsKey("expireAfterSeconds")) {
+                    continue;
+                }
+                if (index.getIndexOptions().containsKey("expireAfterSeconds")) {
+                    updateTtlIndex(mongoTemplate.getCollectionName(entity.getType()), index);
+                }
+                indexOps.ensureIndex(index);
+            }
+        }
+    }
+
+    /**
+     * Modifier la durée d'un index TTL existant (ensureIndex échouerait
+     * sur un index de même clé aux options différentes)
+     */
+    private void updateTtlIndex(String collection, IndexDefinition index) {
+        Document keys = new Document(index.getIndexKeys());
+        long expected = ((Number) index.getIndexOptions().get("expireAfterSeconds")).longValue();
+        for (Document existing : mongoTemplate.getCollection(collection).listIndexes()) {
+            Number current = existing.get("expireAfterSeconds", Number.class);
+            if (keys.equals(existing.get("key")) && current != null && current.longValue() != expected) {
+                logger.info("Updating TTL of index {} on {} from {}s to {}s",
+                        existing.getString("name"), collection, current, expected);
+                mongoTemplate.getDb().runCommand(new Document("collMod", collection)
+                        .append("index", new Document("keyPattern", keys).append("expireAfterSeconds", expected)));
+            }
+        }
+    }
+
+    private boolean isTimeSeries(String collection) {
+        Document info = collectionInfo(collection);
+        return info != null && "timeseries".equals(info.getString("type"));
+    }
+
+    private Document collectionInfo(String collection) {
+        return mongoTemplate.getDb()
+                .listCollections()
+                .filter(Filters.eq("name", collection))
+                .first();
+    }
+}
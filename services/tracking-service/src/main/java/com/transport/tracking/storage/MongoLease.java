@@ -0,0 +1,74 @@
+package com.transport.tracking.storage;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Verrou à durée limitée (bail) partagé entre les instances, dans MongoDB
+ *
+ * Un document par verrou dans la collection leases : {_id: nom, owner, until}.
+ * Le bail est pris si le document n'existe pas, a expiré ou appartient déjà
+ * à l'instance (renouvellement). Une instance arrêtée sans libérer le verrou
+ * le perd à l'expiration du bail.
+ */
+@Component
+public class MongoLease {
+
+    private static final String COLLECTION = "leases";
+
+    private final MongoTemplate mongoTemplate;
+    private final String owner;
+
+    public MongoLease(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * Prendre ou renouveler un verrou pour la durée donnée
+     *
+     * @return false si une autre instance détient le verrou
+     */
+    public boolean tryAcquire(String name, Duration duration) {
+        Date now = new Date();
+        try {
+            Document lease = leases().findOneAndUpdate(
+                    Filters.and(Filters.eq("_id", name),
+                            Filters.or(Filters.eq("owner", owner), Filters.lt("until", now))),
+                    Updates.combine(Updates.set("owner", owner),
+                            Updates.set("until", new Date(now.getTime() + duration.toMillis()))),
+                    new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+            return lease != null && owner.equals(lease.getString("owner"));
+        } catch (MongoException e) {
+            // Verrou détenu ailleurs : l'upsert tente d'insérer le même _id
+            if (ErrorCategory.fromErrorCode(e.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Libérer un verrou détenu par l'instance (sans effet sinon)
+     */
+    public void release(String name) {
+        leases().deleteOne(Filters.and(Filters.eq("_id", name), Filters.eq("owner", owner)));
+    }
+
+    private MongoCollection<Document> leases() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+}
@@ -0,0 +1,9 @@
+package com.transport.tracking.storage;
+
+/**
+ * Mode de stockage de la collection bus_locations
+ */
+public enum StorageMode {
+    STANDARD,      // Collection classique, un document par position, index TTL
+    TIMESERIES     // Collection time-series MongoDB (positions regroupées par bus)
+}
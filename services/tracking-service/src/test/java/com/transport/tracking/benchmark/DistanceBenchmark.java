@@ -0,0 +1,72 @@
+package com.transport.tracking.benchmark;
+
+import com.transport.tracking.geo.GeoDistanceKernel;
+import com.transport.tracking.geo.GeoMath;
+import com.transport.tracking.geo.GeoPoints;
+import com.transport.tracking.service.TrackingService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calcul de distance Haversine (un point de requête contre 10 000 points)
+ *
+ * - trackingServiceCalculateDistance : méthode exposée par GET /api/tracking/distance
+ * - geoMathHaversine : fonction point à point partagée
+ * - geoDistanceKernel : calcul en masse (GeoDistanceKernel, tableaux précalculés)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DistanceBenchmark {
+
+    private static final int POINTS = 10_000;
+
+    private double[][] points;
+    private GeoPoints geoPoints;
+    private double[] distances;
+    private double queryLat;
+    private double queryLon;
+    private TrackingService trackingService;
+
+    @Setup
+    public void setup() {
+        points = FleetDataset.queryPoints(POINTS);
+        double[] latitudes = new double[POINTS];
+        double[] longitudes = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = points[i][0];
+            longitudes[i] = points[i][1];
+        }
+        geoPoints = GeoPoints.ofDegrees(latitudes, longitudes);
+        distances = new double[POINTS];
+        queryLat = FleetDataset.CENTER_LAT;
+        queryLon = FleetDataset.CENTER_LON;
+        // calculateDistance n'utilise aucune dépendance du service
+        trackingService = new TrackingService(null, null, null, null, null, null, null, null, null, null, null, 30, 30);
+    }
+
+    @Benchmark
+    public void trackingServiceCalculateDistance(Blackhole bh) {
+        for (double[] point : points) {
+            bh.consume(trackingService.calculateDistance(queryLat, queryLon, point[0], point[1]));
+        }
+    }
+
+    @Benchmark
+    public void geoMathHaversine(Blackhole bh) {
+        for (double[] point : points) {
+            bh.consume(GeoMath.haversineKm(queryLat, queryLon, point[0], point[1]));
+        }
+    }
+
+    @Benchmark
+    public double[] geoDistanceKernel() {
+        GeoDistanceKernel.distancesKm(queryLat, queryLon, geoPoints, distances);
+        return distances;
+    }
+}
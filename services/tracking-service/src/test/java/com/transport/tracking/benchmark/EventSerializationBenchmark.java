@@ -0,0 +1,78 @@
+package com.transport.tracking.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.transport.tracking.kafka.BusEventNotification;
+import com.transport.tracking.kafka.BusEventType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation JSON d'un BusEventNotification (message Kafka bus-delays)
+ *
+ * - kafkaJsonSerializer : JsonSerializer de spring-kafka, utilisé par KafkaProducerConfig
+ * - objectWriter : ObjectWriter Jackson préparé une fois pour le type
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventSerializationBenchmark {
+
+    private static final String TOPIC = "bus-delays";
+
+    private BusEventNotification event;
+    private JsonSerializer<BusEventNotification> kafkaSerializer;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setup() {
+        event = BusEventNotification.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType(BusEventType.DELAY)
+                .busId("65a1f0c2e4b0a1b2c3d4e5f6")
+                .busNumber("BUS-042")
+                .routeNumber("12")
+                .delayMinutes(10)
+                .latitude(33.5731)
+                .longitude(-7.5898)
+                .title("Retard sur la ligne 12")
+                .message("Le bus BUS-042 a un retard de 10 minutes")
+                .priority("MEDIUM")
+                .timestamp(LocalDateTime.now())
+                .affectedUsers("ALL")
+                .build();
+
+        kafkaSerializer = new JsonSerializer<>();
+        kafkaSerializer.setAddTypeInfo(false);
+
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        writer = mapper.writerFor(BusEventNotification.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        kafkaSerializer.close();
+    }
+
+    @Benchmark
+    public byte[] kafkaJsonSerializer() {
+        return kafkaSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public byte[] objectWriter() throws JsonProcessingException {
+        return writer.writeValueAsBytes(event);
+    }
+}
@@ -0,0 +1,102 @@
+package com.transport.tracking.benchmark;
+
+import com.transport.tracking.geo.SpatialGridIndex;
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.state.LiveFleetState;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Jeux de données des benchmarks : flotte répartie sur une agglomération
+ *
+ * Les bus sont concentrés autour du centre (distribution gaussienne,
+ * environ 10 km d'écart-type) comme sur un réseau urbain réel.
+ * Données déterministes (graine fixe) pour des mesures comparables.
+ */
+final class FleetDataset {
+
+    static final double CENTER_LAT = 33.5731;
+    static final double CENTER_LON = -7.5898;
+
+    private static final double KM_PER_DEG_LAT = 111.32;
+    private static final double SPREAD_KM = 10;
+    private static final int ROUTES = 60;
+
+    private FleetDataset() {
+    }
+
+    /**
+     * Dernière position de chaque bus
+     */
+    static List<BusLocation> latestPositions(int buses, LocalDateTime now) {
+        Random random = new Random(42);
+        List<BusLocation> locations = new ArrayList<>(buses);
+        for (int i = 0; i < buses; i++) {
+            locations.add(location(i, random, now.minusSeconds(random.nextInt(600))));
+        }
+        return locations;
+    }
+
+    /**
+     * Historique récent : pingsPerBus positions par bus, entrelacées
+     * dans l'ordre d'arrivée (comme en base)
+     */
+    static List<BusLocation> history(int buses, int pingsPerBus, LocalDateTime now) {
+        Random random = new Random(42);
+        List<BusLocation> locations = new ArrayList<>(buses * pingsPerBus);
+        for (int p = 0; p < pingsPerBus; p++) {
+            LocalDateTime timestamp = now.minusSeconds((long) (pingsPerBus - p) * 10);
+            for (int i = 0; i < buses; i++) {
+                locations.add(location(i, random, timestamp));
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * État temps réel rempli avec les positions données
+     */
+    static LiveFleetState fleetState(List<BusLocation> locations) {
+        LiveFleetState state = new LiveFleetState(null, new SpatialGridIndex(0.01), 24);
+        locations.forEach(state::update);
+        return state;
+    }
+
+    /**
+     * Points de requête (lat, lon) autour du centre
+     */
+    static double[][] queryPoints(int count) {
+        Random random = new Random(7);
+        double[][] points = new double[count][];
+        for (int i = 0; i < count; i++) {
+            points[i] = new double[]{
+                    CENTER_LAT + random.nextGaussian() * SPREAD_KM / KM_PER_DEG_LAT,
+                    CENTER_LON + random.nextGaussian() * SPREAD_KM / (KM_PER_DEG_LAT * Math.cos(Math.toRadians(CENTER_LAT)))
+            };
+        }
+        return points;
+    }
+
+    private static BusLocation location(int bus, Random random, LocalDateTime timestamp) {
+        BusLocation location = new BusLocation();
+        location.setId(Long.toHexString(random.nextLong()));
+        location.setBusId(String.format("bus-%05d", bus));
+        location.setBusNumber(String.format("B-%05d", bus));
+        location.setRouteNumber(String.valueOf(bus % ROUTES + 1));
+        location.setLatitude(CENTER_LAT + random.nextGaussian() * SPREAD_KM / KM_PER_DEG_LAT);
+        location.setLongitude(CENTER_LON
+                + random.nextGaussian() * SPREAD_KM / (KM_PER_DEG_LAT * Math.cos(Math.toRadians(CENTER_LAT))));
+        location.setSpeed(random.nextDouble() * 50);
+        location.setHeading(random.nextDouble() * 360);
+        location.setAccuracy(5.0);
+        location.setTimestamp(timestamp);
+        location.setCurrentPassengers(random.nextInt(80));
+        location.setOccupancyRate(random.nextDouble() * 100);
+        location.setNearestStop("Stop " + random.nextInt(40));
+        location.setDistanceToNextStop(random.nextDouble());
+        return location;
+    }
+}
@@ -0,0 +1,63 @@
+package com.transport.tracking.benchmark;
+
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.state.LiveFleetState;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Dernière position de chaque bus (GET /api/tracking/recent, /route/{routeNumber})
+ *
+ * - groupingBy : réduction en mémoire d'une heure d'historique
+ *   (groupingBy(busId) puis max par timestamp, approche d'origine)
+ * - liveFleetState : lecture de l'état temps réel (LiveFleetState.findUpdatedSince)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LatestPositionBenchmark {
+
+    // Une position toutes les 10 s pendant 10 minutes
+    private static final int PINGS_PER_BUS = 60;
+
+    @Param({"1000", "5000"})
+    public int buses;
+
+    private List<BusLocation> history;
+    private LiveFleetState fleetState;
+    private LocalDateTime since;
+
+    @Setup
+    public void setup() {
+        LocalDateTime now = LocalDateTime.now();
+        history = FleetDataset.history(buses, PINGS_PER_BUS, now);
+        fleetState = FleetDataset.fleetState(history);
+        since = now.minusHours(1);
+    }
+
+    @Benchmark
+    public List<BusLocation> groupingBy() {
+        Map<String, Optional<BusLocation>> latest = history.stream()
+                .collect(Collectors.groupingBy(BusLocation::getBusId,
+                        Collectors.maxBy(Comparator.comparing(BusLocation::getTimestamp))));
+        List<BusLocation> locations = new ArrayList<>(latest.size());
+        latest.values().forEach(location -> location.ifPresent(locations::add));
+        return locations;
+    }
+
+    @Benchmark
+    public List<BusLocation> liveFleetState() {
+        return fleetState.findUpdatedSince(since);
+    }
+}
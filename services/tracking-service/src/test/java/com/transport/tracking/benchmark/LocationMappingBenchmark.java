@@ -0,0 +1,49 @@
+package com.transport.tracking.benchmark;
+
+import com.transport.tracking.dto.LocationPoint;
+import com.transport.tracking.dto.LocationResponse;
+import com.transport.tracking.model.BusLocation;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion des positions en DTO pour 1 000 bus
+ * (LocationResponse complet vs LocationPoint compact de l'historique)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocationMappingBenchmark {
+
+    private List<BusLocation> locations;
+
+    @Setup
+    public void setup() {
+        locations = FleetDataset.latestPositions(1000, LocalDateTime.now());
+    }
+
+    @Benchmark
+    public List<LocationResponse> locationResponse() {
+        List<LocationResponse> responses = new ArrayList<>(locations.size());
+        for (BusLocation location : locations) {
+            responses.add(LocationResponse.fromDomain(location));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public List<LocationPoint> locationPoint() {
+        List<LocationPoint> points = new ArrayList<>(locations.size());
+        for (BusLocation location : locations) {
+            points.add(LocationPoint.fromDomain(location));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,101 @@
+package com.transport.tracking.benchmark;
+
+import com.transport.tracking.dto.LocationResponse;
+import com.transport.tracking.geo.GeoDistanceKernel;
+import com.transport.tracking.geo.GeoPoints;
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.service.TrackingService;
+import com.transport.tracking.state.LiveFleetState;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Recherche des bus à proximité d'un point (GET /api/tracking/nearby)
+ *
+ * - streamFilter : mapping de toutes les positions récentes puis filtre
+ *   Haversine point par point (référence)
+ * - bulkKernel : distances en masse via GeoDistanceKernel
+ *   (chemin utilisé tant que l'état temps réel n'est pas prêt)
+ * - liveFleetState : grille spatiale + rectangle englobant (LiveFleetState.findNearby)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NearbyBusesBenchmark {
+
+    @Param({"1000", "10000"})
+    public int buses;
+
+    @Param({"0.5", "5"})
+    public double radiusKm;
+
+    private List<BusLocation> recent;
+    private LiveFleetState fleetState;
+    private TrackingService trackingService;
+    private double[][] queries;
+    private LocalDateTime since;
+    private int next;
+
+    @Setup
+    public void setup() {
+        LocalDateTime now = LocalDateTime.now();
+        recent = FleetDataset.latestPositions(buses, now);
+        fleetState = FleetDataset.fleetState(recent);
+        trackingService = new TrackingService(null, null, null, null, null, null, null, null, null, null, null, 30, 30);
+        queries = FleetDataset.queryPoints(1024);
+        since = now.minusHours(1);
+    }
+
+    @Benchmark
+    public List<LocationResponse> streamFilter() {
+        double[] query = nextQuery();
+        return recent.stream()
+                .map(LocationResponse::fromDomain)
+                .filter(location -> trackingService.calculateDistance(query[0], query[1],
+                        location.getLatitude(), location.getLongitude()) <= radiusKm)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<LocationResponse> bulkKernel() {
+        double[] query = nextQuery();
+        List<LocationResponse> locations = recent.stream()
+                .map(LocationResponse::fromDomain)
+                .collect(Collectors.toList());
+        double[] latitudes = new double[locations.size()];
+        double[] longitudes = new double[locations.size()];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = locations.get(i).getLatitude();
+            longitudes[i] = locations.get(i).getLongitude();
+        }
+        double[] distances = new double[latitudes.length];
+        GeoDistanceKernel.distancesKm(query[0], query[1], GeoPoints.ofDegrees(latitudes, longitudes), distances);
+        List<LocationResponse> nearby = new ArrayList<>();
+        for (int i = 0; i < distances.length; i++) {
+            if (distances[i] <= radiusKm) {
+                nearby.add(locations.get(i));
+            }
+        }
+        return nearby;
+    }
+
+    @Benchmark
+    public List<BusLocation> liveFleetState() {
+        double[] query = nextQuery();
+        return fleetState.findNearby(query[0], query[1], radiusKm, since);
+    }
+
+    private double[] nextQuery() {
+        double[] query = queries[next];
+        next = (next + 1) & (queries.length - 1);
+        return query;
+    }
+}
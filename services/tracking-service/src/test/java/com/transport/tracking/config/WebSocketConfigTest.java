@@ -0,0 +1,129 @@
+package com.transport.tracking.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebSocketConfigTest {
+
+    private static final int BUFFER_LIMIT = 1024;
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final CountDownLatch sendStarted = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private WebSocketConfig.LiveSubProtocolWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new WebSocketConfig.LiveSubProtocolWebSocketHandler(
+                new ExecutorSubscribableChannel(), new ExecutorSubscribableChannel());
+        handler.setSendTimeLimit(60_000);
+        handler.setSendBufferSizeLimit(BUFFER_LIMIT);
+    }
+
+    @Test
+    void decoratorUsesTransportLimitsAndDropStrategy() {
+        ConcurrentWebSocketSessionDecorator decorated =
+                (ConcurrentWebSocketSessionDecorator) handler.decorateSession(slowSession());
+
+        assertEquals(60_000, decorated.getSendTimeLimit());
+        assertEquals(BUFFER_LIMIT, decorated.getBufferSizeLimit());
+        assertEquals(ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP, decorated.getOverflowStrategy());
+    }
+
+    @Test
+    void slowSubscriberOnlyLosesOldestFrames() throws Exception {
+        WebSocketSession session = handler.decorateSession(slowSession());
+
+        // Premier envoi bloqué côté client : les suivants s'accumulent dans le tampon
+        Thread sender = new Thread(() -> send(session, frame(0)));
+        sender.start();
+        assertTrue(sendStarted.await(5, TimeUnit.SECONDS));
+
+        int total = 200;
+        for (int i = 1; i < total; i++) {
+            send(session, frame(i));
+        }
+        assertFalse(closed.get(), "la session ne doit pas être fermée");
+
+        release.countDown();
+        sender.join(5_000);
+
+        assertTrue(received.size() < total, "des positions anciennes doivent être abandonnées");
+        assertEquals(frame(0), received.get(0));
+        assertEquals(frame(total - 1), received.get(received.size() - 1));
+        assertFalse(closed.get());
+        assertTrue(session.isOpen());
+    }
+
+    private static void send(WebSocketSession session, String payload) {
+        try {
+            session.sendMessage(new TextMessage(payload));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String frame(int index) {
+        return String.format("{\"seq\":%05d,\"payload\":\"%s\"}", index, "x".repeat(40));
+    }
+
+    /**
+     * Session dont le premier envoi reste bloqué jusqu'à release
+     */
+    private WebSocketSession slowSession() {
+        return (WebSocketSession) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebSocketSession.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "sendMessage" -> {
+                            String payload = ((WebSocketMessage<?>) args[0]).getPayload().toString();
+                            if (received.isEmpty()) {
+                                sendStarted.countDown();
+                                release.await(5, TimeUnit.SECONDS);
+                            }
+                            received.add(payload);
+                            return null;
+                        }
+                        case "close" -> {
+                            closed.set(true);
+                            return null;
+                        }
+                        case "isOpen" -> {
+                            return !closed.get();
+                        }
+                        case "getId" -> {
+                            return "session-1";
+                        }
+                        case "toString" -> {
+                            return "slowSession";
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        default -> {
+                            return null;
+                        }
+                    }
+                });
+    }
+}
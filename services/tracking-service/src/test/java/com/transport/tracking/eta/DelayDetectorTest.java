@@ -0,0 +1,150 @@
+package com.transport.tracking.eta;
+
+import com.transport.tracking.client.SchedulingClient;
+import com.transport.tracking.kafka.BusEventProducer;
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.network.RouteNetwork;
+import com.transport.tracking.network.RouteProgressTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.transport.tracking.eta.FakeSchedulingClient.stop;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DelayDetectorTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 5, 6);
+    private static final LocalDateTime DEPARTURE = MONDAY.atTime(8, 0);
+    private static final double LAT_START = 33.5731;
+    private static final double LAT_END = 33.5911;
+
+    // Retards publiés (minutes)
+    private final List<Integer> published = new ArrayList<>();
+
+    private RouteProgressTracker progressTracker;
+    private DelayDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        // Ligne 12 : deux arrêts, 10 min prévues, un seul départ le lundi à 08:00
+        SchedulingClient.Schedule schedule = new SchedulingClient.Schedule();
+        schedule.setActiveDays(List.of(DayOfWeek.MONDAY));
+        schedule.setDepartureTimes(List.of(LocalTime.of(8, 0)));
+        RouteNetwork routeNetwork = FakeSchedulingClient.network(
+                List.of(stop(1, LAT_START, null, 10), stop(2, LAT_END, null, null)), List.of(schedule));
+        progressTracker = new RouteProgressTracker(routeNetwork, 300, 3);
+        BusEventProducer producer = new BusEventProducer(null, new SimpleMeterRegistry(), 0, List.of()) {
+            @Override
+            public void publishDelayEvent(String busId, String busNumber, String routeNumber, int delayMinutes,
+                                          Double latitude, Double longitude, String message) {
+                published.add(delayMinutes);
+            }
+        };
+        // Seuils 5 et 10 min, hystérésis 2 min, 3 min d'avance tolérée, retard max 60 min
+        detector = new DelayDetector(routeNetwork, progressTracker, producer, true, new int[]{10, 5}, 2, 3, 60);
+    }
+
+    @Test
+    void onTimeBusPublishesNothing() {
+        for (int i = 0; i <= 10; i++) {
+            ping(i / 10.0, 0);
+        }
+
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    void oneEventPerLevelChange() {
+        ping(0.0, 0);
+        ping(0.1, 5);
+        ping(0.2, 6);
+        ping(0.3, 7);
+        ping(0.4, 11);
+        ping(0.5, 12);
+        ping(0.6, 30);
+
+        // Dernier seuil atteint : pas de nouvel événement au-delà
+        assertEquals(List.of(5, 11), published);
+    }
+
+    @Test
+    void hysteresisDelaysLevelDecrease() {
+        ping(0.0, 0);
+        ping(0.1, 5);
+        // Sous le seuil de 5 min mais pas sous 5 - 2 : niveau conservé
+        ping(0.2, 4);
+        ping(0.3, 3);
+        ping(0.4, 4);
+        assertEquals(List.of(5), published);
+
+        // Sous 3 min : retour à l'heure, sans événement
+        ping(0.5, 2);
+        assertEquals(List.of(5), published);
+
+        // Nouveau franchissement du seuil
+        ping(0.6, 5);
+        assertEquals(List.of(5, 5), published);
+    }
+
+    @Test
+    void levelDecreaseAboveZeroIsPublished() {
+        ping(0.0, 0);
+        ping(0.1, 11);
+        ping(0.2, 9);
+        ping(0.3, 7);
+
+        assertEquals(List.of(11, 7), published);
+    }
+
+    @Test
+    void busOutsideTimetableIsNotReported() {
+        // Après le dernier départ : le trajet de 08:00 donnerait plusieurs heures de retard
+        for (int i = 0; i <= 5; i++) {
+            ping(MONDAY.atTime(14, i), i / 10.0);
+        }
+        // Avant le premier départ du jour (rattachement à la veille impossible)
+        for (int i = 0; i <= 5; i++) {
+            ping(MONDAY.plusDays(1).atTime(6, i), i / 10.0);
+        }
+
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    void lateBusBeyondMaxDelayIsNotReportedRepeatedly() {
+        ping(0.0, 0);
+        ping(0.1, 11);
+        // Au-delà du retard max, le bus ne correspond plus à aucun trajet
+        ping(0.2, 90);
+        ping(0.3, 91);
+        ping(0.4, 92);
+
+        assertEquals(List.of(11), published);
+    }
+
+    // Position à une fraction de la ligne, avec un retard donné sur le départ de 08:00
+    private void ping(double fraction, int delayMinutes) {
+        ping(DEPARTURE.plusSeconds(Math.round(fraction * 600) + delayMinutes * 60L), fraction);
+    }
+
+    private void ping(LocalDateTime at, double fraction) {
+        BusLocation location = new BusLocation();
+        location.setBusId("bus-1");
+        location.setBusNumber("B-1");
+        location.setRouteNumber("12");
+        location.setLatitude(LAT_START + (LAT_END - LAT_START) * fraction);
+        location.setLongitude(FakeSchedulingClient.LONGITUDE);
+        location.setTimestamp(at);
+        progressTracker.enrich(location);
+        detector.onLocation(location);
+    }
+}
@@ -0,0 +1,161 @@
+package com.transport.tracking.eta;
+
+import com.transport.tracking.dto.EtaResponse;
+import com.transport.tracking.dto.EtaResponse.EtaSource;
+import com.transport.tracking.geo.SpatialGridIndex;
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.network.RouteNetwork;
+import com.transport.tracking.network.RouteProgressTracker;
+import com.transport.tracking.state.LiveFleetState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.transport.tracking.eta.FakeSchedulingClient.stop;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EtaEngineTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 6, 8, 0);
+    private static final double STOP_1 = 33.5731;
+    private static final double STOP_2 = 33.5821;
+    private static final double STOP_3 = 33.5911;
+
+    private LiveFleetState fleetState;
+    private EtaEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        // Segment 0 : 10 min prévues ; segment 1 : 2 km sans durée (20 km/h -> 6 min)
+        RouteNetwork routeNetwork = FakeSchedulingClient.network(List.of(
+                stop(1, STOP_1, null, 10),
+                stop(2, STOP_2, 2.0, null),
+                stop(3, STOP_3, null, null)), List.of());
+        fleetState = new LiveFleetState(null, new SpatialGridIndex(0.01), 24);
+        engine = new EtaEngine(fleetState, routeNetwork, new RouteProgressTracker(routeNetwork, 300, 3), 20);
+    }
+
+    @Test
+    void unknownEtaWithoutLivePosition() {
+        EtaResponse response = engine.predict("bus-1");
+
+        assertEquals("bus-1", response.getBusId());
+        assertNull(response.getRouteNumber());
+        assertNull(response.getPositionTimestamp());
+        assertTrue(response.getStops().isEmpty());
+    }
+
+    @Test
+    void unknownEtaWithoutCoordinates() {
+        fleetState.update(location(null, null, T0));
+
+        EtaResponse response = engine.predict("bus-1");
+
+        assertEquals("12", response.getRouteNumber());
+        assertEquals(T0, response.getPositionTimestamp());
+        assertTrue(response.getStops().isEmpty());
+    }
+
+    @Test
+    void unknownEtaWithoutTimestamp() {
+        fleetState.update(location(STOP_1, FakeSchedulingClient.LONGITUDE, null));
+
+        assertTrue(engine.predict("bus-1").getStops().isEmpty());
+    }
+
+    @Test
+    void unknownRouteIsRejected() {
+        BusLocation location = location(STOP_1, FakeSchedulingClient.LONGITUDE, T0);
+        location.setRouteNumber("99");
+        fleetState.update(location);
+
+        assertThrows(IllegalArgumentException.class, () -> engine.predict("bus-1"));
+    }
+
+    @Test
+    void withoutModelUsesScheduleThenDefaultSpeed() {
+        fleetState.update(location(STOP_1, FakeSchedulingClient.LONGITUDE, T0));
+
+        List<EtaResponse.StopEta> stops = engine.predict("bus-1").getStops();
+
+        assertEquals(2, stops.size());
+        assertEquals(1, stops.get(0).getStopIndex());
+        assertEquals(EtaSource.SCHEDULE, stops.get(0).getSource());
+        assertEquals(T0.plusMinutes(10), stops.get(0).getEstimatedArrival());
+        assertEquals(EtaSource.DEFAULT, stops.get(1).getSource());
+        assertEquals(T0.plusMinutes(16), stops.get(1).getEstimatedArrival());
+    }
+
+    @Test
+    void remainingPartOfCurrentSegmentOnly() {
+        fleetState.update(location((STOP_1 + STOP_2) / 2, FakeSchedulingClient.LONGITUDE, T0));
+
+        List<EtaResponse.StopEta> stops = engine.predict("bus-1").getStops();
+
+        assertArrivalNear(T0.plusMinutes(5), stops.get(0).getEstimatedArrival());
+        assertArrivalNear(T0.plusMinutes(11), stops.get(1).getEstimatedArrival());
+    }
+
+    @Test
+    void historyIsUsedWithEnoughSamples() {
+        engine.setModel(model(8, 300, 300, 300));
+        fleetState.update(location(STOP_1, FakeSchedulingClient.LONGITUDE, T0));
+
+        EtaResponse.StopEta first = engine.predict("bus-1").getStops().get(0);
+
+        assertEquals(EtaSource.HISTORY, first.getSource());
+        assertArrivalNear(T0.plusMinutes(5), first.getEstimatedArrival());
+    }
+
+    @Test
+    void neighbouringHourIsUsedWhenHourHasNoSamples() {
+        engine.setModel(model(9, 300, 300, 300));
+        fleetState.update(location(STOP_1, FakeSchedulingClient.LONGITUDE, T0));
+
+        assertEquals(EtaSource.HISTORY, engine.predict("bus-1").getStops().get(0).getSource());
+    }
+
+    @Test
+    void tooFewSamplesFallBackToSchedule() {
+        engine.setModel(model(8, 300, 300));
+        fleetState.update(location(STOP_1, FakeSchedulingClient.LONGITUDE, T0));
+
+        EtaResponse.StopEta first = engine.predict("bus-1").getStops().get(0);
+
+        assertEquals(EtaSource.SCHEDULE, first.getSource());
+        assertEquals(T0.plusMinutes(10), first.getEstimatedArrival());
+    }
+
+    // Modèle avec des temps observés pour le segment 0 à une heure donnée
+    private static EtaModel model(int hour, double... seconds) {
+        TravelTimeHistogram segment = new TravelTimeHistogram();
+        for (double value : seconds) {
+            segment.add(hour, value);
+        }
+        return new EtaModel(Map.of("12", new TravelTimeHistogram[] {segment, new TravelTimeHistogram()}),
+                T0, seconds.length);
+    }
+
+    // Classes de l'histogramme (~10 %) et arrondi de la projection
+    private static void assertArrivalNear(LocalDateTime expected, LocalDateTime actual) {
+        long seconds = Math.abs(Duration.between(expected, actual).getSeconds());
+        assertTrue(seconds <= 30, "arrivée " + actual + " au lieu de " + expected);
+    }
+
+    private static BusLocation location(Double latitude, Double longitude, LocalDateTime timestamp) {
+        BusLocation location = new BusLocation();
+        location.setBusId("bus-1");
+        location.setRouteNumber("12");
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        location.setTimestamp(timestamp);
+        return location;
+    }
+}
@@ -0,0 +1,166 @@
+package com.transport.tracking.eta;
+
+import com.transport.tracking.geo.SpatialGridIndex;
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.network.RouteNetwork;
+import com.transport.tracking.network.RouteProgressTracker;
+import com.transport.tracking.state.LiveFleetState;
+import com.transport.tracking.storage.LocationHistoryReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.transport.tracking.eta.FakeSchedulingClient.stop;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EtaTrainerTest {
+
+    // Arrêts espacés d'environ 1 km
+    private static final double STOP_1 = 33.5731;
+    private static final double STOP_2 = 33.5821;
+    private static final double STOP_3 = 33.5911;
+    private static final double PRECISION = 0.10;
+
+    private final LocalDateTime departure = LocalDate.now().minusDays(1).atTime(8, 0);
+
+    // Historique du bus simulé, dans l'ordre chronologique
+    private final List<BusLocation> history = new ArrayList<>();
+
+    private EtaEngine engine;
+    private EtaTrainer trainer;
+
+    @BeforeEach
+    void setUp() {
+        RouteNetwork routeNetwork = FakeSchedulingClient.network(List.of(
+                stop(1, STOP_1, null, 10),
+                stop(2, STOP_2, null, 10),
+                stop(3, STOP_3, null, null)), List.of());
+        engine = new EtaEngine(new LiveFleetState(null, new SpatialGridIndex(0.01), 24), routeNetwork,
+                new RouteProgressTracker(routeNetwork, 300, 3), 20);
+        LocationHistoryReader reader = new LocationHistoryReader(null, null) {
+            @Override
+            public void read(String busId, LocalDateTime start, LocalDateTime end, Consumer<BusLocation> consumer) {
+                history.stream()
+                        .filter(location -> !location.getTimestamp().isBefore(start)
+                                && !location.getTimestamp().isAfter(end))
+                        .forEach(consumer);
+            }
+
+            @Override
+            public Set<String> busIdsOnRoute(String routeNumber, LocalDateTime start, LocalDateTime end) {
+                return Set.of("bus-1");
+            }
+        };
+        // 7 jours, rayon de 60 m autour des arrêts, trou max 10 min
+        trainer = new EtaTrainer(reader, routeNetwork, engine, 7, 60, 10);
+    }
+
+    @Test
+    void consecutivePassagesGiveSegmentTimes() {
+        LocalDateTime at = drive(departure, STOP_1, STOP_2, 300, "12");
+        at = drive(at, STOP_2, STOP_3, 360, "12");
+        dwell(at, STOP_3, 60, "12");
+
+        trainer.train();
+
+        assertSegment(0, 1, 300);
+        assertSegment(1, 1, 360);
+        assertEquals(2, engine.getModel().getObservations());
+    }
+
+    @Test
+    void passagesAreDatedAtClosestPoint() {
+        // Arrêt de 2 min à l'arrêt 2 : le passage est daté au premier point le plus proche
+        LocalDateTime at = drive(departure, STOP_1, STOP_2, 300, "12");
+        at = dwell(at, STOP_2, 120, "12");
+        at = drive(at, STOP_2, STOP_3, 360, "12");
+        dwell(at, STOP_3, 60, "12");
+
+        trainer.train();
+
+        assertSegment(0, 1, 300);
+        assertSegment(1, 1, 480);
+    }
+
+    @Test
+    void gapSplitsTrip() {
+        // Aucune position pendant 12 min entre les arrêts 1 et 2
+        LocalDateTime at = drive(departure, STOP_1, (STOP_1 + STOP_2) / 2, 150, "12");
+        at = drive(at.plusMinutes(12), (STOP_1 + STOP_2) / 2, STOP_2, 150, "12");
+        at = drive(at, STOP_2, STOP_3, 360, "12");
+        dwell(at, STOP_3, 60, "12");
+
+        trainer.train();
+
+        assertEquals(0, engine.getModel().segment("12", 0).count(8));
+        assertSegment(1, 1, 360);
+    }
+
+    @Test
+    void shortGapKeepsTrip() {
+        LocalDateTime at = drive(departure, STOP_1, (STOP_1 + STOP_2) / 2, 150, "12");
+        at = drive(at.plusMinutes(8), (STOP_1 + STOP_2) / 2, STOP_2, 150, "12");
+        dwell(at, STOP_2, 60, "12");
+
+        trainer.train();
+
+        assertSegment(0, 1, 780);
+    }
+
+    @Test
+    void skippedStopGivesNoObservation() {
+        // Passage à l'arrêt 1 puis directement à l'arrêt 3 (arrêt 2 contourné, hors rayon)
+        drive(departure, STOP_1, STOP_2 - 0.001, 270, "12");
+        history.add(location(departure.plusSeconds(290), STOP_2 + 0.001, "12"));
+        drive(departure.plusSeconds(300), STOP_2 + 0.001, STOP_3, 330, "12");
+
+        trainer.train();
+
+        assertEquals(0, engine.getModel().getObservations());
+    }
+
+    @Test
+    void positionsOnOtherRoutesAreIgnored() {
+        LocalDateTime at = drive(departure, STOP_1, STOP_2, 300, "7");
+        dwell(at, STOP_2, 60, "7");
+
+        trainer.train();
+
+        assertEquals(0, engine.getModel().segment("12", 0).count(8));
+        assertEquals(0, engine.getModel().getObservations());
+    }
+
+    private void assertSegment(int segment, int count, double seconds) {
+        TravelTimeHistogram histogram = engine.getModel().segment("12", segment);
+        assertEquals(count, histogram.count(8));
+        assertEquals(seconds, histogram.quantile(8, 0.5), seconds * PRECISION);
+    }
+
+    // Trajet en ligne droite, une position toutes les 10 s ; renvoie l'heure d'arrivée
+    private LocalDateTime drive(LocalDateTime from, double latFrom, double latTo, int seconds, String route) {
+        for (int s = 0; s < seconds; s += 10) {
+            history.add(location(from.plusSeconds(s), latFrom + (latTo - latFrom) * s / seconds, route));
+        }
+        return from.plusSeconds(seconds);
+    }
+
+    private LocalDateTime dwell(LocalDateTime from, double latitude, int seconds, String route) {
+        return drive(from, latitude, latitude, seconds, route);
+    }
+
+    private static BusLocation location(LocalDateTime at, double latitude, String route) {
+        BusLocation location = new BusLocation();
+        location.setBusId("bus-1");
+        location.setRouteNumber(route);
+        location.setLatitude(latitude);
+        location.setLongitude(FakeSchedulingClient.LONGITUDE);
+        location.setTimestamp(at);
+        return location;
+    }
+}
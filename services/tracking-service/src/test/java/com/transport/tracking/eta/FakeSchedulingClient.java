@@ -0,0 +1,61 @@
+package com.transport.tracking.eta;
+
+import com.transport.tracking.client.SchedulingClient;
+import com.transport.tracking.network.RouteNetwork;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * scheduling-service simulé : une ligne "12" le long d'un méridien
+ */
+class FakeSchedulingClient extends SchedulingClient {
+
+    static final String ROUTE = "12";
+    static final double LONGITUDE = -7.5898;
+
+    private final List<Stop> stops;
+    private final List<Schedule> schedules;
+
+    FakeSchedulingClient(List<Stop> stops, List<Schedule> schedules) {
+        super(new ReactorLoadBalancerExchangeFilterFunction(null, List.of()), "http://localhost", 1000);
+        this.stops = stops;
+        this.schedules = schedules;
+    }
+
+    /**
+     * Réseau chargé avec la ligne, vitesse par défaut 20 km/h
+     */
+    static RouteNetwork network(List<Stop> stops, List<Schedule> schedules) {
+        RouteNetwork network = new RouteNetwork(new FakeSchedulingClient(stops, schedules), 20);
+        network.refresh();
+        return network;
+    }
+
+    static Stop stop(int order, double latitude, Double distanceToNext, Integer durationToNext) {
+        Stop stop = new Stop();
+        stop.setId(UUID.randomUUID());
+        stop.setName("Arrêt " + order);
+        stop.setSequenceOrder(order);
+        stop.setLatitude(latitude);
+        stop.setLongitude(LONGITUDE);
+        stop.setDistanceToNext(distanceToNext);
+        stop.setDurationToNext(durationToNext);
+        return stop;
+    }
+
+    @Override
+    public List<Route> getRoutes() {
+        Route route = new Route();
+        route.setId(UUID.nameUUIDFromBytes(ROUTE.getBytes()));
+        route.setRouteNumber(ROUTE);
+        route.setStops(stops);
+        return List.of(route);
+    }
+
+    @Override
+    public List<Schedule> getSchedules(UUID routeId) {
+        return schedules;
+    }
+}
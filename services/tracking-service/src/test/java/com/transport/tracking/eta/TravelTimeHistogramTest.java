@@ -0,0 +1,67 @@
+package com.transport.tracking.eta;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TravelTimeHistogramTest {
+
+    // Demi-largeur d'une classe logarithmique (~10 %)
+    private static final double PRECISION = 0.10;
+
+    @Test
+    void quantilesAreWithinBinPrecision() {
+        TravelTimeHistogram histogram = new TravelTimeHistogram();
+        for (double seconds : new double[] {60, 65, 70, 300, 320}) {
+            histogram.add(8, seconds);
+        }
+
+        assertEquals(5, histogram.count(8));
+        assertEquals(65, histogram.quantile(8, 0.5), 65 * PRECISION);
+        assertEquals(60, histogram.quantile(8, 0.0), 60 * PRECISION);
+        assertEquals(320, histogram.quantile(8, 1.0), 320 * PRECISION);
+    }
+
+    @Test
+    void medianFollowsMajority() {
+        TravelTimeHistogram histogram = new TravelTimeHistogram();
+        for (int i = 0; i < 3; i++) {
+            histogram.add(17, 600);
+        }
+        histogram.add(17, 30);
+        histogram.add(17, 1800);
+
+        assertEquals(600, histogram.quantile(17, 0.5), 600 * PRECISION);
+    }
+
+    @Test
+    void hoursAreIndependent() {
+        TravelTimeHistogram histogram = new TravelTimeHistogram();
+        histogram.add(7, 120);
+        histogram.add(8, 900);
+
+        assertEquals(1, histogram.count(7));
+        assertEquals(1, histogram.count(8));
+        assertEquals(0, histogram.count(9));
+        assertEquals(120, histogram.quantile(7, 0.5), 120 * PRECISION);
+        assertEquals(900, histogram.quantile(8, 0.5), 900 * PRECISION);
+        assertTrue(Double.isNaN(histogram.quantile(9, 0.5)));
+    }
+
+    @Test
+    void valuesOutsideRangeAreIgnored() {
+        TravelTimeHistogram histogram = new TravelTimeHistogram();
+        histogram.add(8, 5);
+        histogram.add(8, 4000);
+
+        assertEquals(0, histogram.count(8));
+
+        // Bornes incluses
+        histogram.add(8, 10);
+        histogram.add(8, 3600);
+        assertEquals(2, histogram.count(8));
+        assertEquals(10, histogram.quantile(8, 0.0), 10 * PRECISION);
+        assertEquals(3600, histogram.quantile(8, 1.0), 3600 * PRECISION);
+    }
+}
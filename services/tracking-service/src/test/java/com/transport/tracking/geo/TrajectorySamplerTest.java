@@ -0,0 +1,117 @@
+package com.transport.tracking.geo;
+
+import com.transport.tracking.dto.LocationPoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TrajectorySamplerTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 6, 8, 0);
+    // ~11 m de latitude
+    private static final double STEP = 1e-4;
+
+    private final List<LocationPoint> kept = new ArrayList<>();
+
+    @Test
+    void disabledFiltersKeepEveryPoint() {
+        TrajectorySampler sampler = new TrajectorySampler(0, 0, kept::add);
+        for (int i = 0; i < 10; i++) {
+            sampler.accept(point(i, 33.5731, -7.5898));
+        }
+        sampler.finish();
+
+        assertEquals(10, kept.size());
+        assertEquals(10, sampler.getEmitted());
+    }
+
+    @Test
+    void resolutionKeepsAtMostOnePointPerInterval() {
+        TrajectorySampler sampler = new TrajectorySampler(30, 0, kept::add);
+        // Un point toutes les 5 s pendant 2 min
+        for (int i = 0; i <= 24; i++) {
+            sampler.accept(point(i * 5, 33.5731 + i * STEP, -7.5898));
+        }
+        sampler.finish();
+
+        List<Integer> seconds = kept.stream()
+                .map(p -> (int) Duration.between(T0, p.getTimestamp()).getSeconds())
+                .toList();
+        assertEquals(List.of(0, 30, 60, 90, 120), seconds);
+    }
+
+    @Test
+    void toleranceDropsPointsCloseToLastKept() {
+        TrajectorySampler sampler = new TrajectorySampler(0, 50, kept::add);
+        // Bus à l'arrêt puis déplacement de ~11 m par point
+        for (int i = 0; i < 5; i++) {
+            sampler.accept(point(i, 33.5731, -7.5898));
+        }
+        for (int i = 1; i <= 10; i++) {
+            sampler.accept(point(4 + i, 33.5731 + i * STEP, -7.5898));
+        }
+
+        // Premier point, puis un point tous les ~55 m (5 pas)
+        assertEquals(3, kept.size());
+        assertEquals(33.5731, kept.get(0).getLatitude(), 1e-9);
+        assertEquals(33.5731 + 5 * STEP, kept.get(1).getLatitude(), 1e-9);
+        assertEquals(33.5731 + 10 * STEP, kept.get(2).getLatitude(), 1e-9);
+    }
+
+    @Test
+    void finishEmitsLastDroppedPoint() {
+        TrajectorySampler sampler = new TrajectorySampler(60, 0, kept::add);
+        sampler.accept(point(0, 33.5731, -7.5898));
+        sampler.accept(point(10, 33.5732, -7.5898));
+        LocationPoint last = point(20, 33.5733, -7.5898);
+        sampler.accept(last);
+
+        assertEquals(1, kept.size());
+        sampler.finish();
+
+        assertEquals(2, kept.size());
+        assertSame(last, kept.get(1));
+        assertEquals(2, sampler.getEmitted());
+    }
+
+    @Test
+    void finishDoesNotRepeatLastKeptPoint() {
+        TrajectorySampler sampler = new TrajectorySampler(10, 0, kept::add);
+        sampler.accept(point(0, 33.5731, -7.5898));
+        sampler.accept(point(10, 33.5732, -7.5898));
+        sampler.finish();
+        sampler.finish();
+
+        assertEquals(2, kept.size());
+    }
+
+    @Test
+    void pointsWithoutPositionBypassDistanceFilter() {
+        TrajectorySampler sampler = new TrajectorySampler(0, 50, kept::add);
+        sampler.accept(point(0, 33.5731, -7.5898));
+        sampler.accept(point(1, null, null));
+
+        assertEquals(2, kept.size());
+    }
+
+    @Test
+    void rejectsNegativeSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TrajectorySampler(-1, 0, kept::add));
+        assertThrows(IllegalArgumentException.class, () -> new TrajectorySampler(0, -1, kept::add));
+    }
+
+    private static LocationPoint point(int seconds, Double latitude, Double longitude) {
+        LocationPoint point = new LocationPoint();
+        point.setTimestamp(T0.plusSeconds(seconds));
+        point.setLatitude(latitude);
+        point.setLongitude(longitude);
+        return point;
+    }
+}
@@ -0,0 +1,137 @@
+package com.transport.tracking.ingest;
+
+import com.transport.tracking.model.BusLocation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PingSuppressorTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 6, 8, 0);
+
+    private PingSuppressor suppressor;
+
+    @BeforeEach
+    void setUp() {
+        suppressor = new PingSuppressor(new SimpleMeterRegistry(), true, 10, 15, 30);
+    }
+
+    @Test
+    void firstPingIsAdmitted() {
+        assertTrue(suppressor.admit(ping("loc-1", 0, 33.5731, -7.5898, 90.0)));
+    }
+
+    @Test
+    void unchangedPingIsSuppressedOnceReferenceIsCommitted() {
+        BusLocation written = ping("loc-1", 0, 33.5731, -7.5898, 90.0);
+        assertTrue(suppressor.admit(written));
+        suppressor.commit(written);
+
+        BusLocation same = ping(null, 10, 33.5731, -7.5898, 90.0);
+        assertFalse(suppressor.admit(same));
+        assertEquals("loc-1", same.getId());
+    }
+
+    @Test
+    void pingIsAdmittedAgainWhenWriteFailed() {
+        BusLocation failed = ping("loc-1", 0, 33.5731, -7.5898, 90.0);
+        assertTrue(suppressor.admit(failed));
+        // Écriture échouée : pas de commit
+
+        BusLocation retry = ping("loc-2", 10, 33.5731, -7.5898, 90.0);
+        assertTrue(suppressor.admit(retry), "retry must be written after a failed write");
+        suppressor.commit(retry);
+
+        assertFalse(suppressor.admit(ping(null, 20, 33.5731, -7.5898, 90.0)));
+    }
+
+    @Test
+    void movementBeyondMinDistanceIsAdmitted() {
+        commit(ping("loc-1", 0, 33.5731, -7.5898, 90.0));
+
+        // ~5 m puis ~22 m vers le nord
+        assertFalse(suppressor.admit(ping(null, 5, 33.57315, -7.5898, 90.0)));
+        assertTrue(suppressor.admit(ping(null, 5, 33.5733, -7.5898, 90.0)));
+    }
+
+    @Test
+    void headingChangeIsMeasuredAcrossNorth() {
+        commit(ping("loc-1", 0, 33.5731, -7.5898, 350.0));
+
+        assertFalse(suppressor.admit(ping(null, 5, 33.5731, -7.5898, 0.0)));
+        assertTrue(suppressor.admit(ping(null, 5, 33.5731, -7.5898, 5.0)));
+    }
+
+    @Test
+    void maxIntervalForcesWrite() {
+        commit(ping("loc-1", 0, 33.5731, -7.5898, 90.0));
+
+        assertFalse(suppressor.admit(ping(null, 29, 33.5731, -7.5898, 90.0)));
+        assertTrue(suppressor.admit(ping(null, 30, 33.5731, -7.5898, 90.0)));
+    }
+
+    @Test
+    void passengerOrRouteChangeIsAdmitted() {
+        BusLocation reference = ping("loc-1", 0, 33.5731, -7.5898, 90.0);
+        reference.setCurrentPassengers(12);
+        commit(reference);
+
+        BusLocation boarding = ping(null, 5, 33.5731, -7.5898, 90.0);
+        boarding.setCurrentPassengers(15);
+        assertTrue(suppressor.admit(boarding));
+
+        BusLocation otherRoute = ping(null, 5, 33.5731, -7.5898, 90.0);
+        otherRoute.setRouteNumber("L2");
+        assertTrue(suppressor.admit(otherRoute));
+    }
+
+    @Test
+    void olderCommitDoesNotReplaceReference() {
+        commit(ping("loc-2", 10, 33.5731, -7.5898, 90.0));
+        suppressor.commit(ping("loc-1", 0, 33.5731, -7.5898, 90.0));
+
+        BusLocation same = ping(null, 15, 33.5731, -7.5898, 90.0);
+        assertFalse(suppressor.admit(same));
+        assertEquals("loc-2", same.getId());
+    }
+
+    @Test
+    void forgetResetsReference() {
+        commit(ping("loc-1", 0, 33.5731, -7.5898, 90.0));
+        suppressor.forget("bus-1");
+
+        assertTrue(suppressor.admit(ping(null, 5, 33.5731, -7.5898, 90.0)));
+    }
+
+    @Test
+    void disabledSuppressorAdmitsEverything() {
+        PingSuppressor disabled = new PingSuppressor(new SimpleMeterRegistry(), false, 10, 15, 30);
+        BusLocation written = ping("loc-1", 0, 33.5731, -7.5898, 90.0);
+        disabled.commit(written);
+
+        assertTrue(disabled.admit(ping(null, 5, 33.5731, -7.5898, 90.0)));
+    }
+
+    private void commit(BusLocation location) {
+        assertTrue(suppressor.admit(location));
+        suppressor.commit(location);
+    }
+
+    private static BusLocation ping(String id, int seconds, double latitude, double longitude, Double heading) {
+        BusLocation location = new BusLocation();
+        location.setId(id);
+        location.setBusId("bus-1");
+        location.setRouteNumber("L1");
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        location.setHeading(heading);
+        location.setTimestamp(T0.plusSeconds(seconds));
+        return location;
+    }
+}
@@ -0,0 +1,144 @@
+package com.transport.tracking.kafka;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventCoalescerTest {
+
+    private static final String TOPIC = "bus-events";
+
+    private final List<String> topics = new CopyOnWriteArrayList<>();
+    private final List<BusEventNotification> published = new CopyOnWriteArrayList<>();
+
+    private EventCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        if (coalescer != null) {
+            coalescer.shutdown();
+        }
+    }
+
+    @Test
+    void eventsWithSameKeyAreMergedWithinWindow() {
+        coalescer = coalescer(Duration.ofMinutes(1));
+
+        coalescer.submit(TOPIC, delay("bus-1", "12", 5, "LOW"));
+        coalescer.submit(TOPIC, delay("bus-1", "12", 8, "LOW"));
+        coalescer.submit(TOPIC, delay("bus-1", "12", 11, "LOW"));
+        assertTrue(published.isEmpty(), "rien n'est publié avant la fin de la fenêtre");
+
+        coalescer.flushAll();
+
+        assertEquals(1, published.size());
+        assertEquals(TOPIC, topics.get(0));
+        // Contenu du dernier événement
+        assertEquals(11, published.get(0).getDelayMinutes().intValue());
+    }
+
+    @Test
+    void differentTypeRouteOrBusAreNotMerged() {
+        coalescer = coalescer(Duration.ofMinutes(1));
+
+        coalescer.submit(TOPIC, delay("bus-1", "12", 5, "LOW"));
+        coalescer.submit(TOPIC, delay("bus-2", "12", 5, "LOW"));
+        coalescer.submit(TOPIC, delay("bus-1", "7", 5, "LOW"));
+        coalescer.submit(TOPIC, event(BusEventType.BREAKDOWN, "bus-1", "12", null, "HIGH"));
+        coalescer.flushAll();
+
+        assertEquals(4, published.size());
+        published.forEach(event -> assertNull(event.getMetadata()));
+    }
+
+    @Test
+    void highestPriorityOfWindowIsKept() {
+        coalescer = coalescer(Duration.ofMinutes(1));
+
+        coalescer.submit(TOPIC, delay("bus-1", "12", 5, "MEDIUM"));
+        coalescer.submit(TOPIC, delay("bus-1", "12", 20, "URGENT"));
+        coalescer.submit(TOPIC, delay("bus-1", "12", 9, "LOW"));
+        coalescer.flushAll();
+
+        assertEquals(1, published.size());
+        assertEquals("URGENT", published.get(0).getPriority());
+        assertEquals(9, published.get(0).getDelayMinutes().intValue());
+    }
+
+    @Test
+    void mergedCountIsAddedToMetadata() {
+        coalescer = coalescer(Duration.ofMinutes(1));
+
+        coalescer.submit(TOPIC, delay("bus-1", "12", 5, "LOW"));
+        coalescer.submit(TOPIC, delay("bus-1", "12", 6, "LOW"));
+        BusEventNotification last = delay("bus-1", "12", 7, "LOW");
+        last.setMetadata("source=detector");
+        coalescer.submit(TOPIC, last);
+        coalescer.submit(TOPIC, delay("bus-2", "12", 3, "LOW"));
+        coalescer.submit(TOPIC, delay("bus-2", "12", 4, "LOW"));
+        coalescer.flushAll();
+
+        assertEquals(2, published.size());
+        List<BusEventNotification> sorted = published.stream()
+                .sorted(Comparator.comparing(BusEventNotification::getBusId))
+                .toList();
+        assertEquals("source=detector;coalesced=3", sorted.get(0).getMetadata());
+        assertEquals("coalesced=2", sorted.get(1).getMetadata());
+    }
+
+    @Test
+    void eventAfterWindowExpiryStartsNewWindow() throws InterruptedException {
+        coalescer = coalescer(Duration.ofMillis(200));
+
+        coalescer.submit(TOPIC, delay("bus-1", "12", 5, "LOW"));
+        coalescer.submit(TOPIC, delay("bus-1", "12", 6, "LOW"));
+        awaitPublished(1);
+
+        assertEquals(6, published.get(0).getDelayMinutes().intValue());
+        assertEquals("coalesced=2", published.get(0).getMetadata());
+
+        coalescer.submit(TOPIC, delay("bus-1", "12", 7, "LOW"));
+        awaitPublished(2);
+
+        assertEquals(7, published.get(1).getDelayMinutes().intValue());
+        assertNull(published.get(1).getMetadata());
+    }
+
+    private EventCoalescer coalescer(Duration window) {
+        return new EventCoalescer(window, (topic, event) -> {
+            topics.add(topic);
+            published.add(event);
+        });
+    }
+
+    private void awaitPublished(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (published.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, published.size());
+    }
+
+    private static BusEventNotification delay(String busId, String route, int minutes, String priority) {
+        return event(BusEventType.DELAY, busId, route, minutes, priority);
+    }
+
+    private static BusEventNotification event(BusEventType type, String busId, String route,
+                                              Integer delayMinutes, String priority) {
+        return BusEventNotification.builder()
+                .eventType(type)
+                .busId(busId)
+                .routeNumber(route)
+                .delayMinutes(delayMinutes)
+                .priority(priority)
+                .build();
+    }
+}
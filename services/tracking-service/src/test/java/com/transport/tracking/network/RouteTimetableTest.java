@@ -0,0 +1,116 @@
+package com.transport.tracking.network;
+
+import com.transport.tracking.client.SchedulingClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteTimetableTest {
+
+    // Lundi
+    private static final LocalDate MONDAY = LocalDate.of(2024, 5, 6);
+
+    private RouteStops route;
+
+    @BeforeEach
+    void setUp() {
+        // Segment 0 : 5 min prévues ; segment 1 : 2 km sans durée (20 km/h -> 6 min)
+        SchedulingClient.Route source = new SchedulingClient.Route();
+        source.setId(UUID.randomUUID());
+        source.setRouteNumber("12");
+        source.setStops(List.of(
+                stop(1, 33.5731, -7.5898, null, 5),
+                stop(2, 33.5800, -7.5898, 2.0, null),
+                stop(3, 33.5980, -7.5898, null, null)));
+        route = RouteStops.from(source);
+    }
+
+    @Test
+    void offsetUsesScheduledDurationThenDefaultSpeed() {
+        RouteTimetable timetable = RouteTimetable.from(route, List.of(), 20);
+
+        assertEquals(0, timetable.offsetSeconds(new RouteProgress(0, 0, 0)), 1e-9);
+        assertEquals(150, timetable.offsetSeconds(new RouteProgress(0, 0.5, 0)), 1e-9);
+        assertEquals(480, timetable.offsetSeconds(new RouteProgress(1, 0.5, 0)), 1e-9);
+        assertEquals(660, timetable.offsetSeconds(new RouteProgress(1, 1, 0)), 1e-9);
+    }
+
+    @Test
+    void tripDepartureIsLatestCompatibleDeparture() {
+        RouteTimetable timetable = RouteTimetable.from(route, List.of(
+                fixed(List.of(DayOfWeek.MONDAY), LocalTime.of(8, 30), LocalTime.of(8, 0), LocalTime.of(8, 15))), 20);
+
+        // 08:20 à 5 min du départ, 1 min d'avance tolérée : départ au plus tard à 08:16
+        assertEquals(MONDAY.atTime(8, 15), timetable.tripDeparture(MONDAY.atTime(8, 20), 300, 60));
+        assertEquals(MONDAY.atTime(8, 0), timetable.tripDeparture(MONDAY.atTime(8, 14), 300, 0));
+        assertNull(timetable.tripDeparture(MONDAY.atTime(8, 2), 300, 0));
+    }
+
+    @Test
+    void frequencyScheduleExpandsDepartures() {
+        SchedulingClient.Schedule schedule = new SchedulingClient.Schedule();
+        schedule.setActiveDays(List.of(DayOfWeek.MONDAY));
+        schedule.setStartTime(LocalTime.of(6, 0));
+        schedule.setEndTime(LocalTime.of(7, 0));
+        schedule.setFrequency(20);
+        RouteTimetable timetable = RouteTimetable.from(route, List.of(schedule), 20);
+
+        assertEquals(MONDAY.atTime(6, 40), timetable.tripDeparture(MONDAY.atTime(6, 59), 0, 0));
+        assertEquals(MONDAY.atTime(7, 0), timetable.tripDeparture(MONDAY.atTime(9, 0), 0, 0));
+    }
+
+    @Test
+    void tripStartedBeforeMidnightIsFoundOnPreviousDay() {
+        RouteTimetable timetable = RouteTimetable.from(route, List.of(
+                fixed(List.of(DayOfWeek.MONDAY), LocalTime.of(23, 50))), 20);
+
+        LocalDate tuesday = MONDAY.plusDays(1);
+        assertEquals(MONDAY.atTime(23, 50), timetable.tripDeparture(tuesday.atTime(0, 10), 600, 0));
+    }
+
+    @Test
+    void inactiveSchedulesAndOtherDaysAreIgnored() {
+        SchedulingClient.Schedule inactive = fixed(List.of(DayOfWeek.MONDAY), LocalTime.of(8, 0));
+        inactive.setIsActive(false);
+        SchedulingClient.Schedule noDays = fixed(null, LocalTime.of(8, 0));
+        RouteTimetable timetable = RouteTimetable.from(route, List.of(inactive, noDays), 20);
+
+        assertFalse(timetable.hasDepartures());
+        assertNull(timetable.tripDeparture(MONDAY.atTime(9, 0), 0, 0));
+
+        RouteTimetable sunday = RouteTimetable.from(route, List.of(
+                fixed(List.of(DayOfWeek.SUNDAY), LocalTime.of(8, 0))), 20);
+        assertTrue(sunday.hasDepartures());
+        assertNull(sunday.tripDeparture(MONDAY.plusDays(1).atTime(9, 0), 0, 0));
+    }
+
+    private static SchedulingClient.Schedule fixed(List<DayOfWeek> days, LocalTime... departures) {
+        SchedulingClient.Schedule schedule = new SchedulingClient.Schedule();
+        schedule.setActiveDays(days);
+        schedule.setDepartureTimes(List.of(departures));
+        return schedule;
+    }
+
+    private static SchedulingClient.Stop stop(int order, double latitude, double longitude,
+                                              Double distanceToNext, Integer durationToNext) {
+        SchedulingClient.Stop stop = new SchedulingClient.Stop();
+        stop.setId(UUID.randomUUID());
+        stop.setName("Arrêt " + order);
+        stop.setSequenceOrder(order);
+        stop.setLatitude(latitude);
+        stop.setLongitude(longitude);
+        stop.setDistanceToNext(distanceToNext);
+        stop.setDurationToNext(durationToNext);
+        return stop;
+    }
+}
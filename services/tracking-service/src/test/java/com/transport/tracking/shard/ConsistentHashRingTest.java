@@ -0,0 +1,92 @@
+package com.transport.tracking.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 30_000;
+    private static final int VIRTUAL_NODES = 128;
+
+    @Test
+    void emptyRingHasNoOwner() {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of(), VIRTUAL_NODES);
+
+        assertTrue(ring.isEmpty());
+        assertNull(ring.owner("bus-1"));
+    }
+
+    @Test
+    void rejectsInvalidVirtualNodes() {
+        assertThrows(IllegalArgumentException.class, () -> ConsistentHashRing.of(List.of("a"), 0));
+    }
+
+    @Test
+    void ownershipDoesNotDependOnMemberOrder() {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of("a", "b", "c"), VIRTUAL_NODES);
+        ConsistentHashRing shuffled = ConsistentHashRing.of(List.of("c", "a", "b"), VIRTUAL_NODES);
+
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals(ring.owner(busId(i)), shuffled.owner(busId(i)));
+        }
+    }
+
+    @Test
+    void keysAreSpreadAcrossMembers() {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of("a", "b", "c"), VIRTUAL_NODES);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.owner(busId(i)), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            double share = count.getValue() / (double) KEYS;
+            assertTrue(share > 0.25 && share < 0.42, count.getKey() + " owns " + share);
+        }
+    }
+
+    @Test
+    void addingMemberOnlyMovesKeysToIt() {
+        ConsistentHashRing before = ConsistentHashRing.of(List.of("a", "b", "c"), VIRTUAL_NODES);
+        ConsistentHashRing after = ConsistentHashRing.of(List.of("a", "b", "c", "d"), VIRTUAL_NODES);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String previous = before.owner(busId(i));
+            String current = after.owner(busId(i));
+            if (!previous.equals(current)) {
+                assertEquals("d", current);
+                moved++;
+            }
+        }
+        double share = moved / (double) KEYS;
+        assertTrue(share > 0.15 && share < 0.35, "moved " + share);
+    }
+
+    @Test
+    void removingMemberOnlyMovesItsKeys() {
+        ConsistentHashRing before = ConsistentHashRing.of(List.of("a", "b", "c", "d"), VIRTUAL_NODES);
+        ConsistentHashRing after = ConsistentHashRing.of(List.of("a", "b", "c"), VIRTUAL_NODES);
+
+        for (int i = 0; i < KEYS; i++) {
+            String previous = before.owner(busId(i));
+            if (!previous.equals("d")) {
+                assertEquals(previous, after.owner(busId(i)));
+            }
+        }
+    }
+
+    private static String busId(int i) {
+        return String.format("65f1c2a3b4d5e6f7a8b9%04x", i);
+    }
+}
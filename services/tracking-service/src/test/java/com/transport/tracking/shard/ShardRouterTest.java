@@ -0,0 +1,168 @@
+package com.transport.tracking.shard;
+
+import com.transport.tracking.eta.DelayDetector;
+import com.transport.tracking.geo.SpatialGridIndex;
+import com.transport.tracking.ingest.PingSuppressor;
+import com.transport.tracking.model.BusLocation;
+import com.transport.tracking.network.RouteProgressTracker;
+import com.transport.tracking.repository.BusLocationRepository;
+import com.transport.tracking.state.LiveFleetState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardRouterTest {
+
+    private static final String SERVICE = "tracking-service";
+    private static final int BUSES = 200;
+
+    private final List<ServiceInstance> discovered = new ArrayList<>();
+    private final List<BusLocation> persisted = new ArrayList<>();
+
+    private LiveFleetState fleetState;
+    private PingSuppressor pingSuppressor;
+    private ShardRouter router;
+
+    @BeforeEach
+    void setUp() {
+        discovered.add(instance("tracking-1", 8084));
+        discovered.add(instance("tracking-2", 8085));
+        for (int i = 0; i < BUSES; i++) {
+            persisted.add(location("bus-" + i));
+        }
+
+        fleetState = new LiveFleetState(null, new SpatialGridIndex(0.01), 24);
+        pingSuppressor = new PingSuppressor(new SimpleMeterRegistry(), true, 10, 15, 30);
+        RouteProgressTracker progressTracker = new RouteProgressTracker(null, 300, 3);
+        DelayDetector delayDetector = new DelayDetector(null, progressTracker, null, false,
+                new int[] {5, 10}, 2, 3, 120);
+
+        DiscoveryClient discoveryClient = new DiscoveryClient() {
+            @Override
+            public String description() {
+                return "test";
+            }
+
+            @Override
+            public List<ServiceInstance> getInstances(String serviceId) {
+                return List.copyOf(discovered);
+            }
+
+            @Override
+            public List<String> getServices() {
+                return List.of(SERVICE);
+            }
+        };
+        Registration self = new TestRegistration("tracking-1", 8084);
+
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("registration", self));
+
+        router = new ShardRouter(discoveryClient, beans.getBeanProvider(Registration.class), fleetState, progressTracker, delayDetector,
+                pingSuppressor, repository(), true, SERVICE, 128, 24);
+        router.init();
+    }
+
+    @Test
+    void rebalanceReleasesForeignBusesAndLoadsOwnedOnes() {
+        // Instance seule au démarrage : elle garde tous les bus
+        discovered.remove(1);
+        router.refresh();
+        persisted.forEach(pingSuppressor::commit);
+        assertEquals(BUSES, fleetState.size());
+
+        // Deuxième instance : les bus cédés sont oubliés
+        discovered.add(instance("tracking-2", 8085));
+        router.refresh();
+
+        int owned = 0;
+        for (BusLocation location : persisted) {
+            String busId = location.getBusId();
+            if (router.isLocal(busId)) {
+                owned++;
+                assertTrue(fleetState.find(busId).isPresent(), busId + " should be kept");
+            } else {
+                assertFalse(fleetState.find(busId).isPresent(), busId + " should be released");
+                assertTrue(pingSuppressor.admit(location(busId)), busId + " suppression reference should be forgotten");
+            }
+        }
+        assertTrue(owned > 0 && owned < BUSES, "owned " + owned);
+        assertEquals(owned, fleetState.size());
+    }
+
+    @Test
+    void acquiredBusesAreLoadedFromMongo() {
+        router.refresh();
+        int owned = fleetState.size();
+        assertTrue(owned > 0 && owned < BUSES, "owned " + owned);
+
+        // tracking-2 disparaît : ses bus reviennent à tracking-1
+        discovered.remove(1);
+        router.refresh();
+
+        assertEquals(BUSES, fleetState.size());
+    }
+
+    @Test
+    void staleLocalFallbackEntriesAreClearedWithoutRingChange() {
+        router.refresh();
+        BusLocation foreign = persisted.stream()
+                .filter(location -> !router.isLocal(location.getBusId()))
+                .findFirst()
+                .orElseThrow();
+
+        // Position traitée localement pendant une panne du propriétaire
+        fleetState.update(foreign);
+        pingSuppressor.commit(foreign);
+
+        router.refresh();
+
+        assertFalse(fleetState.find(foreign.getBusId()).isPresent());
+        assertTrue(pingSuppressor.admit(location(foreign.getBusId())));
+    }
+
+    private BusLocationRepository repository() {
+        return (BusLocationRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {BusLocationRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findLatestPerBus")) {
+                        return List.copyOf(persisted);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static BusLocation location(String busId) {
+        BusLocation location = new BusLocation();
+        location.setId("loc-" + busId);
+        location.setBusId(busId);
+        location.setRouteNumber("L1");
+        location.setLatitude(33.5731);
+        location.setLongitude(-7.5898);
+        location.setTimestamp(LocalDateTime.now().minusMinutes(1));
+        return location;
+    }
+
+    private static ServiceInstance instance(String instanceId, int port) {
+        return new DefaultServiceInstance(instanceId, SERVICE, "localhost", port, false);
+    }
+
+    private static class TestRegistration extends DefaultServiceInstance implements Registration {
+        TestRegistration(String instanceId, int port) {
+            super(instanceId, SERVICE, "localhost", port, false);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.transport.tracking.state;
+
+import com.transport.tracking.geo.SpatialGridIndex;
+import com.transport.tracking.model.BusLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveFleetStateTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 6, 8, 0);
+
+    private LiveFleetState state;
+
+    @BeforeEach
+    void setUp() {
+        state = new LiveFleetState(null, new SpatialGridIndex(0.01), 24);
+    }
+
+    @Test
+    void newerPositionReplacesLatest() {
+        state.update(location("bus-1", "12", 0, 33.5731, -7.5898));
+        BusLocation newer = location("bus-1", "12", 10, 33.5740, -7.5890);
+        state.update(newer);
+
+        assertSame(newer, state.find("bus-1").orElseThrow());
+        assertEquals(1, state.size());
+    }
+
+    @Test
+    void olderPositionIsIgnored() {
+        BusLocation latest = location("bus-1", "12", 10, 33.5740, -7.5890);
+        state.update(latest);
+        state.update(location("bus-1", "7", 0, 33.6000, -7.6000));
+
+        assertSame(latest, state.find("bus-1").orElseThrow());
+        assertEquals(1, state.findByRoute("12", T0.minusMinutes(1)).size());
+        assertTrue(state.findByRoute("7", T0.minusMinutes(1)).isEmpty());
+        // L'index spatial garde la position la plus récente
+        assertTrue(state.findNearby(33.6000, -7.6000, 0.1, T0.minusMinutes(1)).isEmpty());
+    }
+
+    @Test
+    void routeChangeMovesBusBetweenRouteViews() {
+        state.update(location("bus-1", "12", 0, 33.5731, -7.5898));
+        state.update(location("bus-2", "12", 0, 33.5731, -7.5898));
+        state.update(location("bus-1", "7", 10, 33.5731, -7.5898));
+
+        List<BusLocation> route12 = state.findByRoute("12", T0.minusMinutes(1));
+        List<BusLocation> route7 = state.findByRoute("7", T0.minusMinutes(1));
+        assertEquals(1, route12.size());
+        assertEquals("bus-2", route12.get(0).getBusId());
+        assertEquals(1, route7.size());
+        assertEquals("bus-1", route7.get(0).getBusId());
+    }
+
+    @Test
+    void routeViewFiltersBySince() {
+        state.update(location("bus-1", "12", 0, 33.5731, -7.5898));
+        state.update(location("bus-2", "12", 30, 33.5731, -7.5898));
+
+        List<BusLocation> recent = state.findByRoute("12", T0.plusSeconds(10));
+
+        assertEquals(1, recent.size());
+        assertEquals("bus-2", recent.get(0).getBusId());
+        assertTrue(state.findByRoute("99", T0.minusMinutes(1)).isEmpty());
+    }
+
+    @Test
+    void removeClearsAllViews() {
+        state.update(location("bus-1", "12", 0, 33.5731, -7.5898));
+        state.remove("bus-1");
+
+        assertFalse(state.find("bus-1").isPresent());
+        assertEquals(0, state.size());
+        assertTrue(state.findByRoute("12", T0.minusMinutes(1)).isEmpty());
+        assertTrue(state.findNearby(33.5731, -7.5898, 1, T0.minusMinutes(1)).isEmpty());
+    }
+
+    @Test
+    void findNearbyKeepsBusesWithinRadius() {
+        state.update(location("near", "12", 0, 33.5731, -7.5898));
+        // ~1,1 km au nord
+        state.update(location("far", "12", 0, 33.5831, -7.5898));
+
+        List<BusLocation> within500m = state.findNearby(33.5731, -7.5898, 0.5, T0.minusMinutes(1));
+        List<BusLocation> within2km = state.findNearby(33.5731, -7.5898, 2, T0.minusMinutes(1));
+
+        assertEquals(1, within500m.size());
+        assertEquals("near", within500m.get(0).getBusId());
+        assertEquals(2, within2km.size());
+    }
+
+    private static BusLocation location(String busId, String route, int seconds, double latitude, double longitude) {
+        BusLocation location = new BusLocation();
+        location.setBusId(busId);
+        location.setRouteNumber(route);
+        location.setTimestamp(T0.plusSeconds(seconds));
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        return location;
+    }
+}
@@ -0,0 +1,131 @@
+package com.transport.tracking.storage;
+
+import com.transport.tracking.model.BusLocation;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocationArchiveCodecTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 6);
+
+    @Test
+    void roundTripKeepsFieldsWithinPrecision() throws IOException {
+        List<BusLocation> written = new ArrayList<>();
+        for (int i = 0; i < 8640; i++) {
+            BusLocation location = location(DAY.atStartOfDay().plusSeconds(10L * i).plusNanos(123_000_000),
+                    33.5731 + i * 1.3e-5, -7.5898 - i * 0.7e-5);
+            location.setSpeed(i % 50 + 0.21);
+            location.setHeading((i * 7) % 360 + 0.04);
+            location.setCurrentPassengers(i % 80);
+            location.setRouteNumber(i < 4000 ? "L1" : "L7");
+            written.add(location);
+        }
+
+        List<BusLocation> read = roundTrip(written);
+
+        assertEquals(written.size(), read.size());
+        for (int i = 0; i < written.size(); i++) {
+            BusLocation expected = written.get(i);
+            BusLocation actual = read.get(i);
+            assertEquals("bus-1", actual.getBusId());
+            assertNull(actual.getId());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            assertEquals(expected.getLatitude(), actual.getLatitude(), 5e-7);
+            assertEquals(expected.getLongitude(), actual.getLongitude(), 5e-7);
+            assertEquals(expected.getSpeed(), actual.getSpeed(), 0.05);
+            assertEquals(expected.getHeading(), actual.getHeading(), 0.05);
+            assertEquals(expected.getCurrentPassengers(), actual.getCurrentPassengers());
+            assertEquals(expected.getRouteNumber(), actual.getRouteNumber());
+        }
+    }
+
+    @Test
+    void missingFieldsStayMissing() throws IOException {
+        BusLocation withPosition = location(DAY.atTime(8, 0), 33.5731, -7.5898);
+        withPosition.setRouteNumber("L1");
+        BusLocation bare = location(DAY.atTime(8, 0, 10), null, null);
+        bare.setRouteNumber(null);
+
+        List<BusLocation> read = roundTrip(List.of(withPosition, bare));
+
+        assertEquals(2, read.size());
+        assertEquals("L1", read.get(0).getRouteNumber());
+        assertNull(read.get(0).getSpeed());
+        assertNull(read.get(0).getHeading());
+        assertNull(read.get(0).getCurrentPassengers());
+        assertNull(read.get(1).getLatitude());
+        assertNull(read.get(1).getLongitude());
+        assertNull(read.get(1).getRouteNumber());
+    }
+
+    @Test
+    void writerCollectsRoutesOfDay() {
+        LocationArchiveCodec.Writer writer = new LocationArchiveCodec.Writer(DAY);
+        String[] routes = {"L7", null, "L1", "L7"};
+        for (int i = 0; i < routes.length; i++) {
+            BusLocation location = location(DAY.atTime(8, i), 33.5731, -7.5898);
+            location.setRouteNumber(routes[i]);
+            writer.write(location);
+        }
+
+        assertEquals(List.of("L1", "L7"), List.copyOf(writer.getRoutes()));
+    }
+
+    @Test
+    void emptyDayRoundTrips() throws IOException {
+        assertTrue(roundTrip(List.of()).isEmpty());
+    }
+
+    @Test
+    void rejectsLocationsOutOfOrder() {
+        LocationArchiveCodec.Writer writer = new LocationArchiveCodec.Writer(DAY);
+        writer.write(location(DAY.atTime(9, 0), 33.5731, -7.5898));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> writer.write(location(DAY.atTime(8, 59), 33.5731, -7.5898)));
+    }
+
+    @Test
+    void rejectsUnknownFormat() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(new byte[] {'X', 'Y', 'Z', 1, 0});
+        }
+
+        assertThrows(IOException.class, () -> LocationArchiveCodec.read(
+                new ByteArrayInputStream(bytes.toByteArray()), "bus-1", location -> { }));
+    }
+
+    private static List<BusLocation> roundTrip(List<BusLocation> locations) throws IOException {
+        LocationArchiveCodec.Writer writer = new LocationArchiveCodec.Writer(DAY);
+        locations.forEach(writer::write);
+        assertEquals(locations.size(), writer.getCount());
+
+        List<BusLocation> read = new ArrayList<>();
+        LocationArchiveCodec.read(new ByteArrayInputStream(writer.finish()), "bus-1", read::add);
+        return read;
+    }
+
+    private static BusLocation location(LocalDateTime timestamp, Double latitude, Double longitude) {
+        BusLocation location = new BusLocation();
+        location.setId("loc");
+        location.setBusId("bus-1");
+        location.setTimestamp(timestamp);
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        return location;
+    }
+}